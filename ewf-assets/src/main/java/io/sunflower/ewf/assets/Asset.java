@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.assets;
+
+import java.net.URL;
+import java.nio.file.Path;
+
+/**
+ * What is needed to answer a request for one asset, resolved once.
+ *
+ * @author michael
+ */
+class Asset {
+
+    final URL url;
+    final long lastModified;
+
+    /**
+     * -1 if unknown
+     */
+    final long length;
+
+    final String contentType;
+
+    /**
+     * the whole asset if small enough to be kept in memory, otherwise null
+     */
+    final byte[] content;
+
+    /**
+     * the asset on the file system, null if it comes from a jar
+     */
+    final Path file;
+
+    Asset(URL url, long lastModified, long length, String contentType, byte[] content, Path file) {
+        this.url = url;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.contentType = contentType;
+        this.content = content;
+        this.file = file;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.assets;
+
+import com.google.common.io.ByteStreams;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.support.MimeTypes;
+import io.sunflower.ewf.support.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asset metadata (last modified, length, content type) and - for small assets - their content,
+ * keyed by the resolved URL and the file name the content type is derived from.
+ * <p>
+ * The content of all assets together stays within {@link Settings#getAssetsCacheSize()}; once
+ * the budget is used up further assets are served from their source. Assets above
+ * {@link Settings#getAssetsCacheMaxEntrySize()} are never held in memory, file system assets of
+ * that size are sent with {@link io.sunflower.ewf.support.ResponseStreams#transferFrom}.
+ * <p>
+ * In prod an entry is computed once. In dev file system assets are checked on every request and
+ * reloaded when they changed.
+ *
+ * @author michael
+ */
+@Singleton
+public class AssetCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssetCache.class);
+
+    private final MimeTypes mimeTypes;
+    private final boolean revalidate;
+    private final long maxEntrySize;
+    private final long size;
+
+    private final AtomicLong used = new AtomicLong();
+    private final ConcurrentMap<String, Asset> assets = new ConcurrentHashMap<>();
+
+    @Inject
+    public AssetCache(MimeTypes mimeTypes, Settings settings) {
+        this.mimeTypes = mimeTypes;
+        this.revalidate = !settings.isProd();
+        this.maxEntrySize = settings.getAssetsCacheMaxEntrySize();
+        this.size = settings.getAssetsCacheSize();
+    }
+
+    /**
+     * @param url                the resolved asset
+     * @param fileNameOfMimeType the name the content type is derived from, the original file for
+     *                           precompressed variants
+     * @param context            the current context
+     * @return the asset
+     * @throws IOException if the asset can't be read
+     */
+    Asset get(URL url, String fileNameOfMimeType, Context context) throws IOException {
+        // the same URL may be served under another name, e.g. a precompressed variant on its own
+        String key = fileNameOfMimeType + '\n' + url.toExternalForm();
+        Asset asset = assets.get(key);
+
+        if (asset != null && (!revalidate || isCurrent(asset))) {
+            return asset;
+        }
+
+        Asset loaded = load(url, fileNameOfMimeType, context);
+
+        if (asset == null) {
+            Asset existing = assets.putIfAbsent(key, loaded);
+
+            if (existing != null) {
+                release(loaded);
+                return existing;
+            }
+        } else if (assets.replace(key, asset, loaded)) {
+            release(asset);
+        } else {
+            release(loaded);
+        }
+
+        return loaded;
+    }
+
+    private Asset load(URL url, String fileNameOfMimeType, Context context) throws IOException {
+        String contentType = mimeTypes.getContentType(context, fileNameOfMimeType);
+        Path file = toPath(url);
+
+        if (file != null) {
+            long length = Files.size(file);
+            byte[] content = reserve(length) ? readAll(file, length) : null;
+
+            return new Asset(url, Files.getLastModifiedTime(file).toMillis(), length, contentType, content, file);
+        }
+
+        URLConnection urlConnection = url.openConnection();
+        long length = urlConnection.getContentLengthLong();
+        byte[] content = null;
+
+        if (reserve(length)) {
+            try (InputStream inputStream = urlConnection.getInputStream()) {
+                content = ByteStreams.toByteArray(inputStream);
+            } catch (IOException | RuntimeException e) {
+                used.addAndGet(-length);
+                throw e;
+            }
+        }
+
+        return new Asset(url, urlConnection.getLastModified(), length, contentType, content, null);
+    }
+
+    private byte[] readAll(Path file, long length) throws IOException {
+        try {
+            byte[] content = Files.readAllBytes(file);
+
+            if (content.length != length) {
+                // changed while reading, account for what we hold
+                used.addAndGet(content.length - length);
+            }
+
+            return content;
+        } catch (IOException | RuntimeException e) {
+            used.addAndGet(-length);
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if the content of the given length fits into the budget and was accounted for
+     */
+    private boolean reserve(long length) {
+        if (length < 0 || length > maxEntrySize) {
+            return false;
+        }
+
+        long current;
+
+        do {
+            current = used.get();
+
+            if (current + length > size) {
+                return false;
+            }
+        } while (!used.compareAndSet(current, current + length));
+
+        return true;
+    }
+
+    private void release(Asset asset) {
+        if (asset.content != null) {
+            used.addAndGet(-asset.content.length);
+        }
+    }
+
+    private static boolean isCurrent(Asset asset) {
+        if (asset.file == null) {
+            // inside a jar, does not change without a restart
+            return true;
+        }
+
+        try {
+            return Files.getLastModifiedTime(asset.file).toMillis() == asset.lastModified
+                    && Files.size(asset.file) == asset.length;
+        } catch (IOException e) {
+            logger.debug("Asset {} is gone", asset.file, e);
+            return false;
+        }
+    }
+
+    private static Path toPath(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            logger.debug("Can't convert {} to a path", url, e);
+            return null;
+        }
+    }
+}
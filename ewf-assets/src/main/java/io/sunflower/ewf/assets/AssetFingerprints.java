@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.assets;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.Resources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content hashed asset names: css/app.css becomes css/app.3f9a1c0d2e4b.css. The hash changes with
+ * the content, so the fingerprinted name can be cached forever.
+ * <p>
+ * Hashes are computed on first use. In prod they are kept, in dev they are computed for every
+ * call as the assets change while developing.
+ *
+ * @author michael
+ */
+class AssetFingerprints {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssetFingerprints.class);
+
+    static final int HASH_LENGTH = 12;
+
+    /**
+     * name.hash.extension or name.hash
+     */
+    private static final Pattern FINGERPRINTED = Pattern.compile(
+            "(.*)\\.([0-9a-f]{" + HASH_LENGTH + "})(\\.[^./]+)?");
+
+    private final boolean remember;
+
+    /**
+     * file name -&gt; fingerprinted file name, only assets that exist
+     */
+    private final ConcurrentMap<String, String> fingerprinted = new ConcurrentHashMap<>();
+
+    AssetFingerprints(boolean remember) {
+        this.remember = remember;
+    }
+
+    /**
+     * @param fileName the asset
+     * @param lookup   finds the asset
+     * @return the fingerprinted name or the name itself if there is no such asset
+     */
+    String fingerprint(String fileName, Function<String, URL> lookup) {
+        String result = remember ? fingerprinted.get(fileName) : null;
+
+        if (result == null) {
+            String hash = hash(fileName, lookup);
+
+            if (hash == null) {
+                return fileName;
+            }
+
+            result = insertHash(fileName, hash);
+
+            if (remember) {
+                fingerprinted.put(fileName, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @param fileName the requested name
+     * @param lookup   finds the asset
+     * @return the name of the asset if fileName is its current fingerprinted name, null otherwise
+     */
+    String resolve(String fileName, Function<String, URL> lookup) {
+        Matcher matcher = FINGERPRINTED.matcher(fileName);
+
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        String original = matcher.group(3) == null ? matcher.group(1) : matcher.group(1) + matcher.group(3);
+
+        return fileName.equals(fingerprint(original, lookup)) ? original : null;
+    }
+
+    static String insertHash(String fileName, String hash) {
+        int slash = fileName.lastIndexOf('/');
+        int dot = fileName.lastIndexOf('.');
+
+        // a leading dot (.htaccess) does not start an extension
+        if (dot <= slash + 1) {
+            return fileName + "." + hash;
+        }
+
+        return fileName.substring(0, dot) + "." + hash + fileName.substring(dot);
+    }
+
+    private static String hash(String fileName, Function<String, URL> lookup) {
+        URL url = lookup.apply(fileName);
+
+        if (url == null) {
+            return null;
+        }
+
+        try {
+            return Resources.asByteSource(url).hash(Hashing.sha256()).toString().substring(0, HASH_LENGTH);
+        } catch (IOException e) {
+            logger.warn("Can't fingerprint asset {}", fileName, e);
+            return null;
+        }
+    }
+}
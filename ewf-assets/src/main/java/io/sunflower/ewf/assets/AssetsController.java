@@ -16,14 +16,16 @@
 package io.sunflower.ewf.assets;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Renderable;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.Results;
+import io.sunflower.ewf.support.ByteRanges;
 import io.sunflower.ewf.support.HttpCacheToolkit;
-import io.sunflower.ewf.support.MimeTypes;
+import io.sunflower.ewf.support.ResponseCompression;
 import io.sunflower.ewf.support.ResponseStreams;
 import io.sunflower.ewf.support.Settings;
 import org.slf4j.Logger;
@@ -35,7 +37,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 /**
  * This controller serves public resources under /assets. It is capable of serving static files,
@@ -53,7 +60,7 @@ public class AssetsController {
 
     public final static String FILENAME_PATH_PARAM = "fileName";
 
-    private final MimeTypes mimeTypes;
+    private final AssetCache assetCache;
 
     private final HttpCacheToolkit httpCacheToolkit;
 
@@ -61,15 +68,33 @@ public class AssetsController {
 
     private final AssetsControllerHelper assetsControllerHelper;
 
+    /**
+     * normalized file name -&gt; classpath resource, only assets that exist
+     */
+    private final ConcurrentMap<String, URL> classpathAssets = new ConcurrentHashMap<>();
+
+    /**
+     * resolved asset -&gt; its precompressed siblings, only in prod
+     */
+    private final ConcurrentMap<String, List<PrecompressedVariant>> precompressedVariants =
+            new ConcurrentHashMap<>();
+
+    private final AssetFingerprints fingerprints;
+
+    private final WebJarsIndex webJarsIndex;
+
     @Inject
     public AssetsController(AssetsControllerHelper assetsControllerHelper,
                             HttpCacheToolkit httpCacheToolkit,
-                            MimeTypes mimeTypes,
+                            AssetCache assetCache,
+                            WebJarsIndex webJarsIndex,
                             Settings configuration) {
         this.assetsControllerHelper = assetsControllerHelper;
         this.httpCacheToolkit = httpCacheToolkit;
-        this.mimeTypes = mimeTypes;
+        this.assetCache = assetCache;
+        this.webJarsIndex = webJarsIndex;
         this.configuration = configuration;
+        this.fingerprints = new AssetFingerprints(configuration.isProd());
     }
 
     /**
@@ -85,12 +110,38 @@ public class AssetsController {
     public Result serveStatic() {
         Object renderable = (Renderable) (context, result) -> {
             String fileName = getFileNameFromPathOrReturnRequestPath(context);
-            URL url = getStaticFileFromAssetsDir(fileName);
-            streamOutUrlEntity(url, context, result);
+
+            if (configuration.isAssetsFingerprintEnabled()) {
+                String original = fingerprints.resolve(fileName, this::getStaticFileFromAssetsDir);
+
+                if (original != null) {
+                    streamOutUrlEntity(original, this::getStaticFileFromAssetsDir, true, context, result);
+                    return;
+                }
+            }
+
+            streamOutUrlEntity(fileName, this::getStaticFileFromAssetsDir, false, context, result);
         };
         return Results.ok().render(renderable);
     }
 
+    /**
+     * The name to link an asset with. If {@link Settings#isAssetsFingerprintEnabled()} it carries
+     * a hash of the content (css/app.3f9a1c0d2e4b.css) and is served with a cache lifetime of a
+     * year.
+     *
+     * @param fileName the asset below the assets directory
+     * @return the fingerprinted name, or fileName if fingerprinting is disabled or there is no
+     * such asset
+     */
+    public String fingerprint(String fileName) {
+        if (!configuration.isAssetsFingerprintEnabled()) {
+            return fileName;
+        }
+
+        return fingerprints.fingerprint(fileName, this::getStaticFileFromAssetsDir);
+    }
+
 
     /**
      * Serves resources from the assets directory of your application.
@@ -103,14 +154,19 @@ public class AssetsController {
             @Override
             public void render(Context context, Result result) {
                 String fileName = getFileNameFromPathOrReturnRequestPath(context);
-                URL url = getStaticFileFromMetaInfResourcesDir(fileName);
-                streamOutUrlEntity(url, context, result);
+                streamOutUrlEntity(fileName, AssetsController.this::getStaticFileFromMetaInfResourcesDir, false, context, result);
             }
         };
         return Results.ok().render(renderable);
     }
 
-    private void streamOutUrlEntity(URL url, Context context, Result result) {
+    private void streamOutUrlEntity(String fileName,
+                                    Function<String, URL> lookup,
+                                    boolean immutable,
+                                    Context context,
+                                    Result result) {
+        URL url = lookup.apply(fileName);
+
         // check if stream exists. if not print a notfound exception
         if (url == null) {
             context.finalizeHeadersWithoutFlashAndSessionCookie(Results.notFound());
@@ -119,9 +175,21 @@ public class AssetsController {
             context.finalizeHeadersWithoutFlashAndSessionCookie(Results.notFound());
         } else {
             try {
-                URLConnection urlConnection = url.openConnection();
-                Long lastModified = urlConnection.getLastModified();
-                httpCacheToolkit.addEtag(context, result, lastModified);
+                // a precompressed sibling (app.js.br, app.js.gz) is sent instead if the client takes it
+                PrecompressedVariant variant = selectPrecompressedVariant(fileName, url, lookup, context, result);
+                URL entityUrl = variant == null ? url : variant.url;
+
+                // the content type is the one of the original, not of the .gz
+                Asset asset = assetCache.get(entityUrl, url.getFile(), context);
+
+                if (immutable) {
+                    httpCacheToolkit.addImmutable(context, result, asset.lastModified,
+                            variant == null ? null : variant.encoding.contentEncoding);
+                } else if (variant == null) {
+                    httpCacheToolkit.addEtag(context, result, asset.lastModified);
+                } else {
+                    httpCacheToolkit.addEtag(context, result, asset.lastModified, variant.encoding.contentEncoding);
+                }
 
                 if (result.getStatusCode() == Result.SC_304_NOT_MODIFIED) {
                     // Do not stream anything out. Simply return 304
@@ -129,20 +197,42 @@ public class AssetsController {
                 } else {
                     result.status(200);
 
-                    // Try to set the mimetype:
-                    String mimeType = mimeTypes.getContentType(context,
-                            url.getFile());
+                    if (asset.contentType != null && !asset.contentType.isEmpty()) {
+                        result.contentType(asset.contentType);
+                    }
+
+                    if (variant != null) {
+                        result.addHeader(HttpHeaders.CONTENT_ENCODING, variant.encoding.contentEncoding);
+                    }
+
+                    if (asset.length >= 0) {
+                        List<ByteRanges.Range> ranges = ByteRanges.requested(context, result, asset.length,
+                                asset.lastModified);
+
+                        if (ranges != null) {
+                            ByteRanges.send(result, asset.length, ranges, rangeSource(asset),
+                                    context::finalizeHeadersWithoutFlashAndSessionCookie);
+                            return;
+                        }
 
-                    if (mimeType != null && !mimeType.isEmpty()) {
-                        result.contentType(mimeType);
+                        result.addHeader(HttpHeaders.ACCEPT_RANGES, ByteRanges.BYTES);
+                        result.addHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(asset.length));
                     }
 
                     ResponseStreams responseStreams = context
                             .finalizeHeadersWithoutFlashAndSessionCookie(result);
 
-                    try (InputStream inputStream = urlConnection.getInputStream();
-                         OutputStream outputStream = responseStreams.getOutputStream()) {
-                        ByteStreams.copy(inputStream, outputStream);
+                    if (asset.content != null) {
+                        try (OutputStream outputStream = responseStreams.getOutputStream()) {
+                            outputStream.write(asset.content);
+                        }
+                    } else if (asset.file != null) {
+                        responseStreams.transferFrom(asset.file);
+                    } else {
+                        try (InputStream inputStream = asset.url.openStream();
+                             OutputStream outputStream = responseStreams.getOutputStream()) {
+                            ByteStreams.copy(inputStream, outputStream);
+                        }
                     }
 
                 }
@@ -155,6 +245,80 @@ public class AssetsController {
 
     }
 
+    private static ByteRanges.Source rangeSource(Asset asset) {
+        if (asset.content != null) {
+            return ByteRanges.of(asset.content);
+        } else if (asset.file != null) {
+            return ByteRanges.of(asset.file);
+        } else {
+            return ByteRanges.of(asset.url);
+        }
+    }
+
+    /**
+     * Looks for precompressed siblings of the asset. If there are any the response varies on
+     * Accept-Encoding, whichever representation is sent.
+     *
+     * @return the best variant the client accepts or null to send the asset itself
+     */
+    private PrecompressedVariant selectPrecompressedVariant(String fileName,
+                                                           URL url,
+                                                           Function<String, URL> lookup,
+                                                           Context context,
+                                                           Result result) {
+        // the assets don't change in prod, the siblings are looked up once per asset
+        List<PrecompressedVariant> variants = configuration.isProd()
+                ? precompressedVariants.computeIfAbsent(url.toExternalForm(),
+                key -> findPrecompressedVariants(fileName, lookup))
+                : findPrecompressedVariants(fileName, lookup);
+
+        if (variants.isEmpty()) {
+            return null;
+        }
+
+        result.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        PrecompressedVariant best = null;
+        double bestQuality = 0;
+
+        for (PrecompressedVariant variant : variants) {
+            double quality = ResponseCompression.acceptQuality(context.getAcceptEncoding(),
+                    variant.encoding.contentEncoding);
+
+            // on a tie the better compression (declared first) wins
+            if (quality > bestQuality) {
+                best = variant;
+                bestQuality = quality;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * @return the precompressed siblings that exist, best compression first
+     */
+    private List<PrecompressedVariant> findPrecompressedVariants(String fileName,
+                                                                 Function<String, URL> lookup) {
+        List<PrecompressedVariant> variants = null;
+
+        for (PrecompressedEncoding encoding : PrecompressedEncoding.values()) {
+            URL url = lookup.apply(fileName + encoding.suffix);
+
+            if (url == null || assetsControllerHelper.isDirectoryURL(url)) {
+                continue;
+            }
+
+            if (variants == null) {
+                variants = new ArrayList<>(PrecompressedEncoding.values().length);
+            }
+
+            variants.add(new PrecompressedVariant(encoding, url));
+        }
+
+        return variants == null ? Collections.emptyList() : variants;
+    }
+
     /**
      * Loads files from assets directory. This is the default directory of Ninja where to store stuff.
      * Usually in src/main/java/assets/.
@@ -179,8 +343,17 @@ public class AssetsController {
         } else {
             String finalNameWithoutLeadingSlash = assetsControllerHelper
                     .normalizePathWithoutLeadingSlash(fileName, true);
-            url = this.getClass().getClassLoader()
-                    .getResource(ASSETS_DIR + "/" + finalNameWithoutLeadingSlash);
+            url = classpathAssets.get(finalNameWithoutLeadingSlash);
+
+            if (url == null) {
+                url = this.getClass().getClassLoader()
+                        .getResource(ASSETS_DIR + "/" + finalNameWithoutLeadingSlash);
+
+                // the classpath does not change in prod, remember what exists
+                if (url != null && configuration.isProd()) {
+                    classpathAssets.put(finalNameWithoutLeadingSlash, url);
+                }
+            }
         }
 
         return url;
@@ -200,13 +373,13 @@ public class AssetsController {
 
     /**
      * Loads files from META-INF/resources directory. This is compatible with Servlet 3.0
-     * specification and allows to use e.g. webjars project.
+     * specification and allows to use e.g. webjars project. The resources are indexed at startup,
+     * see {@link WebJarsIndex}.
      */
     private URL getStaticFileFromMetaInfResourcesDir(String fileName) {
         String finalNameWithoutLeadingSlash
                 = assetsControllerHelper.normalizePathWithoutLeadingSlash(fileName, true);
-        return this.getClass().getClassLoader()
-                .getResource("META-INF/resources/webjars/" + finalNameWithoutLeadingSlash);
+        return webJarsIndex.lookup(finalNameWithoutLeadingSlash);
     }
 
     private static String getFileNameFromPathOrReturnRequestPath(Context context) {
@@ -234,4 +407,32 @@ public class AssetsController {
                 + "java";
         return srcDir + File.separator + ASSETS_DIR;
     }
+
+    /**
+     * Precompressed siblings, best compression first.
+     */
+    private enum PrecompressedEncoding {
+
+        BROTLI("br", ".br"),
+        GZIP(ResponseCompression.GZIP, ".gz");
+
+        final String contentEncoding;
+        final String suffix;
+
+        PrecompressedEncoding(String contentEncoding, String suffix) {
+            this.contentEncoding = contentEncoding;
+            this.suffix = suffix;
+        }
+    }
+
+    private static class PrecompressedVariant {
+
+        final PrecompressedEncoding encoding;
+        final URL url;
+
+        PrecompressedVariant(PrecompressedEncoding encoding, URL url) {
+            this.encoding = encoding;
+            this.url = url;
+        }
+    }
 }
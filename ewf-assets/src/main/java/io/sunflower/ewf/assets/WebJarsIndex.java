@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.assets;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.support.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * All webjar resources on the classpath, collected once, so serving one is a map lookup instead
+ * of asking every jar of the classpath via {@link ClassLoader#getResource(String)}.
+ * <p>
+ * Paths are relative to META-INF/resources/webjars, e.g. jquery/3.6.0/jquery.min.js. With
+ * {@link Settings#isWebJarsVersionAgnostic()} jquery/jquery.min.js resolves to the same resource
+ * as long as there is only one version of jquery. Like the classloader the first classpath entry
+ * wins if a resource exists more than once.
+ * <p>
+ * Jars are found by their META-INF/resources/webjars directory entry, which jars built by maven
+ * always have.
+ *
+ * @author michael
+ */
+@Singleton
+public class WebJarsIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebJarsIndex.class);
+
+    static final String WEBJARS_DIR = "META-INF/resources/webjars";
+
+    private final ClassLoader classLoader;
+
+    private final Map<String, URL> resources = new HashMap<>();
+
+    /**
+     * false if a classpath entry could not be listed, lookups fall back to the classloader then
+     */
+    private boolean complete = true;
+
+    @Inject
+    public WebJarsIndex(Settings settings) {
+        this(WebJarsIndex.class.getClassLoader(), settings.isWebJarsVersionAgnostic());
+    }
+
+    WebJarsIndex(ClassLoader classLoader, boolean versionAgnostic) {
+        this.classLoader = classLoader;
+
+        try {
+            Enumeration<URL> roots = classLoader.getResources(WEBJARS_DIR);
+
+            while (roots.hasMoreElements()) {
+                index(roots.nextElement());
+            }
+        } catch (IOException e) {
+            logger.warn("Can't list the webjars on the classpath", e);
+            complete = false;
+        }
+
+        if (versionAgnostic) {
+            addVersionAgnosticPaths();
+        }
+
+        logger.debug("Indexed {} webjar resources", resources.size());
+    }
+
+    /**
+     * @param path normalized path below META-INF/resources/webjars without leading slash
+     * @return the resource or null if there is none
+     */
+    URL lookup(String path) {
+        URL url = resources.get(path);
+
+        if (url == null && !complete) {
+            url = classLoader.getResource(WEBJARS_DIR + "/" + path);
+        }
+
+        return url;
+    }
+
+    private void index(URL root) {
+        try {
+            if ("file".equals(root.getProtocol())) {
+                indexDirectory(Paths.get(root.toURI()));
+                return;
+            }
+
+            URLConnection connection = root.openConnection();
+
+            if (connection instanceof JarURLConnection) {
+                indexJar((JarURLConnection) connection);
+                return;
+            }
+
+            logger.warn("Can't list webjars in {}, they are looked up per request", root);
+            complete = false;
+        } catch (IOException | URISyntaxException | RuntimeException e) {
+            logger.warn("Can't list webjars in {}, they are looked up per request", root, e);
+            complete = false;
+        }
+    }
+
+    private void indexDirectory(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                String path = root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/");
+
+                try {
+                    resources.putIfAbsent(path, file.toUri().toURL());
+                } catch (IOException e) {
+                    logger.warn("Can't index webjar resource {}", file, e);
+                }
+            });
+        }
+    }
+
+    private void indexJar(JarURLConnection connection) throws IOException {
+        String prefix = WEBJARS_DIR + "/";
+        String jarFileUrl = connection.getJarFileURL().toExternalForm();
+
+        // the jar file is shared with the classloader, it must not be closed
+        JarFile jarFile = connection.getJarFile();
+        Enumeration<JarEntry> entries = jarFile.entries();
+
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            String name = entry.getName();
+
+            if (!entry.isDirectory() && name.startsWith(prefix)) {
+                resources.putIfAbsent(name.substring(prefix.length()), new URL("jar:" + jarFileUrl + "!/" + name));
+            }
+        }
+    }
+
+    /**
+     * Adds name/rest for every name/version/rest if there is exactly one version of name.
+     */
+    private void addVersionAgnosticPaths() {
+        Map<String, Set<String>> versions = new HashMap<>();
+
+        for (String path : resources.keySet()) {
+            String[] segments = path.split("/", 3);
+
+            if (segments.length == 3) {
+                versions.computeIfAbsent(segments[0], name -> new HashSet<>()).add(segments[1]);
+            }
+        }
+
+        Map<String, URL> aliases = new HashMap<>();
+
+        for (Map.Entry<String, URL> resource : resources.entrySet()) {
+            String[] segments = resource.getKey().split("/", 3);
+
+            if (segments.length == 3 && versions.get(segments[0]).size() == 1) {
+                aliases.put(segments[0] + "/" + segments[2], resource.getValue());
+            }
+        }
+
+        // real paths win over aliases
+        aliases.forEach(resources::putIfAbsent);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.assets;
+
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.support.MimeTypes;
+import io.sunflower.ewf.support.Settings;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AssetCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mock
+    MimeTypes mimeTypes;
+
+    @Mock
+    Settings settings;
+
+    @Mock
+    Context context;
+
+    @Test
+    public void smallAssetsAreHeldInMemoryAndComputedOnceInProd() throws Exception {
+        AssetCache assetCache = assetCache(true, 1024, 16);
+        URL url = write("app.js", "0123456789");
+
+        when(mimeTypes.getContentType(context, "app.js")).thenReturn("application/javascript");
+
+        Asset asset = assetCache.get(url, "app.js", context);
+
+        assertThat(asset.length, is(10L));
+        assertThat(asset.contentType, is("application/javascript"));
+        assertThat(new String(asset.content, StandardCharsets.UTF_8), is("0123456789"));
+        assertThat(assetCache.get(url, "app.js", context), sameInstance(asset));
+
+        verify(mimeTypes, times(1)).getContentType(context, "app.js");
+    }
+
+    @Test
+    public void contentTypeFollowsTheRequestedName() throws Exception {
+        AssetCache assetCache = assetCache(true, 1024, 16);
+        URL url = write("app.js.gz", "0123456789");
+
+        when(mimeTypes.getContentType(context, "app.js")).thenReturn("application/javascript");
+        when(mimeTypes.getContentType(context, "app.js.gz")).thenReturn("application/gzip");
+
+        assertThat(assetCache.get(url, "app.js", context).contentType, is("application/javascript"));
+        assertThat(assetCache.get(url, "app.js.gz", context).contentType, is("application/gzip"));
+        assertThat(assetCache.get(url, "app.js", context).contentType, is("application/javascript"));
+    }
+
+    @Test
+    public void largeAssetsAreSentFromTheFile() throws Exception {
+        AssetCache assetCache = assetCache(true, 1024, 4);
+        URL url = write("app.js", "0123456789");
+
+        Asset asset = assetCache.get(url, "app.js", context);
+
+        assertThat(asset.length, is(10L));
+        assertThat(asset.content, nullValue());
+        assertThat(asset.file, notNullValue());
+    }
+
+    @Test
+    public void assetsBeyondTheBudgetAreNotHeldInMemory() throws Exception {
+        AssetCache assetCache = assetCache(true, 12, 16);
+
+        assertThat(assetCache.get(write("a.js", "0123456789"), "a.js", context).content, notNullValue());
+        assertThat(assetCache.get(write("b.js", "0123456789"), "b.js", context).content, nullValue());
+    }
+
+    @Test
+    public void changedAssetsAreReloadedInDev() throws Exception {
+        AssetCache assetCache = assetCache(false, 1024, 16);
+        URL url = write("app.js", "0123456789");
+
+        Asset asset = assetCache.get(url, "app.js", context);
+        assertThat(assetCache.get(url, "app.js", context), sameInstance(asset));
+
+        write("app.js", "01234");
+
+        Asset reloaded = assetCache.get(url, "app.js", context);
+        assertThat(reloaded.length, is(5L));
+        assertThat(new String(reloaded.content, StandardCharsets.UTF_8), is("01234"));
+    }
+
+    private AssetCache assetCache(boolean prod, long size, long maxEntrySize) {
+        when(settings.isProd()).thenReturn(prod);
+        when(settings.getAssetsCacheSize()).thenReturn(size);
+        when(settings.getAssetsCacheMaxEntrySize()).thenReturn(maxEntrySize);
+        return new AssetCache(mimeTypes, settings);
+    }
+
+    private URL write(String name, String content) throws Exception {
+        File file = new File(folder.getRoot(), name);
+        Path path = file.toPath();
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toURL();
+    }
+}
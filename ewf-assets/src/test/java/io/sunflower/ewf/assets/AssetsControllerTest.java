@@ -15,6 +15,8 @@
 
 package io.sunflower.ewf.assets;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Renderable;
 import io.sunflower.ewf.Result;
@@ -32,10 +34,14 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -68,7 +74,8 @@ public class AssetsControllerTest {
         assetsController = new AssetsController(
                 new AssetsControllerHelper(),
                 httpCacheToolkit,
-                mimeTypes,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
                 configuration);
     }
 
@@ -148,7 +155,8 @@ public class AssetsControllerTest {
         assetsController = new AssetsController(
                 assetsControllerHelper,
                 httpCacheToolkit,
-                mimeTypes,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
                 configuration);
 
         when(contextRenderable.getRequestPath()).thenReturn("/");
@@ -206,7 +214,8 @@ public class AssetsControllerTest {
         assetsController = new AssetsController(
                 assetsControllerHelper,
                 httpCacheToolkit,
-                mimeTypes,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
                 configuration);
 
         when(contextRenderable.getRequestPath()).thenReturn(
@@ -234,7 +243,8 @@ public class AssetsControllerTest {
         assetsController = new AssetsController(
                 assetsControllerHelper,
                 httpCacheToolkit,
-                mimeTypes,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
                 configuration);
 
         when(contextRenderable.getRequestPath()).thenReturn(
@@ -266,7 +276,8 @@ public class AssetsControllerTest {
         assetsController = new AssetsController(
                 assetsControllerHelper,
                 httpCacheToolkit,
-                mimeTypes,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
                 configuration);
         when(contextRenderable.getRequestPath()).thenReturn(
                 "/assets/testasset.txt");
@@ -376,7 +387,8 @@ public class AssetsControllerTest {
         assetsController = new AssetsController(
                 assetsControllerHelper,
                 httpCacheToolkit,
-                mimeTypes,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
                 configuration);
         Result result = Results.ok();
 
@@ -405,4 +417,167 @@ public class AssetsControllerTest {
         verify(assetsControllerHelper).normalizePathWithoutLeadingSlash("/webjar_asset.txt", true);
 
     }
-}
\ No newline at end of file
+    @Test
+    public void testServeStaticPrecompressedGzipVariant() throws Exception {
+
+        Result result = Results.ok();
+
+        when(contextRenderable.getRequestPath()).thenReturn("/testasset.txt");
+        when(contextRenderable.getAcceptEncoding()).thenReturn("gzip, deflate");
+        when(mimeTypes.getContentType(Mockito.eq(contextRenderable),
+                Mockito.endsWith("testasset.txt"))).thenReturn("text/plain");
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(Mockito.eq(result)))
+                .thenReturn(responseStreams);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(byteArrayOutputStream);
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        // the variant has an etag of its own
+        verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
+                Mockito.eq(result), Mockito.anyLong(), Mockito.eq("gzip"));
+
+        assertEquals("text/plain", result.getContentType());
+        assertEquals("gzip", result.getHeaders().get("Content-Encoding"));
+        assertEquals("Accept-Encoding", result.getHeaders().get("Vary"));
+
+        byte[] gzipped = ByteStreams.toByteArray(getClass().getResourceAsStream("/assets/testasset.txt.gz"));
+        assertArrayEquals(gzipped, byteArrayOutputStream.toByteArray());
+        assertEquals("testasset", new String(ByteStreams.toByteArray(
+                new GZIPInputStream(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()))), "UTF-8"));
+    }
+
+    @Test
+    public void testServeStaticIdentityWhenGzipNotAccepted() throws Exception {
+
+        Result result = Results.ok();
+
+        when(contextRenderable.getRequestPath()).thenReturn("/testasset.txt");
+        when(contextRenderable.getAcceptEncoding()).thenReturn("gzip;q=0");
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(Mockito.eq(result)))
+                .thenReturn(responseStreams);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(byteArrayOutputStream);
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        verify(httpCacheToolkit).addEtag(Mockito.eq(contextRenderable),
+                Mockito.eq(result), Mockito.anyLong());
+
+        assertNull(result.getHeaders().get("Content-Encoding"));
+        // a gzip variant exists, caches must not hand it to this client
+        assertEquals("Accept-Encoding", result.getHeaders().get("Vary"));
+        assertEquals("testasset", byteArrayOutputStream.toString());
+    }
+
+    @Test
+    public void testPrecompressedVariantsAreLookedUpOnceInProd() throws Exception {
+
+        when(configuration.isProd()).thenReturn(true);
+        AssetsControllerHelper assetsControllerHelper = Mockito
+                .mock(AssetsControllerHelper.class, Mockito.CALLS_REAL_METHODS);
+        assetsController = new AssetsController(
+                assetsControllerHelper,
+                httpCacheToolkit,
+                new AssetCache(mimeTypes, new Settings()),
+                new WebJarsIndex(new Settings()),
+                configuration);
+
+        when(contextRenderable.getRequestPath()).thenReturn("/testasset.txt");
+        when(contextRenderable.getAcceptEncoding()).thenReturn("gzip");
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(Mockito.any(Result.class)))
+                .thenReturn(responseStreams);
+        when(responseStreams.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+
+        for (int i = 0; i < 2; i++) {
+            Result result = Results.ok();
+            renderable.render(contextRenderable, result);
+            assertEquals("gzip", result.getHeaders().get("Content-Encoding"));
+        }
+
+        // there is no brotli variant, that is not asked for again
+        verify(assetsControllerHelper).normalizePathWithoutLeadingSlash("/testasset.txt.br", true);
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals("testasset.txt", assetsController.fingerprint("testasset.txt"));
+
+        when(configuration.isAssetsFingerprintEnabled()).thenReturn(true);
+
+        assertEquals("testasset.501691bf0470.txt", assetsController.fingerprint("testasset.txt"));
+        assertEquals("unknown.txt", assetsController.fingerprint("unknown.txt"));
+    }
+
+    @Test
+    public void testServeStaticFingerprintedIsImmutable() throws Exception {
+
+        Result result = Results.ok();
+
+        when(configuration.isAssetsFingerprintEnabled()).thenReturn(true);
+        when(contextRenderable.getRequestPath()).thenReturn("/testasset.501691bf0470.txt");
+        when(contextRenderable.getAcceptEncoding()).thenReturn("gzip");
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(Mockito.eq(result)))
+                .thenReturn(responseStreams);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(byteArrayOutputStream);
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        verify(httpCacheToolkit).addImmutable(Mockito.eq(contextRenderable),
+                Mockito.eq(result), Mockito.anyLong(), Mockito.eq("gzip"));
+        verify(httpCacheToolkit, Mockito.never()).addEtag(Mockito.any(), Mockito.any(), Mockito.anyLong(), Mockito.any());
+
+        byte[] gzipped = ByteStreams.toByteArray(getClass().getResourceAsStream("/assets/testasset.txt.gz"));
+        assertArrayEquals(gzipped, byteArrayOutputStream.toByteArray());
+    }
+
+    @Test
+    public void testServeStaticStaleFingerprintIsNotFound() throws Exception {
+
+        Result result = Results.ok();
+
+        when(configuration.isAssetsFingerprintEnabled()).thenReturn(true);
+        when(contextRenderable.getRequestPath()).thenReturn("/testasset.000000000000.txt");
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        verify(contextRenderable).finalizeHeadersWithoutFlashAndSessionCookie(resultCaptor.capture());
+        assertEquals(Result.SC_404_NOT_FOUND, resultCaptor.getValue().getStatusCode());
+    }
+
+    @Test
+    public void testServeStaticRange() throws Exception {
+
+        Result result = Results.ok();
+
+        when(contextRenderable.getRequestPath()).thenReturn("/testasset.txt");
+        when(contextRenderable.getAcceptEncoding()).thenReturn("identity");
+        when(contextRenderable.getMethod()).thenReturn("GET");
+        when(contextRenderable.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=4-");
+        when(contextRenderable.getHeader(HttpHeaders.IF_RANGE)).thenReturn(null);
+        when(contextRenderable.finalizeHeadersWithoutFlashAndSessionCookie(Mockito.eq(result)))
+                .thenReturn(responseStreams);
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(byteArrayOutputStream);
+
+        Renderable renderable = (Renderable) assetsController.serveStatic().getRenderable();
+        renderable.render(contextRenderable, result);
+
+        assertEquals(Result.SC_206_PARTIAL_CONTENT, result.getStatusCode());
+        assertEquals("bytes 4-8/9", result.getHeaders().get(HttpHeaders.CONTENT_RANGE));
+        assertEquals("5", result.getHeaders().get(HttpHeaders.CONTENT_LENGTH));
+        assertEquals("asset", byteArrayOutputStream.toString("UTF-8"));
+    }
+
+}
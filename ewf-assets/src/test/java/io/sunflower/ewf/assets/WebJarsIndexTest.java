@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.assets;
+
+import com.google.common.io.Resources;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class WebJarsIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void indexesDirectories() throws Exception {
+        WebJarsIndex index = new WebJarsIndex(getClass().getClassLoader(), false);
+
+        assertThat(Resources.toString(index.lookup("webjar_asset.txt"), StandardCharsets.UTF_8), is("webjar_asset"));
+        assertThat(index.lookup("unknown.txt"), nullValue());
+    }
+
+    @Test
+    public void indexesJars() throws Exception {
+        try (URLClassLoader classLoader = classLoader(
+                jar("jquery.jar", "jquery/3.6.0/jquery.min.js", "jquery/3.6.0/dist/jquery.js"),
+                jar("bootstrap.jar", "bootstrap/4.0.0/css/bootstrap.css", "bootstrap/5.0.0/css/bootstrap.css"))) {
+
+            WebJarsIndex index = new WebJarsIndex(classLoader, false);
+
+            assertThat(content(index.lookup("jquery/3.6.0/jquery.min.js")), is("jquery/3.6.0/jquery.min.js"));
+            assertThat(content(index.lookup("jquery/3.6.0/dist/jquery.js")), is("jquery/3.6.0/dist/jquery.js"));
+            assertThat(index.lookup("jquery/jquery.min.js"), nullValue());
+            assertThat(index.lookup("jquery/3.6.0"), nullValue());
+        }
+    }
+
+    @Test
+    public void versionAgnosticPaths() throws Exception {
+        try (URLClassLoader classLoader = classLoader(
+                jar("jquery.jar", "jquery/3.6.0/jquery.min.js", "jquery/3.6.0/dist/jquery.js"),
+                jar("bootstrap.jar", "bootstrap/4.0.0/css/bootstrap.css", "bootstrap/5.0.0/css/bootstrap.css"))) {
+
+            WebJarsIndex index = new WebJarsIndex(classLoader, true);
+
+            assertThat(content(index.lookup("jquery/jquery.min.js")), is("jquery/3.6.0/jquery.min.js"));
+            assertThat(content(index.lookup("jquery/dist/jquery.js")), is("jquery/3.6.0/dist/jquery.js"));
+
+            // ambiguous
+            assertThat(index.lookup("bootstrap/css/bootstrap.css"), nullValue());
+            assertThat(content(index.lookup("bootstrap/5.0.0/css/bootstrap.css")), is("bootstrap/5.0.0/css/bootstrap.css"));
+        }
+    }
+
+    private URLClassLoader classLoader(File... jars) throws Exception {
+        URL[] urls = new URL[jars.length];
+
+        for (int i = 0; i < jars.length; i++) {
+            urls[i] = jars[i].toURI().toURL();
+        }
+
+        return new URLClassLoader(urls, null);
+    }
+
+    /**
+     * a jar with the given webjar resources, each containing its own path
+     */
+    private File jar(String name, String... paths) throws Exception {
+        File jar = folder.newFile(name);
+
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            // directory entries, as maven writes them
+            out.putNextEntry(new JarEntry("META-INF/"));
+            out.putNextEntry(new JarEntry("META-INF/resources/"));
+            out.putNextEntry(new JarEntry(WebJarsIndex.WEBJARS_DIR + "/"));
+
+            for (String path : paths) {
+                out.putNextEntry(new JarEntry(WebJarsIndex.WEBJARS_DIR + "/" + path));
+                out.write(path.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+
+    private static String content(URL url) throws Exception {
+        return Resources.toString(url, StandardCharsets.UTF_8);
+    }
+}
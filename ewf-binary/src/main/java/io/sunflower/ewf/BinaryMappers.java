@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * Smile and Cbor mappers that share the configuration of the application's json ObjectMapper:
+ * features, registered modules (serializers, deserializers, mix-ins), visibility and view
+ * inclusion. Only the wire format differs.
+ *
+ * @author michael
+ */
+public class BinaryMappers {
+
+    public static ObjectMapper newSmileMapper(ObjectMapper objectMapper) {
+        return copyOf(objectMapper, new SmileFactory());
+    }
+
+    public static ObjectMapper newCborMapper(ObjectMapper objectMapper) {
+        return copyOf(objectMapper, new CBORFactory());
+    }
+
+    /**
+     * @param source  the configured json mapper
+     * @param factory the factory of the target format
+     * @return a mapper writing and reading the format of the factory, configured like source
+     */
+    public static ObjectMapper copyOf(ObjectMapper source, JsonFactory factory) {
+        // serializers and deserializers are format agnostic, the (de)serializer caches of the
+        // source are reused as they are
+        ObjectMapper mapper = new ObjectMapper(factory,
+                (DefaultSerializerProvider) source.getSerializerProvider(),
+                (DefaultDeserializationContext) source.getDeserializationContext());
+
+        mapper.setSerializerFactory(source.getSerializerFactory());
+        mapper.setConfig(source.getSerializationConfig());
+        mapper.setConfig(source.getDeserializationConfig());
+        mapper.setInjectableValues(source.getInjectableValues());
+
+        return mapper;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.Multibinder;
+import io.sunflower.ewf.internal.bodyparser.BodyParserEngineCbor;
+import io.sunflower.ewf.internal.bodyparser.BodyParserEngineSmile;
+import io.sunflower.ewf.internal.template.TemplateEngineCbor;
+import io.sunflower.ewf.internal.template.TemplateEngineSmile;
+import io.sunflower.ewf.spi.NegotiatedContentTypes;
+
+/**
+ * Renders and parses application/x-jackson-smile and application/cbor with the application's
+ * ObjectMapper configuration. Both take part in the usual Accept / Content-Type negotiation: results
+ * that don't declare their supported content types answer with them when the client prefers them.
+ *
+ * @author michael
+ */
+public class BinaryModule extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        bind(BodyParserEngineSmile.class);
+        bind(TemplateEngineSmile.class);
+        bind(BodyParserEngineCbor.class);
+        bind(TemplateEngineCbor.class);
+
+        Multibinder<String> negotiatedContentTypes
+                = Multibinder.newSetBinder(binder(), String.class, NegotiatedContentTypes.class);
+        negotiatedContentTypes.addBinding().toInstance(Result.APPLICATION_SMILE);
+        negotiatedContentTypes.addBinding().toInstance(Result.APPLICATION_CBOR);
+    }
+
+}
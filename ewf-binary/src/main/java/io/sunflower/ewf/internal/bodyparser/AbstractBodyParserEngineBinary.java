@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.bodyparser;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.errors.BadRequestException;
+import io.sunflower.ewf.spi.BodyParserEngine;
+import io.sunflower.ewf.spi.support.JacksonCodecs;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses the body with the cached readers of a binary mapper.
+ *
+ * @author michael
+ */
+abstract class AbstractBodyParserEngineBinary implements BodyParserEngine {
+
+    private final JacksonCodecs jacksonCodecs;
+
+    private final String formatName;
+
+    AbstractBodyParserEngineBinary(JacksonCodecs jacksonCodecs, String formatName) {
+        this.jacksonCodecs = jacksonCodecs;
+        this.formatName = formatName;
+    }
+
+    @Override
+    public <T> T invoke(Context context, Class<T> classOfT) {
+        try (InputStream inputStream = context.getInputStream()) {
+            return jacksonCodecs.readerFor(classOfT).readValue(inputStream);
+        } catch (JsonParseException | JsonMappingException e) {
+            throw new BadRequestException("Error parsing incoming " + formatName, e);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid " + formatName + " document", e);
+        }
+    }
+
+}
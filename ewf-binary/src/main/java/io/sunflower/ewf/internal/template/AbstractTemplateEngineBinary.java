@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.template;
+
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.spi.TemplateEngine;
+import io.sunflower.ewf.spi.support.JacksonCodecs;
+import io.sunflower.ewf.support.ResponseStreams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Renders the renderable with the cached writers of a binary mapper, honouring the json view of
+ * the result like the json engine does.
+ *
+ * @author michael
+ */
+abstract class AbstractTemplateEngineBinary implements TemplateEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final JacksonCodecs jacksonCodecs;
+
+    AbstractTemplateEngineBinary(JacksonCodecs jacksonCodecs) {
+        this.jacksonCodecs = jacksonCodecs;
+    }
+
+    @Override
+    public void invoke(Context context, Result result) {
+
+        ResponseStreams responseStreams = context.finalizeHeaders(result);
+
+        try (OutputStream outputStream = responseStreams.getOutputStream()) {
+
+            Object renderable = result.getRenderable();
+            Class<?> type = renderable == null ? null : renderable.getClass();
+
+            jacksonCodecs.writerFor(type, result.getJsonView()).writeValue(outputStream, renderable);
+
+        } catch (IOException e) {
+
+            logger.error("Error while rendering {}", getContentType(), e);
+        }
+    }
+
+    @Override
+    public String getSuffixOfTemplatingEngine() {
+        // intentionally returns null...
+        return null;
+    }
+}
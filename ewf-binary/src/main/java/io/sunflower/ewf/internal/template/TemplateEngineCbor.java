@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import io.sunflower.ewf.BinaryMappers;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.spi.support.JacksonCodecs;
+
+import javax.inject.Singleton;
+
+/**
+ * @author michael
+ */
+@Singleton
+public class TemplateEngineCbor extends AbstractTemplateEngineBinary {
+
+    @Inject
+    public TemplateEngineCbor(ObjectMapper objectMapper) {
+        super(new JacksonCodecs(BinaryMappers.newCborMapper(objectMapper)));
+    }
+
+    @Override
+    public String getContentType() {
+        return Result.APPLICATION_CBOR;
+    }
+}
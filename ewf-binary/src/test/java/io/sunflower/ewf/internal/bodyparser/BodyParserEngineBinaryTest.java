@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.bodyparser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.errors.BadRequestException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the Smile and Cbor body parsers.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BodyParserEngineBinaryTest {
+
+    @Mock
+    private Context context;
+
+    @Test
+    public void testValidSmileBody() throws IOException {
+        byte[] body = new ObjectMapper(new SmileFactory()).writeValueAsBytes(newForm());
+        when(context.getInputStream()).thenReturn(new ByteArrayInputStream(body));
+
+        SimpleTestForm form = new BodyParserEngineSmile(new ObjectMapper()).invoke(context, SimpleTestForm.class);
+
+        assertThat(form.firstName, equalTo("John"));
+        assertThat(form.birthYear, equalTo(1664));
+    }
+
+    @Test
+    public void testValidCborBody() throws IOException {
+        byte[] body = new ObjectMapper(new CBORFactory()).writeValueAsBytes(newForm());
+        when(context.getInputStream()).thenReturn(new ByteArrayInputStream(body));
+
+        SimpleTestForm form = new BodyParserEngineCbor(new ObjectMapper()).invoke(context, SimpleTestForm.class);
+
+        assertThat(form.firstName, equalTo("John"));
+        assertThat(form.birthYear, equalTo(1664));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testJsonIsNotSmile() throws IOException {
+        when(context.getInputStream()).thenReturn(new ByteArrayInputStream("{\"firstName\":\"John\"}".getBytes()));
+
+        new BodyParserEngineSmile(new ObjectMapper()).invoke(context, SimpleTestForm.class);
+    }
+
+    private static SimpleTestForm newForm() {
+        SimpleTestForm form = new SimpleTestForm();
+        form.firstName = "John";
+        form.birthYear = 1664;
+        return form;
+    }
+
+    public static class SimpleTestForm {
+
+        public String firstName;
+        public Integer birthYear;
+    }
+}
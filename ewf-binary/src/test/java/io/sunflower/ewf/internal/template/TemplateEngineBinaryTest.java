@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.template;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.support.ResponseStreams;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for application/x-jackson-smile and application/cbor render.
+ */
+public class TemplateEngineBinaryTest {
+
+    Context context;
+    ResponseStreams responseStreams;
+    Result result;
+    ObjectMapper objectMapper;
+    ByteArrayOutputStream outputStream;
+
+    @Before
+    public void setUp() throws IOException {
+        context = mock(Context.class);
+        responseStreams = mock(ResponseStreams.class);
+        result = mock(Result.class);
+
+        objectMapper = new ObjectMapper();
+        outputStream = new ByteArrayOutputStream();
+
+        TestObject testObj = new TestObject();
+        testObj.field1 = "field_one";
+        testObj.field2 = "field_two";
+
+        when(result.getRenderable()).thenReturn(testObj);
+        when(context.finalizeHeaders(result)).thenReturn(responseStreams);
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+    }
+
+    @Test
+    public void testSmileIsRendered() throws IOException {
+        new TemplateEngineSmile(objectMapper).invoke(context, result);
+
+        JsonNode node = new ObjectMapper(new SmileFactory()).readTree(outputStream.toByteArray());
+        assertThat(node.get("field1").asText(), equalTo("field_one"));
+        assertThat(node.get("field2").asText(), equalTo("field_two"));
+
+        verify(context).finalizeHeaders(result);
+    }
+
+    @Test
+    public void testJsonViewWorksForCbor() throws IOException {
+        Mockito.<Class<?>>when(result.getJsonView()).thenReturn(View.Public.class);
+
+        new TemplateEngineCbor(objectMapper).invoke(context, result);
+
+        JsonNode node = new ObjectMapper(new CBORFactory()).readTree(outputStream.toByteArray());
+        assertThat(node.get("field1").asText(), equalTo("field_one"));
+        assertFalse(node.has("field2"));
+    }
+
+    @Test
+    public void testObjectMapperConfigurationIsShared() throws IOException {
+        objectMapper.disable(MapperFeature.DEFAULT_VIEW_INCLUSION);
+
+        TestObject testObj = new TestObject();
+        testObj.field1 = "field_one";
+        testObj.field2 = "field_two";
+        testObj.field3 = "field_three";
+        when(result.getRenderable()).thenReturn(testObj);
+        Mockito.<Class<?>>when(result.getJsonView()).thenReturn(View.Private.class);
+
+        new TemplateEngineSmile(objectMapper).invoke(context, result);
+
+        JsonNode node = new ObjectMapper(new SmileFactory()).readTree(outputStream.toByteArray());
+        assertTrue(node.has("field2"));
+        assertFalse(node.has("field1"));
+        // not part of any view and the mapper does not include those by default
+        assertFalse(node.has("field3"));
+    }
+
+    private static class TestObject {
+
+        @JsonView(View.Public.class)
+        public String field1;
+
+        @JsonView(View.Private.class)
+        public String field2;
+
+        public String field3;
+    }
+
+    private static class View {
+
+        public static class Public {
+        }
+
+        public static class Private {
+        }
+    }
+}
@@ -15,12 +15,38 @@
 
 package io.sunflower.ewf;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * An async result
+ * <p>
+ * Either the controller called {@link Context#handleAsync()} and hands the result to
+ * {@link Context#returnResultAsync(Result)} itself, or the result is a completion stage the
+ * request handler renders once it completes. Controllers may also return a
+ * {@link CompletionStage} of a result directly.
+ *
  * @author michael
  */
 public class AsyncResult extends Result {
+
+    private final CompletionStage<? extends Result> completion;
+
     public AsyncResult() {
+        this(null);
+    }
+
+    /**
+     * @param completion the result, rendered when it completes
+     */
+    public AsyncResult(CompletionStage<? extends Result> completion) {
         super(0);
+        this.completion = completion;
+    }
+
+    /**
+     * @return the result still being computed, null if the controller returns it by itself
+     */
+    public CompletionStage<? extends Result> getCompletion() {
+        return completion;
     }
 }
@@ -16,6 +16,7 @@
 package io.sunflower.ewf;
 
 import io.sunflower.ewf.internal.Route;
+import io.sunflower.ewf.internal.RouteMatch;
 import io.sunflower.ewf.internal.bodyparser.BodyParserEngineManager;
 import io.sunflower.ewf.session.FlashScope;
 import io.sunflower.ewf.session.Session;
@@ -26,6 +27,7 @@ import io.sunflower.ewf.validation.Validation;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +48,13 @@ public interface Context {
          * @param route
          */
         void setRoute(Route route);
+
+        /**
+         * use internal, attaches the route with its already extracted path parameters
+         *
+         * @param routeMatch
+         */
+        void setRoute(RouteMatch routeMatch);
     }
 
     boolean isAsync();
@@ -384,6 +393,18 @@ public interface Context {
      */
     <T> T parseBody(Class<T> classOfT);
 
+    /**
+     * Parses the items of a sequence body (eg. a json array) one by one while they are consumed,
+     * without holding the whole body in memory. Needs a {@link
+     * io.sunflower.ewf.spi.StreamingBodyParserEngine} for the content type of the request.
+     *
+     * @param classOfT The class of a single item.
+     * @return The items, or null if no streaming parser handles the content type of the request.
+     */
+    default <T> Iterator<T> parseBodyItems(Class<T> classOfT) {
+        return null;
+    }
+
     /**
      * Finalizing the headers copies all stuff into the headers. It of course also handles RequestHandler
      * session and Flash information.
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf;
+
+import java.util.function.Consumer;
+
+/**
+ * Controller parameter for request bodies holding a large json array. The items are parsed one by
+ * one while they are consumed, so the array is never held in memory as a whole.
+ * <p>
+ * A controller method may declare Stream&lt;T&gt; or Iterator&lt;T&gt; for the same purpose.
+ *
+ * @author michael
+ */
+@FunctionalInterface
+public interface JsonItemConsumer<T> {
+
+    /**
+     * Parses the body and passes every item to the consumer, then releases the body.
+     * <p>
+     * Can only be called once, the body is read while consuming.
+     *
+     * @param consumer called for each item
+     */
+    void consume(Consumer<? super T> consumer);
+
+}
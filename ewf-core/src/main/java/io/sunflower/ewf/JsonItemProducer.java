@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf;
+
+import java.util.function.Consumer;
+
+/**
+ * Produces the elements of a json array one by one, for results too large to be held in memory.
+ * <p>
+ * Render it like any other object, eg. Results.json().render(producer). Every item passed to the
+ * consumer is written to the response right away. A java.util.stream.Stream or an Iterator work
+ * the same way if the items are available like that.
+ *
+ * @author michael
+ */
+@FunctionalInterface
+public interface JsonItemProducer<T> {
+
+    /**
+     * Pass all items to the consumer, then return.
+     *
+     * @param items the consumer writing the items to the response
+     * @throws Exception aborts the response, already written items can't be taken back
+     */
+    void produce(Consumer<? super T> items) throws Exception;
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotated resource method (or all methods of the annotated class) never blocks, a runtime
+ * may run it on its IO thread instead of handing the request to a worker thread.
+ * <p>
+ * Meant for health checks, cached lookups and the like: no blocking IO, no locks held for long,
+ * no server-side sessions backed by files. Requests with a body still go to a worker thread.
+ * <p>
+ * Same as {@link io.sunflower.ewf.internal.RouteBuilder#nonBlocking()}.
+ *
+ * @author michael
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface NonBlocking {
+}
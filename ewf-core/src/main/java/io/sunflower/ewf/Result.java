@@ -49,6 +49,7 @@ public class Result {
     public static final int SC_200_OK = 200;
     public static final int SC_201_CREATED = 201;
     public static final int SC_204_NO_CONTENT = 204;
+    public static final int SC_206_PARTIAL_CONTENT = 206;
 
     /**
      * for redirects:
@@ -65,6 +66,7 @@ public class Result {
     public static final int SC_403_FORBIDDEN = 403;
     public static final int SC_404_NOT_FOUND = 404;
     public static final int SC_405_METHOD_NOT_ALLOWED = 405;
+    public static final int SC_416_RANGE_NOT_SATISFIABLE = 416;
     public static final int SC_426_UPGRADE_REQUIRED = 426;
 
     public static final int SC_500_INTERNAL_SERVER_ERROR = 500;
@@ -78,7 +80,10 @@ public class Result {
     public static final String TEXT_CSS = "text/css";
     public static final String APPLICATION_JSON = "application/json";
     public static final String APPLICATION_JSONP = "application/javascript";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
     public static final String APPLICATION_XML = "application/xml";
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR = "application/cbor";
     public static final String APPLICATION_OCTET_STREAM = "application/octet-stream";
     public static final String APPLICATION_POST_FORM = "application/x-www-form-urlencoded";
 
@@ -94,6 +99,12 @@ public class Result {
      */
     public static final String CACHE_CONTROL_DEFAULT_NOCACHE_VALUE = "no-cache, no-store, max-age=0, must-revalidate";
 
+    /**
+     * For resources whose url changes with their content: a year, the longest max-age caches are
+     * asked to honour
+     */
+    public static final String CACHE_CONTROL_IMMUTABLE_VALUE = "public, max-age=31536000, immutable";
+
     private int statusCode;
 
     private Class<?> jsonView;
@@ -123,7 +134,8 @@ public class Result {
     private final List<String> supportedContentTypes = Lists.newArrayList();
 
     /**
-     * A newly created Result will handle those three result types out of the box.
+     * A newly created Result will handle those result types out of the box. Modules add more with
+     * {@link io.sunflower.ewf.spi.NegotiatedContentTypes}, e.g. Smile and Cbor (ewf-binary).
      */
     private final static List<String> DEFAULT_SUPPORTED_CONTENT_TYPES
             = ImmutableList.of(APPLICATION_JSON, APPLICATION_XML, TEXT_HTML);
@@ -432,6 +444,14 @@ public class Result {
         }
     }
 
+    /**
+     * @return true unless content types were set with supportedContentType(...), such a result
+     * also supports the content types of {@link io.sunflower.ewf.spi.NegotiatedContentTypes}
+     */
+    public boolean hasDefaultSupportedContentTypes() {
+        return supportedContentTypes.isEmpty();
+    }
+
     /**
      * @return The fallback content type. This will be the content type used when none of the
      * supported content types matches the accept content type of the request.
@@ -598,6 +618,17 @@ public class Result {
         return this;
     }
 
+    /**
+     * Set the content type of this result to {@link Result#APPLICATION_NDJSON}.
+     *
+     * @return the same result where you executed this method on. But the content type is now {@link
+     * Result#APPLICATION_NDJSON}.
+     */
+    public Result ndjson() {
+        contentType = APPLICATION_NDJSON;
+        return this;
+    }
+
     /**
      * Set the content type of this result to {@link Result#TEXT_PLAIN}.
      *
@@ -620,6 +651,28 @@ public class Result {
         return this;
     }
 
+    /**
+     * Set the content type of this result to {@link Result#APPLICATION_SMILE}.
+     *
+     * @return the same result where you executed this method on. But the content type is now {@link
+     * Result#APPLICATION_SMILE}.
+     */
+    public Result smile() {
+        contentType = APPLICATION_SMILE;
+        return this;
+    }
+
+    /**
+     * Set the content type of this result to {@link Result#APPLICATION_CBOR}.
+     *
+     * @return the same result where you executed this method on. But the content type is now {@link
+     * Result#APPLICATION_CBOR}.
+     */
+    public Result cbor() {
+        contentType = APPLICATION_CBOR;
+        return this;
+    }
+
     /**
      * This function sets
      * <p>
@@ -16,9 +16,13 @@
 package io.sunflower.ewf;
 
 import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.support.FileRenderable;
 import io.sunflower.ewf.support.NoHttpBody;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
 
 /**
@@ -147,11 +151,49 @@ public class Results {
         return status(Result.SC_200_OK).jsonp();
     }
 
+    public static Result ndjson() {
+
+        return status(Result.SC_200_OK).ndjson();
+    }
+
     public static Result xml() {
 
         return status(Result.SC_200_OK).xml();
     }
 
+    public static Result smile() {
+
+        return status(Result.SC_200_OK).smile();
+    }
+
+    public static Result cbor() {
+
+        return status(Result.SC_200_OK).cbor();
+    }
+
+    /**
+     * @param file the file to send, byte ranges are served if requested
+     * @return 200 with the file, 404 if there is no such file
+     */
+    public static Result file(Path file) {
+
+        return status(Result.SC_200_OK).render(new FileRenderable(file));
+    }
+
+    public static Result file(File file) {
+
+        return status(Result.SC_200_OK).render(new FileRenderable(file));
+    }
+
+    /**
+     * @param completion the result still being computed, the worker thread is released meanwhile
+     * @return a result rendered when the completion completes
+     */
+    public static AsyncResult async(CompletionStage<? extends Result> completion) {
+
+        return new AsyncResult(completion);
+    }
+
     public static Result TODO() {
         Result result = status(Result.SC_501_NOT_IMPLEMENTED);
         result.contentType(Result.APPLICATION_JSON);
@@ -16,11 +16,14 @@
 package io.sunflower.ewf.internal;
 
 import com.google.inject.Provider;
+import io.sunflower.ewf.AsyncResult;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.FilterChain;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.params.internal.ControllerMethodInvoker;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * The end of the filter chain
  *
@@ -38,7 +41,15 @@ class FilterChainEnd implements FilterChain {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public Result next(Context context) {
-        return (Result) controllerMethodInvoker.invoke(targetObjectProvider.get(), context);
+        Object result = controllerMethodInvoker.invoke(targetObjectProvider.get(), context);
+
+        if (result instanceof CompletionStage) {
+            // rendered by the request handler on completion
+            return new AsyncResult((CompletionStage<? extends Result>) result);
+        }
+
+        return (Result) result;
     }
 }
\ No newline at end of file
@@ -37,6 +37,16 @@ public interface InternalRouter extends Router{
      */
     Route getRouteFor(String httpMethod, String uri);
 
+    /**
+     * Get the route for the given method and URI together with the path parameters extracted while
+     * matching it
+     *
+     * @param httpMethod The method
+     * @param uri        The URI
+     * @return The route match or null
+     */
+    RouteMatch getRouteMatchFor(String httpMethod, String uri);
+
     /**
      * Compile all the routes that have been registered with the router. This should be called once,
      * during initialization, before the application starts serving requests.
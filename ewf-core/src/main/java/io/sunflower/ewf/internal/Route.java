@@ -56,20 +56,45 @@ public class Route {
     private final Method controllerMethod;
     private final FilterChain filterChain;
     private final Map<String, RouteParameter> parameters;
+    private final String[] parameterNames;
     private final Pattern regex;
     private final boolean wsRoute;
+    private final boolean compressible;
+    private final boolean nonBlocking;
 
     public Route(String httpMethod,
                  String uri,
                  boolean wsRoute,
                  Method controllerMethod,
                  FilterChain filterChain) {
+        this(httpMethod, uri, wsRoute, controllerMethod, filterChain, true);
+    }
+
+    public Route(String httpMethod,
+                 String uri,
+                 boolean wsRoute,
+                 Method controllerMethod,
+                 FilterChain filterChain,
+                 boolean compressible) {
+        this(httpMethod, uri, wsRoute, controllerMethod, filterChain, compressible, false);
+    }
+
+    public Route(String httpMethod,
+                 String uri,
+                 boolean wsRoute,
+                 Method controllerMethod,
+                 FilterChain filterChain,
+                 boolean compressible,
+                 boolean nonBlocking) {
         this.wsRoute = wsRoute;
+        this.compressible = compressible;
+        this.nonBlocking = nonBlocking;
         this.httpMethod = httpMethod;
         this.uri = uri;
         this.controllerMethod = controllerMethod;
         this.filterChain = filterChain;
         this.parameters = RouteParameter.parse(uri);
+        this.parameterNames = parameters.keySet().toArray(new String[parameters.size()]);
         this.regex = Pattern.compile(convertRawUriToRegex(uri));
     }
 
@@ -125,6 +150,20 @@ public class Route {
         return filterChain;
     }
 
+    /**
+     * @return false if responses of this route must not be compressed
+     */
+    public boolean isCompressible() {
+        return compressible;
+    }
+
+    /**
+     * @return true if this route never blocks and may run on the IO thread of the runtime
+     */
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
     public Map<String, RouteParameter> getParameters() {
         return parameters;
     }
@@ -143,6 +182,35 @@ public class Route {
         }
     }
 
+    /**
+     * Matches the uri against this route and extracts the path parameters in one go.
+     * <p>
+     * Does not check the http method.
+     *
+     * @param uri The whole encoded uri.
+     * @return the match holding the encoded path parameters, or null if the uri does not match.
+     */
+    public RouteMatch match(String uri) {
+        Matcher m = regex.matcher(uri);
+
+        if (!m.matches()) {
+            return null;
+        }
+
+        String[] values = new String[parameterNames.length];
+        int groups = Math.min(m.groupCount(), values.length);
+
+        for (int i = 0; i < groups; i++) {
+            values[i] = m.group(i + 1);
+        }
+
+        return new RouteMatch(this, values);
+    }
+
+    String[] getParameterNames() {
+        return parameterNames;
+    }
+
     /**
      * This method does not do any decoding / encoding.
      * <p>
@@ -40,6 +40,22 @@ public interface RouteBuilder extends WithControllerMethod<Void> {
      */
     RouteBuilder ignoreGlobalFilters();
 
+    /**
+     * never compress responses of this route, e.g. because they are already compressed or
+     * must be flushed to the client byte by byte
+     *
+     * @return
+     */
+    RouteBuilder noCompression();
+
+    /**
+     * the route never blocks, the runtime may run it on its IO thread without handing the request
+     * to a worker thread, see {@link io.sunflower.ewf.NonBlocking}
+     *
+     * @return
+     */
+    RouteBuilder nonBlocking();
+
     /**
      * override global filters
      *
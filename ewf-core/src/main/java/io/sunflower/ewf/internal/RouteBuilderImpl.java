@@ -17,11 +17,15 @@ package io.sunflower.ewf.internal;
 
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.inject.Binding;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Provider;
+import com.google.inject.Scopes;
 import com.google.inject.util.Providers;
 import io.sunflower.ewf.*;
 import io.sunflower.ewf.params.internal.ControllerMethodInvoker;
+import io.sunflower.ewf.spi.support.JacksonCodecs;
 import io.sunflower.ewf.support.ControllerMethods;
 import io.sunflower.ewf.support.LambdaRoute;
 import org.apache.commons.lang3.StringUtils;
@@ -31,6 +35,7 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.CompletionStage;
 
 /**
  * @author michael
@@ -45,6 +50,10 @@ class RouteBuilderImpl implements RouteBuilder {
 
     private boolean wsRoute = false;
 
+    private boolean compressible = true;
+
+    private boolean nonBlocking = false;
+
     private String prefix = "";
 
     /**
@@ -154,6 +163,18 @@ class RouteBuilderImpl implements RouteBuilder {
         return overrideGlobalFilters(Lists.newArrayList());
     }
 
+    @Override
+    public RouteBuilder noCompression() {
+        this.compressible = false;
+        return this;
+    }
+
+    @Override
+    public RouteBuilder nonBlocking() {
+        this.nonBlocking = true;
+        return this;
+    }
+
     @Override
     public RouteBuilder filters(List<Class<? extends Filter>> filtersToAdd) {
         this.localFilters.addAll(filtersToAdd);
@@ -213,8 +234,10 @@ class RouteBuilderImpl implements RouteBuilder {
             }
 
             // make sure that the return type of that controller method
-            // is of type Result.
-            if (Result.class.isAssignableFrom(methodFromQueryingClass.getReturnType())) {
+            // is of type Result (or a CompletionStage of one).
+            Class<?> returnType = methodFromQueryingClass.getReturnType();
+
+            if (Result.class.isAssignableFrom(returnType) || CompletionStage.class.isAssignableFrom(returnType)) {
                 return methodFromQueryingClass;
             } else {
                 throw new NoSuchMethodException();
@@ -225,7 +248,7 @@ class RouteBuilderImpl implements RouteBuilder {
         } catch (NoSuchMethodException e) {
             log.error("Error in route configuration!!!");
             log.error("Can not find Resource " + controllerClass.getName() + " and method " + controllerMethod);
-            log.error("Hint: make sure the resource method returns a Result!");
+            log.error("Hint: make sure the resource method returns a Result or a CompletionStage<Result>!");
             log.error("Hint: RequestHandler does not allow more than one method with the same name!");
         }
         return null;
@@ -259,7 +282,15 @@ class RouteBuilderImpl implements RouteBuilder {
 
         FilterChain filterChain = buildFilterChain(injector, allFilters);
 
-        return new Route(httpMethod, uri, wsRoute, functionalMethod, filterChain);
+        Method annotatedMethod = implementationMethod.orElse(functionalMethod);
+        boolean compress = compressible
+                && !annotatedMethod.isAnnotationPresent(NoCompression.class)
+                && !annotatedMethod.getDeclaringClass().isAnnotationPresent(NoCompression.class);
+        boolean inPlace = nonBlocking
+                || annotatedMethod.isAnnotationPresent(NonBlocking.class)
+                || annotatedMethod.getDeclaringClass().isAnnotationPresent(NonBlocking.class);
+
+        return new Route(httpMethod, uri, wsRoute, functionalMethod, filterChain, compress, inPlace);
     }
 
     private List<Class<? extends Filter>> calculateGlobalFilters(Optional<List<Class<? extends Filter>>> globalFiltersList) {
@@ -287,26 +318,62 @@ class RouteBuilderImpl implements RouteBuilder {
             // either target object (functional method) or guice will create new instance
             Provider<?> targetProvider = (targetObject.isPresent() ?
                     Providers.of(targetObject.get())
-                    : injector.getProvider(functionalMethod.getDeclaringClass()));
+                    : resolveProvider(injector, functionalMethod.getDeclaringClass()));
 
             // invoke functional method with optionally using impl for argument extraction
             ControllerMethodInvoker methodInvoker
                     = ControllerMethodInvoker.build(
                     functionalMethod, implementationMethod.orElse(functionalMethod), injector);
 
+            prepareBodyReader(injector, methodInvoker.getBodyType());
+
             return new FilterChainEnd(targetProvider, methodInvoker);
 
         } else {
 
             Class<? extends Filter> filter = filters.pop();
 
-            Provider<? extends Filter> filterProvider = injector.getProvider(filter);
+            Provider<? extends Filter> filterProvider = resolveProvider(injector, filter);
 
             return new FilterChainImpl(filterProvider, buildFilterChain(injector, filters));
 
         }
     }
 
+    /**
+     * Singletons (eager or not) are resolved once while building the route, so the request path
+     * does not go through guice for them. Unscoped or custom scoped bindings keep their provider.
+     */
+    private <T> Provider<? extends T> resolveProvider(Injector injector, Class<T> clazz) {
+        Provider<T> provider = injector.getProvider(clazz);
+        Binding<T> binding = injector.getBinding(clazz);
+
+        if (binding != null && Scopes.isSingleton(binding)) {
+            return Providers.of(provider.get());
+        }
+
+        log.info("Route {} {} gets a new {} for every request, consider binding it as singleton",
+                httpMethod, uri, clazz.getName());
+
+        return provider;
+    }
+
+    /**
+     * Json bodies are the common case, resolve the reader while routes compile instead of on the
+     * first request.
+     */
+    private void prepareBodyReader(Injector injector, Class<?> bodyType) {
+        if (bodyType == null) {
+            return;
+        }
+
+        Binding<JacksonCodecs> binding = injector.getExistingBinding(Key.get(JacksonCodecs.class));
+
+        if (binding != null) {
+            binding.getProvider().get().prepareReader(bodyType);
+        }
+    }
+
     private Set<Class<? extends Filter>> calculateFiltersForClass(Class controllerClass) {
 
         LinkedHashSet<Class<? extends Filter>> filters = new LinkedHashSet<>();
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The result of routing a request: the route and the path parameters extracted while matching.
+ * <p>
+ * Parameters are decoded on first access and cached, so repeated lookups do not touch the route
+ * regex again.
+ *
+ * @author michael
+ */
+public class RouteMatch {
+
+    private final Route route;
+    private final String[] names;
+    private final String[] encoded;
+    private final String[] decoded;
+
+    RouteMatch(Route route, String[] encoded) {
+        this.route = route;
+        this.names = route.getParameterNames();
+        this.encoded = encoded;
+        this.decoded = new String[encoded.length];
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    /**
+     * Get the path parameter for the given name.
+     * <p>
+     * The parameter will be decoded based on the RFCs.
+     *
+     * @param name The name of the path parameter in a route. Eg /{myName}/rest/of/url
+     * @return The decoded path parameter, or null if no such path parameter was found.
+     */
+    public String getPathParameter(String name) {
+        int index = indexOf(name);
+
+        if (index < 0 || encoded[index] == null) {
+            return null;
+        }
+
+        String value = decoded[index];
+
+        if (value == null) {
+            value = URI.create(encoded[index]).getPath();
+            decoded[index] = value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Get the raw path parameter for the given name.
+     *
+     * @param name The name of the path parameter in a route. Eg /{myName}/rest/of/url
+     * @return The encoded (!) path parameter, or null if no such path parameter was found.
+     */
+    public String getPathParameterEncoded(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : encoded[index];
+    }
+
+    /**
+     * @return A map with all encoded path parameters in the order of the route uri.
+     */
+    public Map<String, String> getPathParametersEncoded() {
+        Map<String, String> map = new LinkedHashMap<>(names.length);
+
+        for (int i = 0; i < names.length; i++) {
+            if (encoded[i] != null) {
+                map.put(names[i], encoded[i]);
+            }
+        }
+
+        return map;
+    }
+
+    private int indexOf(String name) {
+        // routes rarely have more than a handful of parameters, a scan beats hashing
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal;
+
+import java.util.*;
+
+/**
+ * Compiled lookup structure for routes.
+ * <p>
+ * Routes are indexed by http method and then by a trie of their path segments. A segment is either
+ * static ("users"), a plain parameter ("{id}") or something that really needs the regex (custom
+ * parameter regex, wildcards, groups...). Everything from the first regex segment on is matched
+ * with the route regex, but only for requests that already walked the static / parameter prefix
+ * up to that point.
+ * <p>
+ * Lookups keep the first-registered-wins semantics of a linear scan: every node knows the lowest
+ * registration index in its subtree, so branches that can't beat the best match are skipped.
+ *
+ * @author michael
+ */
+class RouteTrie {
+
+    private static final String REGEX_META_CHARS = ".*+?[](){}|\\^$";
+
+    private final Map<String, Node> roots = new HashMap<>();
+
+    RouteTrie(List<Route> routes) {
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            String method = route.getHttpMethod().toUpperCase(Locale.ENGLISH);
+            Node root = roots.computeIfAbsent(method, k -> new Node());
+            insert(root, route, i);
+        }
+
+        for (Node root : roots.values()) {
+            root.seal();
+        }
+    }
+
+    /**
+     * Find the first registered route matching the method and uri.
+     *
+     * @param httpMethod the http method, case insensitive
+     * @param uri        the request path, not decoded
+     * @return the match including the encoded path parameters, or null
+     */
+    RouteMatch match(String httpMethod, String uri) {
+        Node root = roots.get(httpMethod);
+
+        if (root == null) {
+            root = roots.get(httpMethod.toUpperCase(Locale.ENGLISH));
+        }
+
+        if (root == null) {
+            return null;
+        }
+
+        Candidate best = new Candidate();
+
+        if (uri.startsWith("/")) {
+            search(root, uri, 1, new ArrayList<>(), best);
+        } else {
+            matchTails(root, uri, best);
+        }
+
+        return best.toMatch(uri);
+    }
+
+    private void insert(Node root, Route route, int order) {
+        String uri = route.getUri();
+        Node node = root;
+
+        if (uri.startsWith("/")) {
+            int start = 1;
+
+            while (true) {
+                int end = uri.indexOf('/', start);
+                String segment = uri.substring(start, end == -1 ? uri.length() : end);
+
+                if (isParameter(segment)) {
+                    if (node.parameterChild == null) {
+                        node.parameterChild = new Node();
+                    }
+                    node = node.parameterChild;
+                } else if (isStatic(segment)) {
+                    node = node.staticChildren.computeIfAbsent(segment, k -> new Node());
+                } else {
+                    // from here on only the regex knows
+                    node.tails.add(new Entry(route, order));
+                    return;
+                }
+
+                if (end == -1) {
+                    break;
+                }
+                start = end + 1;
+            }
+
+            if (node.terminal == null || node.terminal.order > order) {
+                node.terminal = new Entry(route, order);
+            }
+        } else {
+            node.tails.add(new Entry(route, order));
+        }
+    }
+
+    private void search(Node node, String uri, int start, List<String> captured, Candidate best) {
+        if (node.minOrder >= best.order) {
+            return;
+        }
+
+        matchTails(node, uri, best);
+
+        int end = uri.indexOf('/', start);
+        String segment = uri.substring(start, end == -1 ? uri.length() : end);
+
+        Node child = node.staticChildren.get(segment);
+
+        if (end == -1) {
+            // last segment: look for routes ending right here
+            if (child != null) {
+                best.offer(child.terminal, captured);
+                matchTails(child, uri, best);
+            }
+
+            if (node.parameterChild != null) {
+                captured.add(segment);
+                best.offer(node.parameterChild.terminal, captured);
+                captured.remove(captured.size() - 1);
+                matchTails(node.parameterChild, uri, best);
+            }
+        } else {
+            if (child != null) {
+                search(child, uri, end + 1, captured, best);
+            }
+
+            if (node.parameterChild != null) {
+                captured.add(segment);
+                search(node.parameterChild, uri, end + 1, captured, best);
+                captured.remove(captured.size() - 1);
+            }
+        }
+    }
+
+    private void matchTails(Node node, String uri, Candidate best) {
+        for (Entry tail : node.tails) {
+            if (tail.order >= best.order) {
+                // tails are sorted, nothing better left
+                return;
+            }
+
+            RouteMatch match = tail.route.match(uri);
+
+            if (match != null) {
+                best.offer(tail, match);
+                return;
+            }
+        }
+    }
+
+    private static boolean isParameter(String segment) {
+        if (segment.length() < 3
+                || segment.charAt(0) != '{'
+                || segment.charAt(segment.length() - 1) != '}') {
+            return false;
+        }
+
+        for (int i = 1; i < segment.length() - 1; i++) {
+            char c = segment.charAt(i);
+            if (c == ':' || c == '{' || c == '}') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isStatic(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(segment.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Node {
+
+        final Map<String, Node> staticChildren = new HashMap<>();
+        Node parameterChild;
+        Entry terminal;
+        final List<Entry> tails = new ArrayList<>();
+
+        /**
+         * lowest registration index of all routes reachable from this node
+         */
+        int minOrder = Integer.MAX_VALUE;
+
+        int seal() {
+            tails.sort(Comparator.comparingInt(entry -> entry.order));
+
+            int min = Integer.MAX_VALUE;
+
+            if (terminal != null) {
+                min = terminal.order;
+            }
+
+            if (!tails.isEmpty()) {
+                min = Math.min(min, tails.get(0).order);
+            }
+
+            for (Node child : staticChildren.values()) {
+                min = Math.min(min, child.seal());
+            }
+
+            if (parameterChild != null) {
+                min = Math.min(min, parameterChild.seal());
+            }
+
+            this.minOrder = min;
+            return min;
+        }
+    }
+
+    private static class Entry {
+
+        final Route route;
+        final int order;
+
+        Entry(Route route, int order) {
+            this.route = route;
+            this.order = order;
+        }
+    }
+
+    private static class Candidate {
+
+        Route route;
+        int order = Integer.MAX_VALUE;
+
+        /**
+         * parameter segments captured by the trie walk, null when the regex produced the match
+         */
+        String[] values;
+        RouteMatch match;
+
+        void offer(Entry entry, List<String> captured) {
+            if (entry != null && entry.order < order) {
+                this.route = entry.route;
+                this.order = entry.order;
+                this.values = captured.toArray(new String[captured.size()]);
+                this.match = null;
+            }
+        }
+
+        void offer(Entry entry, RouteMatch match) {
+            if (entry.order < order) {
+                this.route = entry.route;
+                this.order = entry.order;
+                this.values = null;
+                this.match = match;
+            }
+        }
+
+        RouteMatch toMatch(String uri) {
+            if (route == null) {
+                return null;
+            }
+
+            if (match != null) {
+                return match;
+            }
+
+            if (values.length != route.getParameterNames().length) {
+                // duplicate parameter names, let the regex sort it out like it always did
+                return route.match(uri);
+            }
+
+            return new RouteMatch(route, values);
+        }
+    }
+}
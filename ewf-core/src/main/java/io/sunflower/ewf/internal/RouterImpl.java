@@ -38,6 +38,10 @@ public class RouterImpl implements InternalRouter {
     private final List<RouteBuilderImpl> allRouteBuilders = new ArrayList<>();
     private final Injector injector;
     private List<Route> routes;
+    /**
+     * for O(path length) route lookups
+     */
+    private RouteTrie routeTrie;
     /**
      * for fast reverse route lookups
      */
@@ -61,14 +65,18 @@ public class RouterImpl implements InternalRouter {
             throw new IllegalStateException("Attempt to get route when routes not compiled");
         }
 
-        for (Route route : routes) {
-            if (route.matches(httpMethod, uri)) {
-                return route;
-            }
-        }
+        RouteMatch routeMatch = getRouteMatchFor(httpMethod, uri);
 
-        return null;
+        return routeMatch == null ? null : routeMatch.getRoute();
+    }
 
+    @Override
+    public RouteMatch getRouteMatchFor(String httpMethod, String uri) {
+        if (routes == null) {
+            throw new IllegalStateException("Attempt to get route when routes not compiled");
+        }
+
+        return routeTrie.match(httpMethod, uri);
     }
 
     @Override
@@ -85,6 +93,9 @@ public class RouterImpl implements InternalRouter {
 
         this.routes = ImmutableList.copyOf(routesLocal);
 
+        // compile routes into a trie, the first registered route still wins
+        this.routeTrie = new RouteTrie(this.routes);
+
         // compile reverse routes for O(1) lookups
         this.reverseRoutes = new HashMap<>(this.routes.size());
 
@@ -67,4 +67,11 @@ public class ValidationImpl implements Validation {
         }
         this.violations.get(violation.getFieldKey()).add(violation);
     }
+
+    /**
+     * Drops all violations, so the object can be used for another request.
+     */
+    public void reset() {
+        this.violations.clear();
+    }
 }
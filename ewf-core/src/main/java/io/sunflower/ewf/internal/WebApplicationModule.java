@@ -21,6 +21,7 @@ import com.google.inject.multibindings.Multibinder;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Router;
 import io.sunflower.ewf.params.ParamParser;
+import io.sunflower.ewf.spi.NegotiatedContentTypes;
 import io.sunflower.ewf.spi.support.*;
 
 import javax.inject.Singleton;
@@ -46,14 +47,21 @@ public abstract class WebApplicationModule extends AbstractModule {
             multibinder.addBinding().to(parser);
         }
 
+        // filled by modules adding template engines, e.g. BinaryModule
+        Multibinder.newSetBinder(binder(), String.class, NegotiatedContentTypes.class);
+
         bind(RouteBuilder.class).to(RouteBuilderImpl.class);
         bind(Router.class).to(RouterImpl.class).in(Singleton.class);
 
+        bind(JacksonCodecs.class);
+
         bind(BodyParserEnginePost.class);
         bind(BodyParserEngineJson.class);
+        bind(BodyParserEngineNdjson.class);
 
         bind(TemplateEngineJson.class);
         bind(TemplateEngineJsonP.class);
+        bind(TemplateEngineNdjson.class);
         bind(TemplateEngineText.class);
 
         bind(Context.class).to(getRequestContextImpl());
@@ -18,17 +18,22 @@ package io.sunflower.ewf.params.internal;
 import com.google.common.collect.ImmutableMap;
 import com.google.inject.Inject;
 import io.sunflower.ewf.Context;
+import io.sunflower.ewf.JsonItemConsumer;
+import io.sunflower.ewf.errors.BadRequestException;
 import io.sunflower.ewf.params.*;
 import io.sunflower.ewf.session.FlashScope;
 import io.sunflower.ewf.session.Session;
 import io.sunflower.ewf.FileItem;
 import io.sunflower.ewf.validation.Validation;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Built in argument extractors
@@ -481,4 +486,77 @@ public class ArgumentExtractors {
             return null;
         }
     }
+
+    /**
+     * Hands the items of the request body to the controller while they are parsed, as Stream,
+     * Iterator or {@link JsonItemConsumer}.
+     */
+    public static class BodyItemsExtractor<T> implements ArgumentExtractor<T> {
+
+        private final Class<T> parameterType;
+        private final Class<?> itemType;
+
+        public BodyItemsExtractor(Class<T> parameterType, Class<?> itemType) {
+            this.parameterType = parameterType;
+            this.itemType = itemType;
+        }
+
+        public static boolean isItemsType(Class<?> type) {
+            return type == Stream.class || type == Iterator.class || type == JsonItemConsumer.class;
+        }
+
+        @Override
+        public T extract(Context context) {
+            Iterator<?> items = context.parseBodyItems(itemType);
+
+            if (items == null) {
+                throw new BadRequestException("Content-Type " + context.getRequestContentType()
+                        + " can't be read item by item");
+            }
+
+            Object argument;
+
+            if (parameterType == Iterator.class) {
+                argument = items;
+            } else if (parameterType == Stream.class) {
+                argument = StreamSupport
+                        .stream(Spliterators.spliteratorUnknownSize(items, Spliterator.ORDERED), false)
+                        .onClose(() -> close(items));
+            } else {
+                argument = (JsonItemConsumer<Object>) consumer -> {
+                    try {
+                        items.forEachRemaining(consumer);
+                    } finally {
+                        close(items);
+                    }
+                };
+            }
+
+            return parameterType.cast(argument);
+        }
+
+        @Override
+        public Class<T> getExtractedType() {
+            return parameterType;
+        }
+
+        @Override
+        public String getFieldName() {
+            return null;
+        }
+
+        public Class<?> getItemType() {
+            return itemType;
+        }
+
+        private static void close(Iterator<?> items) {
+            if (items instanceof Closeable) {
+                try {
+                    ((Closeable) items).close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
 }
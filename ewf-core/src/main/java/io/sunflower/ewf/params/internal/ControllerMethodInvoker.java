@@ -27,6 +27,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -41,19 +46,51 @@ public class ControllerMethodInvoker {
 
     private final static Logger logger = LoggerFactory.getLogger(ControllerMethodInvoker.class);
 
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    /**
+     * interfaces implemented by the direct calls, indexed by the number of arguments
+     */
+    private static final Class<?>[] DIRECT_CALLS = {Call0.class, Call1.class, Call2.class, Call3.class,
+            Call4.class, Call5.class};
+
     private final Method method;
+    /**
+     * one of {@link Call0} ... {@link Call5}, a class of its own calling the method like compiled
+     * code would, so the JIT inlines the controller method into it. Null if it can't be bound.
+     */
+    private final Object directCall;
+    /**
+     * handle of the method taking (controller, Object[] arguments) for methods without a direct
+     * call, null falls back to reflection
+     */
+    private final MethodHandle methodHandle;
     private final ArgumentExtractor<?>[] argumentExtractors;
+    private final Class<?> bodyType;
 
     private ControllerMethodInvoker(
             Method method,
-            ArgumentExtractor<?>[] argumentExtractors) {
+            ArgumentExtractor<?>[] argumentExtractors,
+            Class<?> bodyType) {
         this.method = method;
+        this.directCall = bindDirectCall(method);
+        this.methodHandle = directCall == null ? unreflect(method) : null;
         this.argumentExtractors = argumentExtractors;
+        this.bodyType = bodyType;
+    }
+
+    /**
+     * @return the type parsed from the request body (the item type for streamed bodies), or null if
+     * there is none
+     */
+    public Class<?> getBodyType() {
+        return bodyType;
     }
 
     public Object invoke(Object controller, Context context) {
         // Extract arguments
-        Object[] arguments = new Object[argumentExtractors.length];
+        Object[] arguments = argumentExtractors.length == 0
+                ? NO_ARGUMENTS : new Object[argumentExtractors.length];
         for (int i = 0; i < argumentExtractors.length; i++) {
             arguments[i] = argumentExtractors[i].extract(context);
         }
@@ -61,6 +98,26 @@ public class ControllerMethodInvoker {
         // use Optional<> instead of null value.
         checkNullArgumentsAndThrowBadRequestException(arguments);
 
+        if (directCall != null) {
+            try {
+                return callDirect(controller, arguments);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        if (methodHandle != null) {
+            try {
+                return (Object) methodHandle.invokeExact(controller, arguments);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
         try {
             return method.invoke(controller, arguments);
         } catch (IllegalAccessException | IllegalArgumentException e) {
@@ -74,6 +131,131 @@ public class ControllerMethodInvoker {
         }
     }
 
+    private Object callDirect(Object controller, Object[] a) throws Throwable {
+        switch (a.length) {
+            case 0:
+                return ((Call0) directCall).call(controller);
+            case 1:
+                return ((Call1) directCall).call(controller, a[0]);
+            case 2:
+                return ((Call2) directCall).call(controller, a[0], a[1]);
+            case 3:
+                return ((Call3) directCall).call(controller, a[0], a[1], a[2]);
+            case 4:
+                return ((Call4) directCall).call(controller, a[0], a[1], a[2], a[3]);
+            default:
+                return ((Call5) directCall).call(controller, a[0], a[1], a[2], a[3], a[4]);
+        }
+    }
+
+    /**
+     * Spins a class implementing the call interface for the arity of the method with
+     * LambdaMetafactory, the same way javac compiles a method reference. A handle kept in a field
+     * is no constant to the JIT, it can't inline through it; the generated class calls the method
+     * directly and the call to the controller is inlined there.
+     *
+     * @param method the controller method
+     * @return the call or null if the method can't be called this way
+     */
+    private static Object bindDirectCall(Method method) {
+        int arity = method.getParameterCount();
+
+        // static methods have no controller to pass
+        if (Modifier.isStatic(method.getModifiers()) || arity >= DIRECT_CALLS.length
+                || method.getReturnType() == void.class) {
+            return null;
+        }
+
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle target = lookup.unreflect(method);
+            MethodType instantiatedType = target.type().wrap();
+
+            // the generated class resolves the controller types through the loader of this class
+            for (Class<?> type : instantiatedType.parameterArray()) {
+                if (!isVisible(type)) {
+                    return null;
+                }
+            }
+
+            Class<?> callType = DIRECT_CALLS[arity];
+            CallSite callSite = LambdaMetafactory.metafactory(
+                    lookup,
+                    "call",
+                    MethodType.methodType(callType),
+                    MethodType.genericMethodType(arity + 1),
+                    target,
+                    instantiatedType);
+
+            return callSite.getTarget().invoke();
+        } catch (Throwable e) {
+            logger.debug("Can't bind a direct call to {}, falling back to a method handle", method, e);
+            return null;
+        }
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, ControllerMethodInvoker.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a method handle with the uniform type (Object, Object[])Object, so the JIT can inline
+     * the controller call instead of going through Method.invoke.
+     *
+     * @param method the controller method
+     * @return the handle or null if the method is not accessible this way
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+
+            return handle
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            logger.debug("Can't create method handle for {}, falling back to reflection", method, e);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    interface Call0 {
+        Object call(Object controller);
+    }
+
+    @FunctionalInterface
+    interface Call1 {
+        Object call(Object controller, Object a0);
+    }
+
+    @FunctionalInterface
+    interface Call2 {
+        Object call(Object controller, Object a0, Object a1);
+    }
+
+    @FunctionalInterface
+    interface Call3 {
+        Object call(Object controller, Object a0, Object a1, Object a2);
+    }
+
+    @FunctionalInterface
+    interface Call4 {
+        Object call(Object controller, Object a0, Object a1, Object a2, Object a3);
+    }
+
+    @FunctionalInterface
+    interface Call5 {
+        Object call(Object controller, Object a0, Object a1, Object a2, Object a3, Object a4);
+    }
+
     private void checkNullArgumentsAndThrowBadRequestException(Object[] arguments) {
         for (Object object : arguments) {
             if (object == null) {
@@ -131,7 +313,9 @@ public class ControllerMethodInvoker {
                             .getName() + "\n"
                             + "Extra parmeter is type: " + methodParameters[i].parameterClass.getName());
                 } else {
-                    argumentExtractors[i] = new ArgumentExtractors.BodyAsExtractor(methodParameters[i].parameterClass);
+                    argumentExtractors[i] = methodParameters[i].itemClass != null
+                            ? new ArgumentExtractors.BodyItemsExtractor(methodParameters[i].parameterClass, methodParameters[i].itemClass)
+                            : new ArgumentExtractors.BodyAsExtractor(methodParameters[i].parameterClass);
                     bodyAsFound = i;
                 }
             }
@@ -148,7 +332,13 @@ public class ControllerMethodInvoker {
                             argumentExtractors[i]);
         }
 
-        return new ControllerMethodInvoker(functionalMethod, argumentExtractors);
+        Class<?> bodyType = null;
+        if (bodyAsFound > -1) {
+            MethodParameter bodyParameter = methodParameters[bodyAsFound];
+            bodyType = bodyParameter.itemClass != null ? bodyParameter.itemClass : bodyParameter.parameterClass;
+        }
+
+        return new ControllerMethodInvoker(functionalMethod, argumentExtractors, bodyType);
     }
 
     private static ArgumentExtractor<?> getArgumentExtractor(
@@ -371,6 +561,10 @@ public class ControllerMethodInvoker {
 
         boolean isOptional;
         Class<?> parameterClass;
+        /**
+         * item type of Stream, Iterator and JsonItemConsumer parameters
+         */
+        Class<?> itemClass;
 
         private MethodParameter(Type genericType) {
             try {
@@ -385,6 +579,10 @@ public class ControllerMethodInvoker {
                     if (maybeOptional.isAssignableFrom(Optional.class)) {
                         isOptional = true;
                         parameterClass = getClass(parameterizedType.getActualTypeArguments()[0]);
+                    } else if (ArgumentExtractors.BodyItemsExtractor.isItemsType(maybeOptional)) {
+                        isOptional = false;
+                        parameterClass = maybeOptional;
+                        itemClass = getClass(parameterizedType.getActualTypeArguments()[0]);
                     }
                 }
 
@@ -33,9 +33,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Date;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 
 /**
@@ -75,12 +73,52 @@ public class ParamParsers {
 
     private final Set<ParamParser> customParsers;
 
+    /**
+     * parsers are resolved once per target type, ClassValue can't hold null so misses are
+     * stored as empty optionals
+     */
+    private final ClassValue<Optional<ParamParser<?>>> paramParsers =
+            new ClassValue<Optional<ParamParser<?>>>() {
+                @Override
+                protected Optional<ParamParser<?>> computeValue(Class<?> type) {
+                    return Optional.ofNullable(resolveParamParser(type));
+                }
+            };
+
+    private final ClassValue<Optional<ArrayParamParser<?>>> arrayParsers =
+            new ClassValue<Optional<ArrayParamParser<?>>>() {
+                @Override
+                protected Optional<ArrayParamParser<?>> computeValue(Class<?> type) {
+                    return Optional.ofNullable(resolveArrayParser(type));
+                }
+            };
+
+    private final ClassValue<Optional<ListParamParser<?>>> listParsers =
+            new ClassValue<Optional<ListParamParser<?>>>() {
+                @Override
+                protected Optional<ListParamParser<?>> computeValue(Class<?> type) {
+                    return Optional.ofNullable(resolveListParser(type));
+                }
+            };
+
     @Inject
     public ParamParsers(Set<ParamParser> customParsers) {
         this.customParsers = customParsers;
     }
 
     public ParamParser<?> getParamParser(Class<?> targetType) {
+        return paramParsers.get(targetType).orElse(null);
+    }
+
+    public ArrayParamParser<?> getArrayParser(Class<?> targetType) {
+        return arrayParsers.get(targetType).orElse(null);
+    }
+
+    public ListParamParser<?> getListParser(Class<?> targetInnerType) {
+        return listParsers.get(targetInnerType).orElse(null);
+    }
+
+    private ParamParser<?> resolveParamParser(Class<?> targetType) {
         for (ParamParser parser : customParsers) {
             if (targetType.isAssignableFrom(parser.getParsedType())) {
                 return parser;
@@ -105,7 +143,7 @@ public class ParamParsers {
         return PARAM_PARSERS.get(targetType);
     }
 
-    public ArrayParamParser<?> getArrayParser(Class<?> targetType) {
+    private ArrayParamParser<?> resolveArrayParser(Class<?> targetType) {
         if (targetType.isArray()) {
             // check for array of registered types
             Class<?> componentType = targetType.getComponentType();
@@ -120,7 +158,7 @@ public class ParamParsers {
         return null;
     }
 
-    public ListParamParser<?> getListParser(Class<?> targetInnerType) {
+    private ListParamParser<?> resolveListParser(Class<?> targetInnerType) {
         ParamParser<?> componentParser = getParamParser(targetInnerType);
 
         if (componentParser != null) {
@@ -554,10 +592,22 @@ public class ParamParsers {
 
     public static class GenericEnumParamParser<E extends Enum<E>> implements ParamParser<E> {
 
-        private Class<E> targetType;
+        private final Class<E> targetType;
+
+        /**
+         * constants by exact name and by lower case name, resolved once instead of scanning all
+         * constants for every value
+         */
+        private final Map<String, E> constants = new HashMap<>();
+        private final Map<String, E> constantsIgnoreCase = new HashMap<>();
 
         public GenericEnumParamParser(Class<E> targetType) {
             this.targetType = targetType;
+
+            for (E value : targetType.getEnumConstants()) {
+                constants.put(value.name(), value);
+                constantsIgnoreCase.putIfAbsent(value.name().toLowerCase(Locale.ENGLISH), value);
+            }
         }
 
         @Override
@@ -565,11 +615,15 @@ public class ParamParsers {
             if (Strings.isNullOrEmpty(parameterValue) || validation.hasViolation(field)) {
                 return null;
             } else {
-                // Equals ignore case will keep backward compatibility
-                for (E value : getParsedType().getEnumConstants()) {
-                    if (value.name().equalsIgnoreCase(parameterValue)) {
-                        return value;
-                    }
+                E value = constants.get(parameterValue);
+
+                if (value == null) {
+                    // Equals ignore case will keep backward compatibility
+                    value = constantsIgnoreCase.get(parameterValue.toLowerCase(Locale.ENGLISH));
+                }
+
+                if (value != null) {
+                    return value;
                 }
 
                 validation.addViolation(new ConstraintViolation(
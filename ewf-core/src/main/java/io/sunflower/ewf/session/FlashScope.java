@@ -43,7 +43,7 @@ public interface FlashScope {
 
     /**
      * Intended for use by implementations only. Initializes the FlashScope from the context.  RequestHandler
-     * will call this when a new request is being handled.
+     * will call this when a new request is being handled. The flash cookie is decoded on first use.
      *
      * @param context The RequestHandler context
      */
@@ -35,6 +35,9 @@ public interface Session {
 
     /**
      * Has to be called initially. => maybe in the future as assisted guicey.
+     * <p>
+     * The session cookie is read when the session is used for the first time, a request that
+     * does not touch the session does not pay for verifying and decoding it.
      *
      * @param context The context of this session.
      */
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session;
+
+import com.google.inject.ProvidedBy;
+import io.sunflower.ewf.session.internal.SessionStoreProvider;
+
+import java.util.Map;
+
+/**
+ * Keeps session data on the server, the session cookie then only carries a signed id.
+ * <p>
+ * Used when {@link io.sunflower.ewf.support.Settings#isSessionStoreEnabled()}: "memory" and "file"
+ * select the built-in stores, applications bind their own implementation (say a shared one for a
+ * cluster) and choose any other name.
+ * <p>
+ * Implementations are called concurrently from many requests.
+ *
+ * @author michael
+ */
+@ProvidedBy(SessionStoreProvider.class)
+public interface SessionStore {
+
+    /**
+     * @param id the id of the session
+     * @return the data of the session or null if the id is unknown or expired
+     */
+    Map<String, String> load(String id);
+
+    /**
+     * Stores the data of a session, replacing what was stored under the id before.
+     *
+     * @param id    the id of the session
+     * @param data  the data, the store keeps a copy
+     * @param ttlMs milliseconds until the session expires, null to keep it as long as the store can
+     */
+    void save(String id, Map<String, String> data, Long ttlMs);
+
+    /**
+     * @param id the id of the session to forget
+     */
+    void remove(String id);
+
+}
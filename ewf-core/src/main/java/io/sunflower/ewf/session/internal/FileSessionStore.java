@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal;
+
+import io.sunflower.ewf.session.SessionStore;
+import io.sunflower.ewf.session.internal.support.Clock;
+import io.sunflower.ewf.session.internal.support.CookieDataCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps every session in a file of its own below a local directory, so sessions survive restarts
+ * and don't take heap.
+ * <p>
+ * A file holds the expiry time followed by the session data in the binary format of
+ * {@link CookieDataCodec}. It is
+ * written to a temporary file first and then moved into place, readers see either the old or the
+ * new session. Expired files are dropped when they are read and, at most once a minute, by the
+ * request saving a session.
+ *
+ * @author michael
+ */
+public class FileSessionStore implements SessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSessionStore.class);
+
+    private static final String SUFFIX = ".session";
+    private static final long SWEEP_INTERVAL_MS = 60_000L;
+    private static final int MAX_ID_LENGTH = 64;
+
+    private final Path dir;
+    private final Clock clock;
+    private final AtomicLong nextSweep = new AtomicLong();
+
+    public FileSessionStore(Path dir, Clock clock) {
+        this.dir = dir;
+        this.clock = clock;
+
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create session directory " + dir, e);
+        }
+    }
+
+    @Override
+    public Map<String, String> load(String id) {
+        Path file = file(id);
+
+        if (file == null) {
+            return null;
+        }
+
+        byte[] content;
+
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.error("Can't read session file {}", file, e);
+            return null;
+        }
+
+        if (content.length < Long.BYTES) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+
+        if (buffer.getLong() <= clock.currentTimeMillis()) {
+            delete(file);
+            return null;
+        }
+
+        Map<String, String> data = new HashMap<>();
+
+        if (!CookieDataCodec.decode(data, content, Long.BYTES, content.length - Long.BYTES)) {
+            logger.warn("Ignoring malformed session file {}", file);
+            return null;
+        }
+
+        return data;
+    }
+
+    @Override
+    public void save(String id, Map<String, String> data, Long ttlMs) {
+        Path file = file(id);
+
+        if (file == null) {
+            throw new IllegalArgumentException("Invalid session id " + id);
+        }
+
+        long now = clock.currentTimeMillis();
+
+        try {
+            byte[] encoded = CookieDataCodec.encodeBytes(data);
+
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES + encoded.length);
+            buffer.putLong(ttlMs == null ? Long.MAX_VALUE : now + ttlMs);
+            buffer.put(encoded);
+            buffer.flip();
+
+            Path temp = Files.createTempFile(dir, id, ".tmp");
+
+            try {
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write session file " + file, e);
+        }
+
+        sweepIfDue(now);
+    }
+
+    @Override
+    public void remove(String id) {
+        Path file = file(id);
+
+        if (file != null) {
+            delete(file);
+        }
+    }
+
+    /**
+     * Deletes the files of all expired sessions.
+     */
+    public void sweep() {
+        long now = clock.currentTimeMillis();
+        ByteBuffer expiresAt = ByteBuffer.allocate(Long.BYTES);
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                expiresAt.clear();
+
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    while (expiresAt.hasRemaining() && channel.read(expiresAt) >= 0) {
+                        // reads the expiry time only
+                    }
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+
+                expiresAt.flip();
+
+                if (expiresAt.remaining() < Long.BYTES || expiresAt.getLong() <= now) {
+                    delete(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Can't sweep expired sessions from {}", dir, e);
+        }
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+
+        if (now >= due && nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_MS)) {
+            sweep();
+        }
+    }
+
+    /**
+     * @return the file of the session, null if the id can't be a file name
+     */
+    private Path file(String id) {
+        if (id == null || id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+            return null;
+        }
+
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '-' || c == '_')) {
+                return null;
+            }
+        }
+
+        return dir.resolve(id + SUFFIX);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Can't delete session file {}", file, e);
+        }
+    }
+}
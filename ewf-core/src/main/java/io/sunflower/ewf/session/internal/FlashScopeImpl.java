@@ -41,14 +41,51 @@ public class FlashScopeImpl implements FlashScope {
     private final Map<String, String> currentFlashCookieData = new HashMap<>();
     private final Map<String, String> outgoingFlashCookieData = new HashMap<>();
     private final String applicationCookiePrefix;
+    private final boolean binaryEncoding;
+
+    /**
+     * The cookie is only decoded when the current flash data is used, see {@link #load()}.
+     */
+    private Context context;
+    private boolean loaded = false;
 
     @Inject
     public FlashScopeImpl(Settings configuration) {
         this.applicationCookiePrefix = configuration.getCookiePrefix();
+        this.binaryEncoding = configuration.isCookieBinaryEncoding();
     }
 
     @Override
     public void init(Context context) {
+        this.context = context;
+        this.loaded = false;
+    }
+
+    /**
+     * Forgets everything about the current request, so the flash scope can be used for another one.
+     * {@link #init(Context)} has to be called again before that.
+     */
+    public void reset() {
+        this.context = null;
+        this.loaded = false;
+        this.currentFlashCookieData.clear();
+        this.outgoingFlashCookieData.clear();
+    }
+
+    /**
+     * Reads the flash cookie of the request on first use.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (context == null) {
+            return;
+        }
+
         // get flash cookie:
         Cookie flashCookie = context.getCookie(applicationCookiePrefix + Constants.FLASH_SUFFIX);
 
@@ -85,7 +122,7 @@ public class FlashScopeImpl implements FlashScope {
         } else {
             // build a cookie with this flash data
             try {
-                String flashData = CookieDataCodec.encode(outgoingFlashCookieData);
+                String flashData = CookieDataCodec.encode(outgoingFlashCookieData, binaryEncoding);
 
                 Cookie.Builder cookie = Cookie.builder(applicationCookiePrefix
                         + Constants.FLASH_SUFFIX, flashData);
@@ -116,18 +153,21 @@ public class FlashScopeImpl implements FlashScope {
     @Override
     public void now(String key, String value) {
         this.validateKey(key);
+        load();
         currentFlashCookieData.put(key, value);
     }
 
     @Override
     public String get(String key) {
         this.validateKey(key);
+        load();
         return currentFlashCookieData.get(key);
     }
 
     @Override
     public boolean remove(String key) {
         this.validateKey(key);
+        load();
         this.outgoingFlashCookieData.remove(key);
         return currentFlashCookieData.remove(key) != null;
     }
@@ -135,12 +175,14 @@ public class FlashScopeImpl implements FlashScope {
     @Override
     public boolean contains(String key) {
         this.validateKey(key);
+        load();
         return currentFlashCookieData.containsKey(key);
     }
 
     @Override
     public void put(String key, String value) {
         this.validateKey(key);
+        load();
         currentFlashCookieData.put(key, value);
         outgoingFlashCookieData.put(key, value);
     }
@@ -169,6 +211,7 @@ public class FlashScopeImpl implements FlashScope {
     @Override
     public void keep(String key) {
         this.validateKey(key);
+        load();
         if (currentFlashCookieData.containsKey(key)) {
             outgoingFlashCookieData.put(key, currentFlashCookieData.get(key));
         }
@@ -176,16 +219,19 @@ public class FlashScopeImpl implements FlashScope {
 
     @Override
     public void keep() {
+        load();
         outgoingFlashCookieData.putAll(currentFlashCookieData);
     }
 
     @Override
     public void clearCurrentFlashCookieData() {
+        load();
         currentFlashCookieData.clear();
     }
 
     @Override
     public Map<String, String> getCurrentFlashCookieData() {
+        load();
         return currentFlashCookieData;
     }
 
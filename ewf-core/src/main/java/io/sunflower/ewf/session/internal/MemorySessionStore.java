@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal;
+
+import com.google.common.collect.ImmutableMap;
+import io.sunflower.ewf.session.SessionStore;
+import io.sunflower.ewf.session.internal.support.Clock;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps sessions in the heap of this jvm, so it only fits a single instance or sticky sessions.
+ * <p>
+ * The sessions are spread over stripes by id, each one a least recently used map behind its own
+ * lock, so requests of different sessions rarely wait for each other. Every stripe keeps its share
+ * of the maximum entries; expired sessions are dropped when they are read and from the cold end
+ * of the stripe when a session is saved.
+ *
+ * @author michael
+ */
+public class MemorySessionStore implements SessionStore {
+
+    private static final int STRIPES = 16;
+
+    private final Clock clock;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public MemorySessionStore(int maxEntries, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive but was " + maxEntries);
+        }
+
+        this.clock = clock;
+
+        int perStripe = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    @Override
+    public Map<String, String> load(String id) {
+        Stripe stripe = stripe(id);
+        long now = clock.currentTimeMillis();
+
+        synchronized (stripe) {
+            Entry entry = stripe.get(id);
+
+            if (entry == null) {
+                return null;
+            }
+
+            if (entry.isExpired(now)) {
+                stripe.remove(id);
+                return null;
+            }
+
+            return entry.data;
+        }
+    }
+
+    @Override
+    public void save(String id, Map<String, String> data, Long ttlMs) {
+        long now = clock.currentTimeMillis();
+        Entry entry = new Entry(ImmutableMap.copyOf(data), ttlMs == null ? Long.MAX_VALUE : now + ttlMs);
+        Stripe stripe = stripe(id);
+
+        synchronized (stripe) {
+            stripe.put(id, entry);
+            stripe.purgeExpired(now);
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        Stripe stripe = stripe(id);
+
+        synchronized (stripe) {
+            stripe.remove(id);
+        }
+    }
+
+    /**
+     * @return the number of sessions currently held, including expired ones not dropped yet
+     */
+    public int size() {
+        int size = 0;
+
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+
+        return size;
+    }
+
+    private Stripe stripe(String id) {
+        int hash = id.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static class Entry {
+
+        final Map<String, String> data;
+        final long expiresAt;
+
+        Entry(Map<String, String> data, long expiresAt) {
+            this.data = data;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    private static class Stripe extends LinkedHashMap<String, Entry> {
+
+        private final int maxEntries;
+
+        Stripe(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+
+        /**
+         * drops expired sessions from the least recently used end until a live one is found
+         */
+        void purgeExpired(long now) {
+            Iterator<Entry> iterator = values().iterator();
+
+            while (iterator.hasNext()) {
+                if (!iterator.next().isExpired(now)) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+    }
+}
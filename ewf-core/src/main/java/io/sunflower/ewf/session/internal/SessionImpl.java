@@ -16,10 +16,13 @@
 package io.sunflower.ewf.session.internal;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
 import com.google.inject.Inject;
+import com.google.inject.Provider;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Cookie;
 import io.sunflower.ewf.session.Session;
+import io.sunflower.ewf.session.SessionStore;
 import io.sunflower.ewf.session.internal.support.*;
 import io.sunflower.ewf.support.Constants;
 import io.sunflower.ewf.support.Settings;
@@ -29,28 +32,47 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.UnsupportedEncodingException;
+import java.security.SecureRandom;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
 
 /**
+ * Keeps the session in a signed (and optionally encrypted) cookie or, with a {@link SessionStore},
+ * on the server with only a signed id in the cookie.
+ *
  * @author michael
  */
 public class SessionImpl implements Session {
 
     private final static Logger logger = LoggerFactory.getLogger(SessionImpl.class);
 
+    /**
+     * marks cookies carrying the id of a stored session: "sid." + sign(id) + "-" + id
+     */
+    private static final String STORE_PREFIX = "sid.";
+
+    private static final SecureRandom random = new SecureRandom();
+
     private final Crypto crypto;
     private final CookieEncryption encryption;
+    private final AesGcmCookieCodec aesGcm;
     private final Clock time;
 
+    /**
+     * null if the session is kept in the cookie
+     */
+    private final SessionStore store;
+    private String storeId;
+
     private Long sessionExpireTimeInMs;
     private final Long defaultSessionExpireTimeInMs;
     private final Boolean sessionSendOnlyIfChanged;
     private final Boolean sessionTransferredOverHttpsOnly;
     private final Boolean sessionHttpOnly;
     private final String applicationCookieDomain;
+    private final boolean binaryEncoding;
     private final Map<String, String> data = new HashMap<>();
 
     /**
@@ -60,36 +82,96 @@ public class SessionImpl implements Session {
 
     private final String sessionCookieName;
 
+    /**
+     * The cookie is only verified and decoded when the session is used, see {@link #load()}.
+     */
+    private Context context;
+    private boolean loaded = false;
+
+    /**
+     * @param storeProvider only asked for the store if {@link Settings#isSessionStoreEnabled()}
+     */
     @Inject
-    public SessionImpl(Crypto crypto, CookieEncryption encryption, Settings settings, Clock clock) {
+    public SessionImpl(Crypto crypto,
+                       CookieEncryption encryption,
+                       AesGcmCookieCodec aesGcm,
+                       Settings settings,
+                       Clock clock,
+                       Provider<SessionStore> storeProvider) {
+        this(crypto, encryption, aesGcm, settings, clock,
+                settings.isSessionStoreEnabled() ? storeProvider.get() : null);
+    }
+
+    public SessionImpl(Crypto crypto,
+                       CookieEncryption encryption,
+                       AesGcmCookieCodec aesGcm,
+                       Settings settings,
+                       Clock clock,
+                       SessionStore store) {
+        this(crypto, encryption, aesGcm, new Config(settings), clock, store);
+    }
+
+    /**
+     * @param config the settings of all sessions, read once and shared
+     */
+    public SessionImpl(Crypto crypto,
+                       CookieEncryption encryption,
+                       AesGcmCookieCodec aesGcm,
+                       Config config,
+                       Clock clock,
+                       SessionStore store) {
 
         this.crypto = crypto;
         this.encryption = encryption;
+        this.aesGcm = aesGcm;
         this.time = clock;
+        this.store = store;
 
-        // read configuration stuff:
-        Duration sessionExpireTimeInSeconds = settings.getSessionExpireTime();
-
-        if (sessionExpireTimeInSeconds != null) {
-            this.defaultSessionExpireTimeInMs = sessionExpireTimeInSeconds.toMilliseconds();
-        } else {
-            this.defaultSessionExpireTimeInMs = null;
-        }
-
+        this.defaultSessionExpireTimeInMs = config.sessionExpireTimeInMs;
         this.sessionExpireTimeInMs = defaultSessionExpireTimeInMs;
 
-        this.sessionSendOnlyIfChanged = settings.isSessionSendOnlyIfChanged();
-        this.sessionTransferredOverHttpsOnly = settings.isSessionTransferredOverHttpsOnly();
-        this.sessionHttpOnly = settings.isSessionHttpOnly();
-
-        this.applicationCookieDomain = settings.getCookieDomain();
+        this.sessionSendOnlyIfChanged = config.sessionSendOnlyIfChanged;
+        this.sessionTransferredOverHttpsOnly = config.sessionTransferredOverHttpsOnly;
+        this.sessionHttpOnly = config.sessionHttpOnly;
 
-        String applicationCookiePrefix = settings.getCookiePrefix();
-        this.sessionCookieName = applicationCookiePrefix + Constants.SESSION_SUFFIX;
+        this.applicationCookieDomain = config.applicationCookieDomain;
+        this.binaryEncoding = config.binaryEncoding;
+        this.sessionCookieName = config.sessionCookieName;
     }
 
     @Override
     public void init(Context context) {
+        this.context = context;
+        this.loaded = false;
+        this.storeId = null;
+    }
+
+    /**
+     * Forgets everything about the current request, so the session can be used for another one.
+     * {@link #init(Context)} has to be called again before that.
+     */
+    public void reset() {
+        this.context = null;
+        this.loaded = false;
+        this.storeId = null;
+        this.data.clear();
+        this.sessionDataHasBeenChanged = false;
+        this.sessionExpireTimeInMs = defaultSessionExpireTimeInMs;
+    }
+
+    /**
+     * Reads the session cookie of the request on first use.
+     */
+    private void load() {
+        if (loaded) {
+            return;
+        }
+
+        loaded = true;
+
+        if (context == null) {
+            return;
+        }
 
         try {
 
@@ -101,16 +183,27 @@ public class SessionImpl implements Session {
 
                 String value = cookie.getValue();
 
-                // the first substring until "-" is the sign
-                String sign = value.substring(0, value.indexOf("-"));
+                if (store != null) {
+                    loadFromStore(value);
+                } else if (AesGcmCookieCodec.isSealed(value)) {
+                    // null if it is not authentic
+                    String payload = aesGcm.open(sessionCookieName, value);
 
-                // rest from "-" until the end is the payload of the cookie
-                String payload = value.substring(value.indexOf("-") + 1);
+                    if (payload != null) {
+                        CookieDataCodec.decode(data, payload);
+                    }
+                } else {
+                    // the first substring until "-" is the sign
+                    String sign = value.substring(0, value.indexOf("-"));
+
+                    // rest from "-" until the end is the payload of the cookie
+                    String payload = value.substring(value.indexOf("-") + 1);
 
-                // check if payload is valid:
-                if (CookieDataCodec.safeEquals(sign, crypto.signHmacSha1(payload))) {
-                    payload = encryption.decrypt(payload);
-                    CookieDataCodec.decode(data, payload);
+                    // check if payload is valid:
+                    if (crypto.verify(payload, sign)) {
+                        payload = encryption.decrypt(payload);
+                        CookieDataCodec.decode(data, payload);
+                    }
                 }
 
                 // If an expiry time was set previously use that instead of the
@@ -130,6 +223,33 @@ public class SessionImpl implements Session {
         }
     }
 
+    private void loadFromStore(String value) {
+        if (!value.startsWith(STORE_PREFIX)) {
+            return;
+        }
+
+        int separator = value.indexOf('-', STORE_PREFIX.length());
+
+        if (separator == -1) {
+            return;
+        }
+
+        String sign = value.substring(STORE_PREFIX.length(), separator);
+        String id = value.substring(separator + 1);
+
+        if (!crypto.verify(id, sign)) {
+            return;
+        }
+
+        // null if it expired or was dropped by the store
+        Map<String, String> stored = store.load(id);
+
+        if (stored != null) {
+            storeId = id;
+            data.putAll(stored);
+        }
+    }
+
     protected boolean shouldExpire() {
         if (sessionExpireTimeInMs != null) {
             // Make sure session contains valid timestamp
@@ -147,6 +267,7 @@ public class SessionImpl implements Session {
 
     @Override
     public void setExpiryTime(Long expiryTimeMs) {
+        load();
         if (expiryTimeMs == null) {
             data.remove(EXPIRY_TIME_KEY);
 
@@ -183,6 +304,7 @@ public class SessionImpl implements Session {
 
     @Override
     public String getId() {
+        load();
         if (!data.containsKey(ID_KEY)) {
             put(ID_KEY, UUID.randomUUID().toString());
         }
@@ -192,11 +314,13 @@ public class SessionImpl implements Session {
 
     @Override
     public Map<String, String> getData() {
+        load();
         return ImmutableMap.copyOf(data);
     }
 
     @Override
     public String getAuthenticityToken() {
+        load();
         if (!data.containsKey(AUTHENTICITY_KEY)) {
             put(AUTHENTICITY_KEY, UUID.randomUUID().toString());
         }
@@ -206,6 +330,15 @@ public class SessionImpl implements Session {
     @Override
     public void save(Context context) {
 
+        if (!loaded) {
+            // untouched, unless an expiring session has to be prolonged there is nothing to send
+            if (sessionSendOnlyIfChanged || !context.hasCookie(sessionCookieName)) {
+                return;
+            }
+
+            load();
+        }
+
         // Don't save the cookie nothing has changed, and if we're not expiring or
         // we are expiring but we're only updating if the session changes
         if (!sessionDataHasBeenChanged &&
@@ -216,6 +349,11 @@ public class SessionImpl implements Session {
         }
 
         if (isEmpty()) {
+            if (storeId != null) {
+                store.remove(storeId);
+                storeId = null;
+            }
+
             // It is empty, but there was a session coming in, therefore clear it
             if (context.hasCookie(sessionCookieName)) {
                 Cookie.Builder cookie = createApplicationCookie(
@@ -236,14 +374,31 @@ public class SessionImpl implements Session {
         }
 
         try {
-            String sessionData = CookieDataCodec.encode(data);
-            // first encrypt data and then generate HMAC from encrypted data
-            // http://crypto.stackexchange.com/questions/202/should-we-mac-then-encrypt-or-encrypt-then-mac
-            sessionData = encryption.encrypt(sessionData);
-            String sign = crypto.signHmacSha1(sessionData);
+            String value;
+
+            if (store != null) {
+                if (storeId == null) {
+                    storeId = newStoreId();
+                }
+
+                store.save(storeId, data, sessionExpireTimeInMs);
+                value = STORE_PREFIX + crypto.sign(storeId) + "-" + storeId;
+            } else if (aesGcm.isEnabled()) {
+                String sessionData = CookieDataCodec.encode(data, binaryEncoding);
+
+                // encrypts and authenticates in one go
+                value = aesGcm.seal(sessionCookieName, sessionData);
+            } else {
+                String sessionData = CookieDataCodec.encode(data, binaryEncoding);
+
+                // first encrypt data and then generate HMAC from encrypted data
+                // http://crypto.stackexchange.com/questions/202/should-we-mac-then-encrypt-or-encrypt-then-mac
+                sessionData = encryption.encrypt(sessionData);
+                value = crypto.sign(sessionData) + "-" + sessionData;
+            }
 
             Cookie.Builder cookie = createApplicationCookie(
-                    sessionCookieName, sign + "-" + sessionData, context);
+                    sessionCookieName, value, context);
 
             if (sessionExpireTimeInMs != null) {
                 cookie.setMaxAge((int) (sessionExpireTimeInMs / 1000L));
@@ -260,6 +415,7 @@ public class SessionImpl implements Session {
 
     @Override
     public void put(String key, String value) {
+        load();
 
         // make sure key is valid:
         if (key.contains(":")) {
@@ -279,11 +435,13 @@ public class SessionImpl implements Session {
 
     @Override
     public String get(String key) {
+        load();
         return data.get(key);
     }
 
     @Override
     public String remove(String key) {
+        load();
         sessionDataHasBeenChanged = true;
         String result = get(key);
         data.remove(key);
@@ -292,12 +450,20 @@ public class SessionImpl implements Session {
 
     @Override
     public void clear() {
+        load();
         sessionDataHasBeenChanged = true;
         data.clear();
+
+        if (storeId != null) {
+            // a cleared session (think logout) continues under a new id
+            store.remove(storeId);
+            storeId = null;
+        }
     }
 
     @Override
     public boolean isEmpty() {
+        load();
         int itemsToIgnore = 0;
         if (data.containsKey(TIMESTAMP_KEY)) {
             itemsToIgnore++;
@@ -308,6 +474,46 @@ public class SessionImpl implements Session {
         return (data.isEmpty() || data.size() == itemsToIgnore);
     }
 
+    private static String newStoreId() {
+        byte[] id = new byte[16];
+        random.nextBytes(id);
+        return BaseEncoding.base16().lowerCase().encode(id);
+    }
+
+    /**
+     * The settings of sessions, so every request doesn't have to read them again.
+     */
+    public static final class Config {
+
+        private final Long sessionExpireTimeInMs;
+        private final Boolean sessionSendOnlyIfChanged;
+        private final Boolean sessionTransferredOverHttpsOnly;
+        private final Boolean sessionHttpOnly;
+        private final String applicationCookieDomain;
+        private final boolean binaryEncoding;
+        private final String sessionCookieName;
+
+        public Config(Settings settings) {
+            Duration sessionExpireTimeInSeconds = settings.getSessionExpireTime();
+
+            if (sessionExpireTimeInSeconds != null) {
+                this.sessionExpireTimeInMs = sessionExpireTimeInSeconds.toMilliseconds();
+            } else {
+                this.sessionExpireTimeInMs = null;
+            }
+
+            this.sessionSendOnlyIfChanged = settings.isSessionSendOnlyIfChanged();
+            this.sessionTransferredOverHttpsOnly = settings.isSessionTransferredOverHttpsOnly();
+            this.sessionHttpOnly = settings.isSessionHttpOnly();
+
+            this.applicationCookieDomain = settings.getCookieDomain();
+            this.binaryEncoding = settings.isCookieBinaryEncoding();
+
+            String applicationCookiePrefix = settings.getCookiePrefix();
+            this.sessionCookieName = applicationCookiePrefix + Constants.SESSION_SUFFIX;
+        }
+    }
+
     private Cookie.Builder createApplicationCookie(
             String sessionCookieName,
             String value,
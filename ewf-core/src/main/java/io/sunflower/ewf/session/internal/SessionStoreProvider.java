@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal;
+
+import com.google.inject.Inject;
+import com.google.inject.Provider;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.session.SessionStore;
+import io.sunflower.ewf.session.internal.support.Clock;
+import io.sunflower.ewf.support.Settings;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Creates the built-in {@link SessionStore} named by {@link Settings#getSessionStore()}.
+ *
+ * @author michael
+ */
+@Singleton
+public class SessionStoreProvider implements Provider<SessionStore> {
+
+    private final Settings settings;
+    private final Clock clock;
+
+    private SessionStore store;
+
+    @Inject
+    public SessionStoreProvider(Settings settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized SessionStore get() {
+        if (store == null) {
+            store = create();
+        }
+        return store;
+    }
+
+    private SessionStore create() {
+        String name = settings.getSessionStore();
+
+        if ("memory".equals(name)) {
+            return new MemorySessionStore(settings.getSessionStoreMaxEntries(), clock);
+        }
+
+        if ("file".equals(name)) {
+            Path dir = settings.getSessionStoreDir() != null
+                    ? Paths.get(settings.getSessionStoreDir())
+                    : Paths.get(System.getProperty("java.io.tmpdir"), "ewf-sessions");
+
+            return new FileSessionStore(dir, clock);
+        }
+
+        throw new IllegalStateException("Unknown session store '" + name
+                + "', bind an implementation of " + SessionStore.class.getName());
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal.support;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.support.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Encrypts and authenticates cookie data in one pass with AES-GCM, replacing AES/ECB encryption
+ * plus a separate HMAC.
+ * <p>
+ * Sealed values look like "gcm.&lt;base64url(iv | ciphertext | tag)&gt;". The cookie name is
+ * authenticated as well, a sealed value is only accepted for the cookie it was written to.
+ * Values in the old "&lt;hmac&gt;-&lt;data&gt;" format never start with the prefix, so both can be
+ * told apart while cookies are migrated.
+ * <p>
+ * The key is derived once from the application secret. Values sealed with one of the previous
+ * secrets ({@link Settings#getPreviousApplicationSecrets()}) are still opened. Ciphers are kept
+ * per thread, they are not thread safe and looking them up at the providers is not cheap.
+ *
+ * @author michael
+ */
+@Singleton
+public class AesGcmCookieCodec {
+
+    public static final String PREFIX = "gcm.";
+
+    static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final Logger logger = LoggerFactory.getLogger(AesGcmCookieCodec.class);
+
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private static final byte[] KEY_INFO = "ewf cookie aes-gcm".getBytes(StandardCharsets.UTF_8);
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final boolean enabled;
+
+    /**
+     * current secret first, empty without secret
+     */
+    private final List<SecretKeySpec> keys = new ArrayList<>();
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(TRANSFORMATION + " is not available", e);
+        }
+    });
+
+    @Inject
+    public AesGcmCookieCodec(Settings settings) {
+        this(settings.getApplicationSecret(), settings.getPreviousApplicationSecrets(), settings.isSessionAesGcm());
+    }
+
+    AesGcmCookieCodec(String applicationSecret, List<String> previousSecrets, boolean enabled) {
+        if (applicationSecret != null && !applicationSecret.isEmpty()) {
+            keys.add(deriveKey(applicationSecret));
+
+            for (String previousSecret : previousSecrets) {
+                keys.add(deriveKey(previousSecret));
+            }
+        }
+
+        this.enabled = enabled && !keys.isEmpty();
+
+        if (enabled && keys.isEmpty()) {
+            logger.error("AES-GCM session cookies need an application secret, falling back to the old format");
+        }
+    }
+
+    /**
+     * @return true if new cookies are to be written with {@link #seal}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param value a cookie value
+     * @return true if the value was written by {@link #seal}
+     */
+    public static boolean isSealed(String value) {
+        return value.startsWith(PREFIX);
+    }
+
+    /**
+     * @param cookieName the name of the cookie the value is written to
+     * @param data       the data
+     * @return the sealed value
+     */
+    public String seal(String cookieName, String data) {
+        byte[] plaintext = data.getBytes(StandardCharsets.UTF_8);
+        byte[] sealed = new byte[IV_LENGTH + plaintext.length + TAG_LENGTH_BITS / Byte.SIZE];
+
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keys.get(0), new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(cookieName.getBytes(StandardCharsets.UTF_8));
+            cipher.doFinal(plaintext, 0, plaintext.length, sealed, IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can't seal cookie " + cookieName, e);
+        }
+
+        return PREFIX + ENCODER.encodeToString(sealed);
+    }
+
+    /**
+     * @param cookieName the name of the cookie the value was read from
+     * @param value      a value written by {@link #seal}
+     * @return the data or null if the value was not sealed with our key for this cookie
+     */
+    public String open(String cookieName, String value) {
+        if (keys.isEmpty() || !isSealed(value)) {
+            return null;
+        }
+
+        byte[] sealed;
+
+        try {
+            sealed = DECODER.decode(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (sealed.length < IV_LENGTH + TAG_LENGTH_BITS / Byte.SIZE) {
+            return null;
+        }
+
+        byte[] aad = cookieName.getBytes(StandardCharsets.UTF_8);
+        GCMParameterSpec parameters = new GCMParameterSpec(TAG_LENGTH_BITS, sealed, 0, IV_LENGTH);
+
+        for (SecretKeySpec key : keys) {
+            try {
+                Cipher cipher = ciphers.get();
+                cipher.init(Cipher.DECRYPT_MODE, key, parameters);
+                cipher.updateAAD(aad);
+                byte[] plaintext = cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+
+                return new String(plaintext, StandardCharsets.UTF_8);
+            } catch (AEADBadTagException e) {
+                // tampered with, or written with another secret: try the next one
+            } catch (GeneralSecurityException e) {
+                logger.warn("Can't open cookie {}", cookieName, e);
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * HMAC-SHA256 of a fixed label keyed with the secret, the full 256 bit if the JCE policy
+     * allows AES-256.
+     */
+    private static SecretKeySpec deriveKey(String applicationSecret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(applicationSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] derived = mac.doFinal(KEY_INFO);
+
+            int keyLength = Cipher.getMaxAllowedKeyLength("AES") >= 256 ? 32 : 16;
+
+            return new SecretKeySpec(derived, 0, keyLength, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Can't derive the cookie key", e);
+        }
+    }
+}
@@ -15,10 +15,17 @@
 
 package io.sunflower.ewf.session.internal.support;
 
+import com.google.common.io.BaseEncoding;
+import io.sunflower.ewf.session.Session;
+
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * CookieDataCodec and CookieDataCodecTest are imported from Play Framework.
@@ -30,17 +37,49 @@ import java.util.Map;
  * signing cookie data.
  * <p>
  * All praise goes to Play Framework and their awesome work.
+ * <p>
+ * Besides the url encoded format of Play there is a compact binary one, written as "~" followed by
+ * the Base64url of a version byte and the entries. Every entry starts with a tag: the well known
+ * session keys carry their value as a varint or as the 16 bytes of a UUID, everything else as
+ * varint length prefixed UTF-8 key and value. {@link #decode(Map, String)} reads both formats.
  *
  * @author michael
  */
 public class CookieDataCodec {
 
+    /**
+     * "~" is always percent encoded by {@link URLEncoder}, it never starts the url encoded format
+     */
+    private static final char BINARY_MARKER = '~';
+    private static final byte VERSION_1 = 1;
+
+    private static final int TAG_ENTRY = 0;
+    private static final int TAG_TIMESTAMP = 1;
+    private static final int TAG_EXPIRY_TIME = 2;
+    private static final int TAG_ID = 3;
+    private static final int TAG_AUTHENTICITY = 4;
+
+    private static final BaseEncoding BASE64_URL = BaseEncoding.base64Url().omitPadding();
+
     /**
      * @param map  the map to decode data into.
      * @param data the data to decode.
      */
     public static void decode(Map<String, String> map, String data)
             throws UnsupportedEncodingException {
+        if (!data.isEmpty() && data.charAt(0) == BINARY_MARKER) {
+            byte[] bytes;
+
+            try {
+                bytes = BASE64_URL.decode(data.substring(1));
+            } catch (IllegalArgumentException e) {
+                return;
+            }
+
+            decode(map, bytes, 0, bytes.length);
+            return;
+        }
+
         String[] keyValues = data.split("&");
         for (String keyValue : keyValues) {
             String[] splitted = keyValue.split("=", 2);
@@ -69,6 +108,247 @@ public class CookieDataCodec {
         return data.toString();
     }
 
+    /**
+     * @param map    the data to encode.
+     * @param binary true for the compact binary format, false for the url encoded one.
+     * @return the encoded data.
+     */
+    public static String encode(Map<String, String> map, boolean binary) throws UnsupportedEncodingException {
+        return binary ? BINARY_MARKER + BASE64_URL.encode(encodeBytes(map)) : encode(map);
+    }
+
+    /**
+     * @param map the data to encode.
+     * @return the data in the binary format, without Base64url.
+     */
+    public static byte[] encodeBytes(Map<String, String> map) {
+        Output out = new Output();
+        out.bytes[out.length++] = VERSION_1;
+
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+
+            if (value == null) {
+                continue;
+            }
+
+            if (Session.TIMESTAMP_KEY.equals(key) && isVarint(value)) {
+                out.write(TAG_TIMESTAMP);
+                out.writeVarint(Long.parseLong(value));
+            } else if (Session.EXPIRY_TIME_KEY.equals(key) && isVarint(value)) {
+                out.write(TAG_EXPIRY_TIME);
+                out.writeVarint(Long.parseLong(value));
+            } else if (Session.ID_KEY.equals(key) && isUuid(value)) {
+                out.write(TAG_ID);
+                out.writeUuid(UUID.fromString(value));
+            } else if (Session.AUTHENTICITY_KEY.equals(key) && isUuid(value)) {
+                out.write(TAG_AUTHENTICITY);
+                out.writeUuid(UUID.fromString(value));
+            } else {
+                out.write(TAG_ENTRY);
+                out.writeString(key);
+                out.writeString(value);
+            }
+        }
+
+        return Arrays.copyOf(out.bytes, out.length);
+    }
+
+    /**
+     * Decodes the binary format. Nothing is put into the map if the data is malformed.
+     *
+     * @param map    the map to decode data into.
+     * @param data   the data, without Base64url.
+     * @param offset the start of the data.
+     * @param length the length of the data.
+     * @return false if the data is malformed or of an unknown version.
+     */
+    public static boolean decode(Map<String, String> map, byte[] data, int offset, int length) {
+        Input in = new Input(data, offset, offset + length);
+
+        if (in.position == in.end || data[in.position++] != VERSION_1) {
+            return false;
+        }
+
+        Map<String, String> decoded = new HashMap<>();
+
+        try {
+            while (in.position < in.end) {
+                int tag = data[in.position++];
+
+                switch (tag) {
+                    case TAG_ENTRY:
+                        decoded.put(in.readString(), in.readString());
+                        break;
+                    case TAG_TIMESTAMP:
+                        decoded.put(Session.TIMESTAMP_KEY, Long.toString(in.readVarint()));
+                        break;
+                    case TAG_EXPIRY_TIME:
+                        decoded.put(Session.EXPIRY_TIME_KEY, Long.toString(in.readVarint()));
+                        break;
+                    case TAG_ID:
+                        decoded.put(Session.ID_KEY, in.readUuid().toString());
+                        break;
+                    case TAG_AUTHENTICITY:
+                        decoded.put(Session.AUTHENTICITY_KEY, in.readUuid().toString());
+                        break;
+                    default:
+                        return false;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            return false;
+        }
+
+        map.putAll(decoded);
+        return true;
+    }
+
+    /**
+     * @return true if the value is a non negative long in its canonical decimal form
+     */
+    private static boolean isVarint(String value) {
+        int length = value.length();
+
+        if (length == 0 || length > 18 || (value.charAt(0) == '0' && length > 1)) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return true if the value is a UUID as written by {@link UUID#toString()}
+     */
+    private static boolean isUuid(String value) {
+        if (value.length() != 36) {
+            return false;
+        }
+
+        try {
+            return UUID.fromString(value).toString().equals(value);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static class Output {
+
+        byte[] bytes = new byte[128];
+        int length;
+
+        void write(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void writeVarint(long value) {
+            ensure(10);
+
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+
+            bytes[length++] = (byte) value;
+        }
+
+        void writeUuid(UUID uuid) {
+            ensure(16);
+            writeLong(uuid.getMostSignificantBits());
+            writeLong(uuid.getLeastSignificantBits());
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            length += utf8.length;
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void ensure(int count) {
+            if (length + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+            }
+        }
+    }
+
+    private static class Input {
+
+        final byte[] bytes;
+        final int end;
+        int position;
+
+        Input(byte[] bytes, int offset, int end) {
+            this.bytes = bytes;
+            this.position = offset;
+            this.end = end;
+        }
+
+        long readVarint() {
+            long value = 0;
+
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = read();
+                value |= (long) (b & 0x7F) << shift;
+
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+
+            throw new IndexOutOfBoundsException("varint too long");
+        }
+
+        UUID readUuid() {
+            return new UUID(readLong(), readLong());
+        }
+
+        String readString() {
+            long length = readVarint();
+
+            if (length < 0 || length > end - position) {
+                throw new IndexOutOfBoundsException("string exceeds the data");
+            }
+
+            String value = new String(bytes, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+
+        private long readLong() {
+            long value = 0;
+
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (read() & 0xFF);
+            }
+
+            return value;
+        }
+
+        private byte read() {
+            if (position >= end) {
+                throw new IndexOutOfBoundsException("unexpected end of data");
+            }
+            return bytes[position++];
+        }
+    }
+
     /**
      * Constant time for same length String comparison, to prevent timing attacks
      */
@@ -44,6 +44,17 @@ public class CookieEncryption {
 
     private final Optional<SecretKeySpec> secretKeySpec;
 
+    /**
+     * ciphers are not thread safe, getting one from the providers for every cookie is not cheap
+     */
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    });
+
     @Inject
     public CookieEncryption(Settings settings) {
 
@@ -92,7 +103,7 @@ public class CookieEncryption {
 
         try {
             // encrypt data
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            Cipher cipher = ciphers.get();
             cipher.init(Cipher.ENCRYPT_MODE, secretKeySpec.get());
             byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
 
@@ -126,7 +137,7 @@ public class CookieEncryption {
         byte[] decoded = Base64.getUrlDecoder().decode(data);
         try {
             // decrypt bytes
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
+            Cipher cipher = ciphers.get();
             cipher.init(Cipher.DECRYPT_MODE, secretKeySpec.get());
             byte[] decrypted = cipher.doFinal(decoded);
 
@@ -23,49 +23,142 @@ import io.sunflower.ewf.support.Settings;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Signs with HMAC-SHA256 and the application secret, verifies with the application secret and
+ * the previous ones, so the secret can be rotated without invalidating signed cookies.
+ * <p>
+ * Signatures are hex encoded. Verification also accepts HMAC-SHA1 signatures (40 instead of 64
+ * hex digits) which were written before, and compares the raw bytes in constant time.
+ * <p>
+ * Mac instances are kept initialised per thread and key, doFinal resets them for the next
+ * message.
+ *
  * @author michael
  */
 @Singleton
 public class Crypto {
 
-    private final String applicationSecret;
+    public static final String HMAC_SHA256 = "HmacSHA256";
+    public static final String HMAC_SHA1 = "HmacSHA1";
+
+    /**
+     * the first one signs
+     */
+    private static final String[] ALGORITHMS = {HMAC_SHA256, HMAC_SHA1};
+    private static final int[] SIGNATURE_LENGTHS = {32, 20};
+
+    private static final BaseEncoding HEX = BaseEncoding.base16().lowerCase();
+
+    /**
+     * current secret first
+     */
+    private final byte[][] keys;
+
+    /**
+     * [key][algorithm], created on first use
+     */
+    private final ThreadLocal<Mac[][]> macs;
 
     /**
      * Secret is a secret key. Usually something like: "Fxu6U5BTGIJZ06c8bD1xkhHc3Ct5JZXlst8tJ1K5uJJPaLdceDo6CUz0iWpjjQUY".
      */
     @Inject
     public Crypto(Settings settings) {
-        this.applicationSecret = settings.getApplicationSecret();
+        this(secrets(settings));
     }
 
-    public String signHmacSha1(String message) {
+    Crypto(List<String> secrets) {
+        this.keys = new byte[secrets.size()][];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = secrets.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+
+        this.macs = ThreadLocal.withInitial(() -> new Mac[keys.length][ALGORITHMS.length]);
+    }
 
-        return signHmacSha1(message, applicationSecret);
+    /**
+     * @param message the message
+     * @return the hex encoded HMAC-SHA256 of the message with the current secret
+     */
+    public String sign(String message) {
+        return HEX.encode(sign(message.getBytes(StandardCharsets.UTF_8)));
+    }
 
+    /**
+     * @param message the message
+     * @return the HMAC-SHA256 of the message with the current secret
+     */
+    public byte[] sign(byte[] message) {
+        return mac(0, 0).doFinal(message);
     }
 
-    private String signHmacSha1(String value, String key) {
+    /**
+     * @param message   the message
+     * @param signature a hex encoded signature from {@link #sign(String)}, with this or a previous
+     *                  secret
+     * @return true if the signature is valid
+     */
+    public boolean verify(String message, String signature) {
+        byte[] raw;
+
         try {
+            raw = HEX.decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
 
-            // Get an hmac_sha1 key from the raw key bytes
-            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
-            SecretKeySpec signingKey = new SecretKeySpec(keyBytes, "HmacSHA1");
+        return verify(message.getBytes(StandardCharsets.UTF_8), raw);
+    }
 
-            // Get an hmac_sha1 Mac instance and initialize with the signing key
-            Mac mac = Mac.getInstance("HmacSHA1");
-            mac.init(signingKey);
+    /**
+     * @param message   the message
+     * @param signature a signature from {@link #sign(byte[])}, with this or a previous secret
+     * @return true if the signature is valid
+     */
+    public boolean verify(byte[] message, byte[] signature) {
+        for (int algorithm = 0; algorithm < ALGORITHMS.length; algorithm++) {
+            if (signature.length != SIGNATURE_LENGTHS[algorithm]) {
+                continue;
+            }
+
+            for (int key = 0; key < keys.length; key++) {
+                if (MessageDigest.isEqual(mac(key, algorithm).doFinal(message), signature)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
 
-            // Compute the hmac on input data bytes
-            byte[] rawHmac = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+    private Mac mac(int key, int algorithm) {
+        Mac[] keyMacs = macs.get()[key];
+        Mac mac = keyMacs[algorithm];
 
-            // Convert raw bytes to Hex
-            // Convert array of Hex bytes to a String
-            return BaseEncoding.base16().lowerCase().encode(rawHmac);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        if (mac == null) {
+            try {
+                mac = Mac.getInstance(ALGORITHMS[algorithm]);
+                mac.init(new SecretKeySpec(keys[key], ALGORITHMS[algorithm]));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Can't create " + ALGORITHMS[algorithm], e);
+            }
+            keyMacs[algorithm] = mac;
         }
+
+        return mac;
+    }
+
+    private static List<String> secrets(Settings settings) {
+        List<String> secrets = new ArrayList<>();
+        secrets.add(settings.getApplicationSecret());
+        secrets.addAll(settings.getPreviousApplicationSecrets());
+        return secrets;
     }
 
 }
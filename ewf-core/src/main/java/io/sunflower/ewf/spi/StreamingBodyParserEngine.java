@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi;
+
+import io.sunflower.ewf.Context;
+
+import java.util.Iterator;
+
+/**
+ * A body parser that can also hand out the items of a sequence body (eg. a json array) one by one
+ * while reading the request. Used for controller parameters of type Stream, Iterator and {@link
+ * io.sunflower.ewf.JsonItemConsumer}.
+ *
+ * @author michael
+ */
+public interface StreamingBodyParserEngine extends BodyParserEngine {
+
+    /**
+     * Parse the items of the request body lazily.
+     * <p>
+     * The returned iterator releases the body once it is exhausted. It implements {@link
+     * java.io.Closeable}, close it if you stop early.
+     * <p>
+     * MUST BE THREAD SAFE TO CALL!
+     *
+     * @param context  The context
+     * @param classOfT The class of a single item
+     * @return The items of the body
+     */
+    <T> Iterator<T> iterate(Context context, Class<T> classOfT);
+
+}
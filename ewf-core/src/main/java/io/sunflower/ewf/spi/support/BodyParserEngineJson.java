@@ -24,9 +24,11 @@ import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.errors.BadRequestException;
 import io.sunflower.ewf.spi.BodyParserEngine;
+import io.sunflower.ewf.spi.StreamingBodyParserEngine;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 
 /**
  * Built in Json body parser.
@@ -36,19 +38,37 @@ import java.io.InputStream;
  * @see BodyParserEngine
  */
 @Singleton
-public class BodyParserEngineJson implements BodyParserEngine {
+public class BodyParserEngineJson implements StreamingBodyParserEngine {
 
-    private final ObjectMapper objectMapper;
+    private final JacksonCodecs jacksonCodecs;
 
     @Inject
+    public BodyParserEngineJson(JacksonCodecs jacksonCodecs) {
+        this.jacksonCodecs = jacksonCodecs;
+    }
+
     public BodyParserEngineJson(ObjectMapper objectMapper) {
-        this.objectMapper = objectMapper;
+        this(new JacksonCodecs(objectMapper));
     }
 
     @Override
     public <T> T invoke(Context context, Class<T> classOfT) {
         try (InputStream inputStream = context.getInputStream()) {
-            return objectMapper.readValue(inputStream, classOfT);
+            return jacksonCodecs.readerFor(classOfT).readValue(inputStream);
+        } catch (JsonParseException | JsonMappingException ex) {
+            throw new BadRequestException("Error parsing incoming Json", ex);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid Json document", e);
+        }
+    }
+
+    /**
+     * Items of a json array body (or of whitespace separated json documents) parsed one at a time.
+     */
+    @Override
+    public <T> Iterator<T> iterate(Context context, Class<T> classOfT) {
+        try {
+            return new JsonItemIterator<>(jacksonCodecs.readerFor(classOfT).readValues(context.getInputStream()));
         } catch (JsonParseException | JsonMappingException ex) {
             throw new BadRequestException("Error parsing incoming Json", ex);
         } catch (IOException e) {
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi.support;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.errors.BadRequestException;
+import io.sunflower.ewf.spi.StreamingBodyParserEngine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Newline delimited json (json lines) body parser.
+ * <p>
+ * Records are meant to be consumed one at a time through a Stream, Iterator or {@link
+ * io.sunflower.ewf.JsonItemConsumer} controller parameter. Parsed into an array all records are
+ * collected, any other type gets the first record.
+ *
+ * @author michael
+ */
+@Singleton
+public class BodyParserEngineNdjson implements StreamingBodyParserEngine {
+
+    private final JacksonCodecs jacksonCodecs;
+
+    @Inject
+    public BodyParserEngineNdjson(JacksonCodecs jacksonCodecs) {
+        this.jacksonCodecs = jacksonCodecs;
+    }
+
+    public BodyParserEngineNdjson(ObjectMapper objectMapper) {
+        this(new JacksonCodecs(objectMapper));
+    }
+
+    @Override
+    public <T> T invoke(Context context, Class<T> classOfT) {
+        if (classOfT.isArray()) {
+            return classOfT.cast(readAll(context, classOfT.getComponentType()));
+        }
+
+        try (InputStream inputStream = context.getInputStream()) {
+            return jacksonCodecs.readerFor(classOfT).readValue(inputStream);
+        } catch (JsonParseException | JsonMappingException ex) {
+            throw new BadRequestException("Error parsing incoming Json", ex);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid Json document", e);
+        }
+    }
+
+    @Override
+    public <T> Iterator<T> iterate(Context context, Class<T> classOfT) {
+        try {
+            return new JsonItemIterator<>(jacksonCodecs.readerFor(classOfT).readValues(context.getInputStream()));
+        } catch (JsonParseException | JsonMappingException ex) {
+            throw new BadRequestException("Error parsing incoming Json", ex);
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid Json document", e);
+        }
+    }
+
+    private Object readAll(Context context, Class<?> componentType) {
+        List<Object> records = new ArrayList<>();
+        iterate(context, componentType).forEachRemaining(records::add);
+
+        Object array = Array.newInstance(componentType, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            Array.set(array, i, records.get(i));
+        }
+        return array;
+    }
+
+    @Override
+    public String getContentType() {
+        return Result.APPLICATION_NDJSON;
+    }
+
+}
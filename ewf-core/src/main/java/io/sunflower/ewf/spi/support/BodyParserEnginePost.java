@@ -15,23 +15,14 @@
 
 package io.sunflower.ewf.spi.support;
 
-import com.google.common.collect.Sets;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Result;
-import io.sunflower.ewf.params.ParamParser;
 import io.sunflower.ewf.params.internal.ParamParsers;
 import io.sunflower.ewf.spi.BodyParserEngine;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.ParameterizedType;
-import java.util.Collection;
-import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * @author michael
@@ -39,13 +30,19 @@ import java.util.Set;
 @Singleton
 public class BodyParserEnginePost implements BodyParserEngine {
 
-    private final Logger logger = LoggerFactory.getLogger(BodyParserEnginePost.class);
-
-    private final ParamParsers paramParsers;
+    /**
+     * binding plans are compiled once per class, fields and parsers don't change at runtime
+     */
+    private final ClassValue<FormBindingPlan> plans;
 
     @Inject
     public BodyParserEnginePost(ParamParsers paramParsers) {
-        this.paramParsers = paramParsers;
+        this.plans = new ClassValue<FormBindingPlan>() {
+            @Override
+            protected FormBindingPlan computeValue(Class<?> type) {
+                return new FormBindingPlan(type, paramParsers, plans::get);
+            }
+        };
     }
 
     @Override
@@ -53,100 +50,8 @@ public class BodyParserEnginePost implements BodyParserEngine {
         // Grab parameters from context only once for efficiency
         Map<String, String[]> parameters = context.getParameters();
 
-        return invoke(context, parameters, classOfT, "");
-    }
-
-    /**
-     * Allows to instantiate inner objects with a prefix for each parameter key
-     */
-    private <T> T invoke(Context context, Map<String, String[]> parameters, Class<T> classOfT, String paramPrefix) {
-
-        T result;
-
-        try {
-            result = classOfT.newInstance();
-        } catch (InstantiationException | IllegalAccessException e) {
-            logger.error("Can't create new instance of class {}", classOfT.getName(), e);
-            return null;
-        }
-
-        for (String declaredField : getAllDeclaredFieldsAsStringSet(classOfT)) {
-
-            try {
-
-                Field field = classOfT.getDeclaredField(declaredField);
-                Class<?> fieldType = field.getType();
-                field.setAccessible(true);
-
-                if (parameters.containsKey(paramPrefix + declaredField)) {
-
-                    String[] values = parameters.get(paramPrefix + declaredField);
-
-                    if (Collection.class.isAssignableFrom(fieldType) || List.class.isAssignableFrom(fieldType)) {
-
-                        ParamParsers.ListParamParser<?> parser = paramParsers.getListParser(getGenericType(field));
-                        if (parser == null) {
-                            logger.warn("No parser defined for a collection of type {}", getGenericType(field).getCanonicalName());
-                        } else {
-                            field.set(result, parser.parseParameter(field.getName(), values, context.getValidation()));
-                        }
-
-                    } else if (fieldType.isArray()) {
-
-                        ParamParsers.ArrayParamParser<?> parser = paramParsers.getArrayParser(fieldType);
-                        if (parser == null) {
-                            logger.warn("No parser defined for an array of type {}", fieldType.getComponentType().getCanonicalName());
-                        } else {
-                            field.set(result, parser.parseParameter(field.getName(), values, context.getValidation()));
-                        }
-
-                    } else {
-
-                        ParamParser<?> parser = paramParsers.getParamParser(fieldType);
-                        if (parser == null) {
-                            logger.warn("No parser defined for type {}", fieldType.getCanonicalName());
-                        } else {
-                            field.set(result, parser.parseParameter(field.getName(), values[0], context.getValidation()));
-                        }
-
-                    }
-
-                } else {
-
-                    // Check if we have one parameter key corresponding to one valued inner attribute of this object field
-                    for (String parameter : parameters.keySet()) {
-                        if (parameter.startsWith(paramPrefix + declaredField + ".")) {
-                            if (isEmptyParameter(parameters.get(parameter))) {
-                                field.set(result, invoke(context, parameters, fieldType, paramPrefix + declaredField + "."));
-                                break;
-                            }
-                        }
-                    }
-
-                }
-
-            } catch (NoSuchFieldException
-                    | SecurityException
-                    | IllegalArgumentException
-                    | IllegalAccessException e) {
-
-                logger.warn("Error parsing incoming Post request into class {}. Key {} and value {}.",
-                        classOfT.getName(), paramPrefix + declaredField, parameters.get(paramPrefix + declaredField), e);
-            }
-
-        }
-        return result;
-    }
-
-    private boolean isEmptyParameter(String[] parameterValues) {
-        if (parameterValues != null && parameterValues.length > 0) {
-            for (String parameterValue : parameterValues) {
-                if (parameterValue != null && !parameterValue.isEmpty()) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        FormBindingPlan plan = plans.get(classOfT);
+        return classOfT.cast(plan.bind(context, FormBindingPlan.Parameters.of(parameters), ""));
     }
 
     @Override
@@ -154,20 +59,4 @@ public class BodyParserEnginePost implements BodyParserEngine {
         return Result.APPLICATION_POST_FORM;
     }
 
-    private <T> Set<String> getAllDeclaredFieldsAsStringSet(Class<T> clazz) {
-
-        Set<String> declaredFields = Sets.newHashSet();
-
-        for (Field field : clazz.getDeclaredFields()) {
-            declaredFields.add(field.getName());
-        }
-
-        return declaredFields;
-
-    }
-
-    private Class<?> getGenericType(Field field) {
-        ParameterizedType genericType = (ParameterizedType) field.getGenericType();
-        return (Class<?>) genericType.getActualTypeArguments()[0];
-    }
 }
@@ -0,0 +1,310 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi.support;
+
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.params.ParamParser;
+import io.sunflower.ewf.params.internal.ParamParsers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Everything needed to bind form parameters to one class, resolved once: the constructor, a setter
+ * and a parser per field.
+ * <p>
+ * Parameters are handed in as a {@link Parameters} tree, split at the dots of their names, so
+ * nested objects ("address.street") are found with one lookup per level instead of scanning all
+ * parameter names for every field.
+ *
+ * @author michael
+ */
+class FormBindingPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(FormBindingPlan.class);
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Class<?> type;
+    private final MethodHandle constructor;
+    private final FieldBinding[] fields;
+
+    FormBindingPlan(Class<?> type, ParamParsers paramParsers, Function<Class<?>, FormBindingPlan> plans) {
+        this.type = type;
+        this.constructor = findConstructor(type);
+
+        List<FieldBinding> bindings = new ArrayList<>();
+
+        for (Field field : type.getDeclaredFields()) {
+            // statics are not part of the bound object
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            FieldBinding binding = FieldBinding.create(field, paramParsers, plans);
+
+            if (binding != null) {
+                bindings.add(binding);
+            }
+        }
+
+        this.fields = bindings.toArray(new FieldBinding[bindings.size()]);
+    }
+
+    /**
+     * Creates a new instance and binds all parameters that belong to one of its fields.
+     *
+     * @param context    the context, for validation
+     * @param parameters the parameters below the prefix of this object
+     * @param prefix     the prefix of this object, only used for logging
+     * @return the new instance or null if the class can't be instantiated
+     */
+    Object bind(Context context, Parameters parameters, String prefix) {
+        if (constructor == null) {
+            logger.error("Can't create new instance of class {}", type.getName());
+            return null;
+        }
+
+        Object result;
+
+        try {
+            result = (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            logger.error("Can't create new instance of class {}", type.getName(), e);
+            return null;
+        }
+
+        for (FieldBinding field : fields) {
+            Parameters parameter = parameters.get(field.name);
+
+            if (parameter == null) {
+                continue;
+            }
+
+            try {
+                if (parameter.values != null) {
+                    field.bindValues(result, parameter.values, context);
+                } else if (parameter.nested) {
+                    field.set(result, field.nestedPlan().bind(context, parameter, prefix + field.name + "."));
+                }
+            } catch (Throwable e) {
+                logger.warn("Error parsing incoming Post request into class {}. Key {} and value {}.",
+                        type.getName(), prefix + field.name, parameter.values, e);
+            }
+        }
+
+        return result;
+    }
+
+    private static MethodHandle findConstructor(Class<?> type) {
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class))
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            logger.debug("No accessible no-arg constructor for {}", type.getName(), e);
+            return null;
+        }
+    }
+
+    private static class FieldBinding {
+
+        final String name;
+        final Class<?> type;
+        final MethodHandle setter;
+
+        final ParamParser<?> parser;
+        final ParamParsers.ArrayParamParser<?> arrayParser;
+        final ParamParsers.ListParamParser<?> listParser;
+
+        /**
+         * nested objects are resolved on first use, the type might well be the class itself
+         */
+        final Function<Class<?>, FormBindingPlan> plans;
+        FormBindingPlan nestedPlan;
+
+        FieldBinding(Field field, MethodHandle setter, ParamParsers paramParsers,
+                     Function<Class<?>, FormBindingPlan> plans) {
+            this.name = field.getName();
+            this.type = field.getType();
+            this.setter = setter;
+            this.plans = plans;
+
+            if (Collection.class.isAssignableFrom(type)) {
+                Class<?> elementType = getGenericType(field);
+                this.listParser = elementType == null ? null : paramParsers.getListParser(elementType);
+                this.arrayParser = null;
+                this.parser = null;
+            } else if (type.isArray()) {
+                this.listParser = null;
+                this.arrayParser = paramParsers.getArrayParser(type);
+                this.parser = null;
+            } else {
+                this.listParser = null;
+                this.arrayParser = null;
+                this.parser = paramParsers.getParamParser(type);
+            }
+        }
+
+        static FieldBinding create(Field field, ParamParsers paramParsers, Function<Class<?>, FormBindingPlan> plans) {
+            MethodHandle setter;
+
+            try {
+                field.setAccessible(true);
+                setter = MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (SecurityException | IllegalAccessException e) {
+                logger.warn("Field {} of {} can't be bound from a form",
+                        field.getName(), field.getDeclaringClass().getName(), e);
+                return null;
+            }
+
+            return new FieldBinding(field, setter, paramParsers, plans);
+        }
+
+        void bindValues(Object target, String[] values, Context context) throws Throwable {
+            if (Collection.class.isAssignableFrom(type)) {
+                if (listParser == null) {
+                    logger.warn("No parser defined for a collection of type {}", type.getCanonicalName());
+                } else {
+                    set(target, listParser.parseParameter(name, values, context.getValidation()));
+                }
+            } else if (type.isArray()) {
+                if (arrayParser == null) {
+                    logger.warn("No parser defined for an array of type {}", type.getComponentType().getCanonicalName());
+                } else {
+                    set(target, arrayParser.parseParameter(name, values, context.getValidation()));
+                }
+            } else {
+                if (parser == null) {
+                    logger.warn("No parser defined for type {}", type.getCanonicalName());
+                } else {
+                    set(target, parser.parseParameter(name, values[0], context.getValidation()));
+                }
+            }
+        }
+
+        void set(Object target, Object value) throws Throwable {
+            if (value == null && type.isPrimitive()) {
+                // keep the default, the parser already reported the violation
+                return;
+            }
+            setter.invokeExact(target, value);
+        }
+
+        FormBindingPlan nestedPlan() {
+            FormBindingPlan plan = nestedPlan;
+
+            if (plan == null) {
+                plan = plans.apply(type);
+                nestedPlan = plan;
+            }
+
+            return plan;
+        }
+
+        private static Class<?> getGenericType(Field field) {
+            Type genericType = field.getGenericType();
+
+            if (genericType instanceof ParameterizedType) {
+                Type argument = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+
+                if (argument instanceof Class) {
+                    return (Class<?>) argument;
+                }
+            }
+
+            logger.warn("No parser defined for a collection of type {}", genericType.getTypeName());
+            return null;
+        }
+    }
+
+    /**
+     * The request parameters as a prefix tree: "user.address.street" ends up as
+     * user -&gt; address -&gt; street.
+     */
+    static class Parameters {
+
+        private Map<String, Parameters> children;
+
+        /**
+         * values of the parameter named exactly like the path to this node, if any
+         */
+        String[] values;
+
+        /**
+         * true if a parameter below this node carries a non empty value
+         */
+        boolean nested;
+
+        static Parameters of(Map<String, String[]> parameters) {
+            Parameters root = new Parameters();
+
+            for (Map.Entry<String, String[]> entry : parameters.entrySet()) {
+                root.add(entry.getKey(), entry.getValue());
+            }
+
+            return root;
+        }
+
+        Parameters get(String name) {
+            return children == null ? null : children.get(name);
+        }
+
+        private void add(String name, String[] values) {
+            boolean hasValue = hasValue(values);
+            Parameters node = this;
+            int start = 0;
+            int dot;
+
+            while ((dot = name.indexOf('.', start)) != -1) {
+                node = node.child(name.substring(start, dot));
+                node.nested |= hasValue;
+                start = dot + 1;
+            }
+
+            node = node.child(name.substring(start));
+            node.values = values;
+        }
+
+        private Parameters child(String name) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(name, k -> new Parameters());
+        }
+
+        private static boolean hasValue(String[] values) {
+            if (values != null) {
+                for (String value : values) {
+                    if (value != null && !value.isEmpty()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
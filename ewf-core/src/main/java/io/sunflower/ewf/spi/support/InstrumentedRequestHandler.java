@@ -68,9 +68,7 @@ public class InstrumentedRequestHandler extends RequestHandlerImpl {
         try {
             activeRequests.inc();
 
-            String httpMethod = context.getMethod();
-
-            Route route = router.getRouteFor(httpMethod, context.getRequestPath());
+            Route route = resolveRoute(context);
 
             if (route == null) {
                 routesNotFound.mark();
@@ -80,12 +78,12 @@ public class InstrumentedRequestHandler extends RequestHandlerImpl {
             }
 
             allRequestsMeter.mark();
-            context.setRoute(route);
 
             Result underlyingResult;
+            boolean async = false;
             try {
                 underlyingResult = route.getFilterChain().next(context);
-                resultHandler.handleResult(underlyingResult, context);
+                async = handleUnderlyingResult(underlyingResult, context);
             } catch (Exception exception) {
                 if (exception instanceof BadRequestException) {
                     badRequests.mark();
@@ -95,7 +93,9 @@ public class InstrumentedRequestHandler extends RequestHandlerImpl {
                 Result result = exceptionHandler.onException(context, exception);
                 renderErrorResultAndCatchAndLogExceptions(result, context);
             } finally {
-                context.cleanup();
+                if (!async) {
+                    context.cleanup();
+                }
                 activeRequests.dec();
             }
         } finally {
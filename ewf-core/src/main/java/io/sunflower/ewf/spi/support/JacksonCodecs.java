@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.support.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Readers and writers of the shared {@link ObjectMapper}, resolved once per type (and json view).
+ * <p>
+ * ObjectReader / ObjectWriter are immutable and thread safe; getting them from the mapper for
+ * every request means resolving the type, the view config and the root (de)serializer again.
+ *
+ * @author michael
+ */
+@Singleton
+public class JacksonCodecs {
+
+    private static final Logger logger = LoggerFactory.getLogger(JacksonCodecs.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final ClassValue<ObjectReader> readers = new ClassValue<ObjectReader>() {
+        @Override
+        protected ObjectReader computeValue(Class<?> type) {
+            return objectMapper.readerFor(type);
+        }
+    };
+
+    private final ClassValue<ObjectWriter> writers = new ClassValue<ObjectWriter>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> type) {
+            return objectMapper.writerFor(type);
+        }
+    };
+
+    /**
+     * json view -&gt; renderable class -&gt; writer
+     */
+    private final ClassValue<ClassValue<ObjectWriter>> viewWriters = new ClassValue<ClassValue<ObjectWriter>>() {
+        @Override
+        protected ClassValue<ObjectWriter> computeValue(Class<?> view) {
+            ObjectWriter viewWriter = objectMapper.writerWithView(view);
+
+            return new ClassValue<ObjectWriter>() {
+                @Override
+                protected ObjectWriter computeValue(Class<?> type) {
+                    return viewWriter.forType(type);
+                }
+            };
+        }
+    };
+
+    /**
+     * json view -&gt; writer for sequences of items, flushing is left to the caller
+     */
+    private final ClassValue<ObjectWriter> itemWriters = new ClassValue<ObjectWriter>() {
+        @Override
+        protected ObjectWriter computeValue(Class<?> view) {
+            return objectMapper.writerWithView(view).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+    };
+
+    private volatile ObjectWriter itemWriter;
+
+    @Inject
+    public JacksonCodecs(ObjectMapper objectMapper, Settings settings) {
+        this.objectMapper = objectMapper;
+
+        if (settings.isJsonAfterburnerEnabled()) {
+            AfterburnerModule module = new AfterburnerModule();
+            objectMapper.registerModule(module);
+            logger.info("Registered {} on the shared ObjectMapper", module.getModuleName());
+        }
+    }
+
+    public JacksonCodecs(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * @param type the type to read
+     * @return the cached reader for the type
+     */
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.get(type);
+    }
+
+    /**
+     * @param type the runtime class of the value to write, null for null values
+     * @param view the json view or null
+     * @return the cached writer for type and view
+     */
+    public ObjectWriter writerFor(Class<?> type, Class<?> view) {
+        if (view == null) {
+            return type == null ? objectMapper.writer() : writers.get(type);
+        }
+
+        return type == null ? objectMapper.writerWithView(view) : viewWriters.get(view).get(type);
+    }
+
+    /**
+     * A writer for items written one by one with a {@link com.fasterxml.jackson.databind.SequenceWriter}.
+     * It does not flush after every item, the caller decides when.
+     *
+     * @param view the json view or null
+     * @return the cached writer for the view
+     */
+    public ObjectWriter itemWriterFor(Class<?> view) {
+        if (view != null) {
+            return itemWriters.get(view);
+        }
+
+        ObjectWriter writer = itemWriter;
+
+        if (writer == null) {
+            writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            itemWriter = writer;
+        }
+
+        return writer;
+    }
+
+    /**
+     * Resolves the reader of a controller body type up front, so the first request does not pay for it.
+     *
+     * @param type the body type of a controller method
+     */
+    public void prepareReader(Class<?> type) {
+        readers.get(type);
+    }
+}
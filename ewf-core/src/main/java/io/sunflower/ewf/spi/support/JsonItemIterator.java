@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi.support;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import io.sunflower.ewf.errors.BadRequestException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Iterator over the items of a request body, translating parse errors to bad requests and
+ * closing the body once all items are read.
+ *
+ * @author michael
+ */
+class JsonItemIterator<T> implements Iterator<T>, Closeable {
+
+    private final MappingIterator<T> items;
+
+    JsonItemIterator(MappingIterator<T> items) {
+        this.items = items;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            if (items.hasNextValue()) {
+                return true;
+            }
+        } catch (IOException e) {
+            closeQuietly();
+            throw new BadRequestException("Error parsing incoming Json", e);
+        }
+
+        closeQuietly();
+        return false;
+    }
+
+    @Override
+    public T next() {
+        try {
+            return items.nextValue();
+        } catch (IOException e) {
+            closeQuietly();
+            throw new BadRequestException("Error parsing incoming Json", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        items.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            items.close();
+        } catch (IOException ignore) {
+            // the request is gone or done anyway
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi.support;
+
+import io.sunflower.ewf.JsonItemProducer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.BaseStream;
+
+/**
+ * Renderables that are written element by element instead of in one go: streams, iterators and
+ * {@link JsonItemProducer}s.
+ * <p>
+ * Iterables are not among them, plenty of values are iterable (json nodes, paths, pages) and
+ * serialized as objects by jackson.
+ *
+ * @author michael
+ */
+class JsonItems {
+
+    interface ItemWriter {
+
+        void write(Object item) throws IOException;
+
+    }
+
+    private JsonItems() {
+    }
+
+    static boolean isStreamable(Object renderable) {
+        return renderable instanceof BaseStream
+                || renderable instanceof Iterator
+                || renderable instanceof JsonItemProducer;
+    }
+
+    /**
+     * Writes all items of the renderable and closes it, if it can be closed - also when writing fails.
+     *
+     * @param renderable a renderable {@link #isStreamable(Object)} returned true for, or a collection
+     * @param writer     writes one item
+     * @throws IOException writing failed
+     * @throws Exception   the source of the items failed
+     */
+    static void forEach(Object renderable, ItemWriter writer) throws Exception {
+        try {
+            write(renderable, writer);
+        } catch (Exception e) {
+            if (renderable instanceof AutoCloseable) {
+                try {
+                    ((AutoCloseable) renderable).close();
+                } catch (Exception closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw e;
+        }
+
+        if (renderable instanceof AutoCloseable) {
+            ((AutoCloseable) renderable).close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void write(Object renderable, ItemWriter writer) throws Exception {
+        if (renderable instanceof JsonItemProducer) {
+            try {
+                ((JsonItemProducer<Object>) renderable).produce(item -> {
+                    try {
+                        writer.write(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return;
+        }
+
+        Iterator<?> iterator;
+
+        if (renderable instanceof BaseStream) {
+            iterator = ((BaseStream<?, ?>) renderable).iterator();
+        } else if (renderable instanceof Iterator) {
+            iterator = (Iterator<?>) renderable;
+        } else {
+            iterator = ((Iterable<?>) renderable).iterator();
+        }
+
+        while (iterator.hasNext()) {
+            writer.write(iterator.next());
+        }
+    }
+}
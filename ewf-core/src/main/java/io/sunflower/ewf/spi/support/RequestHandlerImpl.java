@@ -15,19 +15,25 @@
 
 package io.sunflower.ewf.spi.support;
 
+import io.sunflower.ewf.AsyncResult;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Context.Impl;
 import io.sunflower.ewf.Result;
+import io.sunflower.ewf.errors.InternalServerErrorException;
 import io.sunflower.ewf.internal.InternalRouter;
 import io.sunflower.ewf.internal.Route;
+import io.sunflower.ewf.internal.RouteMatch;
 import io.sunflower.ewf.spi.ExceptionHandler;
 import io.sunflower.ewf.spi.RequestHandler;
 import io.sunflower.ewf.spi.ResultHandler;
+import io.sunflower.ewf.support.Settings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author michael
@@ -46,12 +52,13 @@ public class RequestHandlerImpl implements RequestHandler {
     @Inject
     protected ExceptionHandler exceptionHandler;
 
+    @Inject
+    protected Settings settings;
+
     @Override
     public void handleRequest(Impl context) {
 
-        String httpMethod = context.getMethod();
-
-        Route route = router.getRouteFor(httpMethod, context.getRequestPath());
+        Route route = resolveRoute(context);
 
         if (route == null) {
             // throw a 404 "not found" because we did not find the route
@@ -61,25 +68,133 @@ public class RequestHandlerImpl implements RequestHandler {
             return;
         }
 
-        context.setRoute(route);
-
         Result underlyingResult;
+        boolean async = false;
 
         try {
 
             underlyingResult = route.getFilterChain().next(context);
 
-            resultHandler.handleResult(underlyingResult, context);
+            async = handleUnderlyingResult(underlyingResult, context);
 
         } catch (Exception exception) {
             // call special handler to capture the underlying result if there is one
             Result result = exceptionHandler.onException(context, exception);
             renderErrorResultAndCatchAndLogExceptions(result, context);
+        } finally {
+            if (!async) {
+                context.cleanup();
+            }
+        }
+    }
+
+    /**
+     * The route of the request, attached to the context. The runtime may have resolved it already,
+     * e.g. to decide on which thread the request runs.
+     *
+     * @return the route or null if none matches
+     */
+    protected Route resolveRoute(Impl context) {
+        Route route = context.getRoute();
+
+        if (route == null) {
+            RouteMatch routeMatch = router.getRouteMatchFor(context.getMethod(), context.getRequestPath());
+
+            if (routeMatch == null) {
+                return null;
+            }
+
+            context.setRoute(routeMatch);
+            route = routeMatch.getRoute();
+        }
+
+        return route;
+    }
+
+    /**
+     * Renders the result of the route. A result that is still being computed is handed to
+     * {@link Context#returnResultAsync} when it completes, or fails through the
+     * {@link ExceptionHandler} with a {@link TimeoutException} after
+     * {@link Settings#getAsyncTimeout()}. The context decides where it is rendered, Undertow
+     * leaves that to a worker thread rather than the thread completing it.
+     *
+     * @return true if the result is rendered later, the context is cleaned up then
+     */
+    protected boolean handleUnderlyingResult(Result result, Context context) {
+        if (result instanceof AsyncResult && ((AsyncResult) result).getCompletion() != null) {
+            context.handleAsync();
+            completeAsync(((AsyncResult) result).getCompletion(), context);
+            return true;
+        }
+
+        resultHandler.handleResult(result, context);
+        return false;
+    }
+
+    private void completeAsync(CompletionStage<? extends Result> completion, Context context) {
+        // the completion and the timeout race, only the first one renders
+        AtomicBoolean done = new AtomicBoolean();
+        long timeoutMs = settings.getAsyncTimeout().toMilliseconds();
+
+        ScheduledFuture<?> timeout = timeoutMs <= 0 ? null : AsyncTimeouts.SCHEDULER.schedule(() -> {
+            if (done.compareAndSet(false, true)) {
+                returnResultAsync(context, null, new TimeoutException(
+                        "No result for " + context.getRequestPath() + " after " + timeoutMs + "ms"));
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        completion.whenComplete((result, failure) -> {
+            if (done.compareAndSet(false, true)) {
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                returnResultAsync(context, result, failure);
+            }
+        });
+    }
+
+    private void returnResultAsync(Context context, Result result, Throwable failure) {
+        try {
+            if (failure != null) {
+                result = exceptionHandler.onException(context, unwrap(failure));
+            }
+
+            context.returnResultAsync(result);
+        } catch (Exception exception) {
+            logger.error("Unable to handle async result. That's really really fishy.", exception);
         } finally {
             context.cleanup();
         }
     }
 
+    private static Exception unwrap(Throwable failure) {
+        if ((failure instanceof CompletionException || failure instanceof ExecutionException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+
+        return failure instanceof Exception ? (Exception) failure : new InternalServerErrorException(failure);
+    }
+
+    /**
+     * One daemon thread failing async results that take too long, created with the first one.
+     */
+    private static class AsyncTimeouts {
+
+        static final ScheduledExecutorService SCHEDULER;
+
+        static {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "ewf-async-timeouts");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // completed results cancel their timeout, don't keep them queued until they are due
+            scheduler.setRemoveOnCancelPolicy(true);
+            SCHEDULER = scheduler;
+        }
+    }
+
     protected void renderErrorResultAndCatchAndLogExceptions(Result errorResult, Context context) {
         try {
             resultHandler.handleResult(errorResult, context);
@@ -26,6 +26,7 @@ import io.sunflower.ewf.errors.BadRequestException;
 import io.sunflower.ewf.errors.WebApplicationException;
 import io.sunflower.ewf.i18n.Messages;
 import io.sunflower.ewf.internal.template.TemplateEngineManager;
+import io.sunflower.ewf.spi.NegotiatedContentTypes;
 import io.sunflower.ewf.spi.ResultHandler;
 import io.sunflower.ewf.spi.TemplateEngine;
 import io.sunflower.ewf.support.NoHttpBody;
@@ -33,8 +34,10 @@ import io.sunflower.ewf.validation.ConstraintViolation;
 import io.sunflower.ewf.validation.ValidationErrorMessage;
 
 import javax.inject.Singleton;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 
 /**
@@ -46,6 +49,11 @@ public class ResultHandlerImpl implements ResultHandler {
     private final TemplateEngineManager templateEngineManager;
     private final Messages messages;
 
+    /**
+     * content types added by modules, for results that don't declare their own
+     */
+    private Set<String> negotiatedContentTypes = Collections.emptySet();
+
     @Inject
     public ResultHandlerImpl(TemplateEngineManager templateEngineManager,
                              Messages messages) {
@@ -53,6 +61,11 @@ public class ResultHandlerImpl implements ResultHandler {
         this.messages = messages;
     }
 
+    @Inject(optional = true)
+    public void setNegotiatedContentTypes(@NegotiatedContentTypes Set<String> negotiatedContentTypes) {
+        this.negotiatedContentTypes = negotiatedContentTypes;
+    }
+
     @Override
     public void handleResult(Result result, Context context) {
 
@@ -116,14 +129,16 @@ public class ResultHandlerImpl implements ResultHandler {
         // request accept header
         if (result.getContentType() == null) {
 
-            if (result.supportedContentTypes().contains(context.getAcceptContentType())) {
-                result.contentType(context.getAcceptContentType());
+            String acceptContentType = context.getAcceptContentType();
+
+            if (isSupported(result, acceptContentType)) {
+                result.contentType(acceptContentType);
             } else if (result.fallbackContentType().isPresent()) {
                 result.contentType(result.fallbackContentType().get());
             } else {
                 throw new BadRequestException(
                         "No idea how to handle incoming request with Accept:"
-                                + context.getAcceptContentType()
+                                + acceptContentType
                                 + " at route " + context.getRequestPath());
             }
         }
@@ -142,5 +157,9 @@ public class ResultHandlerImpl implements ResultHandler {
         }
     }
 
+    private boolean isSupported(Result result, String contentType) {
+        return result.supportedContentTypes().contains(contentType)
+                || (result.hasDefaultSupportedContentTypes() && negotiatedContentTypes.contains(contentType));
+    }
 
 }
@@ -16,12 +16,14 @@
 package io.sunflower.ewf.spi.support;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.spi.TemplateEngine;
 import io.sunflower.ewf.support.ResponseStreams;
+import io.sunflower.ewf.support.Settings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,29 +38,38 @@ public class TemplateEngineJson implements TemplateEngine {
 
     private final Logger logger = LoggerFactory.getLogger(TemplateEngineJson.class);
 
-    private final ObjectMapper objectMapper;
+    private final JacksonCodecs jacksonCodecs;
+
+    private final int flushBatch;
 
     @Inject
-    public TemplateEngineJson(ObjectMapper objectMapper) {
+    public TemplateEngineJson(JacksonCodecs jacksonCodecs, Settings settings) {
+
+        this.jacksonCodecs = jacksonCodecs;
+        this.flushBatch = settings.getStreamingFlushBatch();
 
-        this.objectMapper = objectMapper;
+    }
 
+    public TemplateEngineJson(ObjectMapper objectMapper) {
+        this(new JacksonCodecs(objectMapper), new Settings());
     }
 
     @Override
     public void invoke(Context context, Result result) {
 
+        if (JsonItems.isStreamable(result.getRenderable())) {
+            stream(context, result);
+            return;
+        }
+
         ResponseStreams responseStreams = context.finalizeHeaders(result);
 
         try (OutputStream outputStream = responseStreams.getOutputStream()) {
 
-            Class<?> jsonView = result.getJsonView();
-            if (jsonView != null) {
-                objectMapper.writerWithView(jsonView).writeValue(outputStream, result.getRenderable());
-            } else {
-                objectMapper.writeValue(outputStream, result.getRenderable());
-            }
+            Object renderable = result.getRenderable();
+            Class<?> type = renderable == null ? null : renderable.getClass();
 
+            jacksonCodecs.writerFor(type, result.getJsonView()).writeValue(outputStream, renderable);
 
         } catch (IOException e) {
 
@@ -68,6 +79,46 @@ public class TemplateEngineJson implements TemplateEngine {
 
     }
 
+    /**
+     * Writes the items as json array while they are produced. No content length is known, so the
+     * response goes out chunked. Once the headers are sent a failure can only abort the response -
+     * the array is left unterminated and the response is not ended cleanly, so clients notice.
+     */
+    private void stream(Context context, Result result) {
+
+        ResponseStreams responseStreams = context.finalizeHeaders(result);
+
+        try {
+
+            OutputStream outputStream = responseStreams.getOutputStream();
+            SequenceWriter sequenceWriter = jacksonCodecs.itemWriterFor(result.getJsonView())
+                    .writeValuesAsArray(outputStream);
+
+            JsonItems.forEach(result.getRenderable(), new JsonItems.ItemWriter() {
+
+                int pending;
+
+                @Override
+                public void write(Object item) throws IOException {
+                    sequenceWriter.write(item);
+
+                    if (++pending >= flushBatch) {
+                        sequenceWriter.flush();
+                        pending = 0;
+                    }
+                }
+            });
+
+            sequenceWriter.close();
+            outputStream.close();
+
+        } catch (Exception e) {
+
+            logger.error("Error while streaming json, the response is incomplete", e);
+            responseStreams.abort();
+        }
+    }
+
     @Override
     public String getContentType() {
         return Result.APPLICATION_JSON;
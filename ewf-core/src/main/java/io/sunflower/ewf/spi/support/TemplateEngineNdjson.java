@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.spi.support;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.spi.TemplateEngine;
+import io.sunflower.ewf.support.ResponseStreams;
+import io.sunflower.ewf.support.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Renders newline delimited json (json lines): one json document per line.
+ * <p>
+ * Collections, arrays, streams, iterators and {@link io.sunflower.ewf.JsonItemProducer}s are
+ * written item by item and flushed every ewf.streamingFlushBatch lines, anything else as a single
+ * line.
+ *
+ * @author michael
+ */
+@Singleton
+public class TemplateEngineNdjson implements TemplateEngine {
+
+    private final Logger logger = LoggerFactory.getLogger(TemplateEngineNdjson.class);
+
+    private final JacksonCodecs jacksonCodecs;
+
+    private final int flushBatch;
+
+    @Inject
+    public TemplateEngineNdjson(JacksonCodecs jacksonCodecs, Settings settings) {
+        this.jacksonCodecs = jacksonCodecs;
+        this.flushBatch = settings.getStreamingFlushBatch();
+    }
+
+    public TemplateEngineNdjson(ObjectMapper objectMapper) {
+        this(new JacksonCodecs(objectMapper), new Settings());
+    }
+
+    @Override
+    public void invoke(Context context, Result result) {
+
+        ResponseStreams responseStreams = context.finalizeHeaders(result);
+
+        try {
+
+            OutputStream outputStream = responseStreams.getOutputStream();
+            ObjectWriter writer = jacksonCodecs.itemWriterFor(result.getJsonView());
+            JsonGenerator generator = writer.getFactory().createGenerator(outputStream);
+            // lines are separated by us, not by jackson
+            generator.setRootValueSeparator(null);
+
+            JsonItems.forEach(asItems(result.getRenderable()), new JsonItems.ItemWriter() {
+
+                int pending;
+
+                @Override
+                public void write(Object item) throws IOException {
+                    writer.writeValue(generator, item);
+                    generator.writeRaw('\n');
+
+                    if (++pending >= flushBatch) {
+                        generator.flush();
+                        pending = 0;
+                    }
+                }
+            });
+
+            generator.close();
+            outputStream.close();
+
+        } catch (Exception e) {
+
+            logger.error("Error while rendering ndjson, the response is incomplete", e);
+            // closing the streams would end it like a complete response
+            responseStreams.abort();
+        }
+    }
+
+    private static Object asItems(Object renderable) {
+        // other iterables (json nodes, paths...) are values of their own
+        if (renderable instanceof Collection || JsonItems.isStreamable(renderable)) {
+            return renderable;
+        }
+
+        if (renderable instanceof Object[]) {
+            return Arrays.asList((Object[]) renderable);
+        }
+
+        return Collections.singletonList(renderable);
+    }
+
+    @Override
+    public String getContentType() {
+        return Result.APPLICATION_NDJSON;
+    }
+
+    @Override
+    public String getSuffixOfTemplatingEngine() {
+        // intentionally returns null...
+        return null;
+    }
+}
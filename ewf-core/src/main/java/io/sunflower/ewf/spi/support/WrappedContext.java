@@ -28,6 +28,7 @@ import io.sunflower.ewf.validation.Validation;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -159,6 +160,11 @@ public class WrappedContext implements Context {
         return wrapped.parseBody(classOfT);
     }
 
+    @Override
+    public <T> Iterator<T> parseBodyItems(Class<T> classOfT) {
+        return wrapped.parseBodyItems(classOfT);
+    }
+
     @Override
     public ResponseStreams finalizeHeaders(Result result) {
         return wrapped.finalizeHeaders(result);
@@ -15,6 +15,7 @@
 package io.sunflower.ewf.support;
 
 import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
 import com.google.inject.Inject;
@@ -23,19 +24,23 @@ import io.sunflower.ewf.Context.Impl;
 import io.sunflower.ewf.Cookie;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.internal.Route;
+import io.sunflower.ewf.internal.RouteMatch;
 import io.sunflower.ewf.internal.bodyparser.BodyParserEngineManager;
 import io.sunflower.ewf.params.internal.ParamParsers;
 import io.sunflower.ewf.session.FlashScope;
 import io.sunflower.ewf.session.Session;
 import io.sunflower.ewf.spi.BodyParserEngine;
+import io.sunflower.ewf.spi.StreamingBodyParserEngine;
 import io.sunflower.ewf.validation.Validation;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.InetAddress;
-import java.net.URI;
 import java.net.UnknownHostException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
 
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 
@@ -55,6 +60,21 @@ abstract public class AbstractContext implements Impl {
 
     static final private Logger logger = LoggerFactory.getLogger(AbstractContext.class);
 
+    /**
+     * What getAcceptContentType() answers with when the client accepts several types equally. Json
+     * comes first as it always did; the types results only support when a module or the result
+     * opts in come last.
+     */
+    private static final List<String> ACCEPT_PREFERENCE = ImmutableList.of(
+            Result.APPLICATION_JSON,
+            Result.TEXT_HTML,
+            Result.APPLICATION_XML,
+            Result.APPLICATION_OCTET_STREAM,
+            Result.TEXT_PLAIN,
+            Result.APPLICATION_NDJSON,
+            Result.APPLICATION_SMILE,
+            Result.APPLICATION_CBOR);
+
     /**
      * subclasses need to access these
      */
@@ -68,6 +88,11 @@ abstract public class AbstractContext implements Impl {
 
     protected Route route;
 
+    /**
+     * path parameters of the current route, created on first access when only a route was set
+     */
+    private RouteMatch routeMatch;
+
     /**
      * in async mode these values will be set to null so its critical they
      * are saved when a context is initialized
@@ -96,6 +121,10 @@ abstract public class AbstractContext implements Impl {
         this.contextPath = contextPath;
         this.requestPath = requestPath;
 
+        // contexts might be recycled, see EwfHttpHandler
+        this.route = null;
+        this.routeMatch = null;
+
         this.flashScope.init(this);
         this.session.init(this);
     }
@@ -103,6 +132,20 @@ abstract public class AbstractContext implements Impl {
     @Override
     public void setRoute(Route route) {
         this.route = route;
+        this.routeMatch = null;
+    }
+
+    @Override
+    public void setRoute(RouteMatch routeMatch) {
+        this.route = routeMatch.getRoute();
+        this.routeMatch = routeMatch;
+    }
+
+    private RouteMatch getRouteMatch() {
+        if (routeMatch == null && route != null) {
+            routeMatch = route.match(getRequestPath());
+        }
+        return routeMatch;
     }
 
     @Override
@@ -176,18 +219,14 @@ abstract public class AbstractContext implements Impl {
 
     @Override
     public String getPathParameter(String key) {
-        String encodedParameter = route.getPathParametersEncoded(getRequestPath()).get(key);
-
-        if (encodedParameter == null) {
-            return null;
-        } else {
-            return URI.create(encodedParameter).getPath();
-        }
+        RouteMatch match = getRouteMatch();
+        return match == null ? null : match.getPathParameter(key);
     }
 
     @Override
     public String getPathParameterEncoded(String key) {
-        return route.getPathParametersEncoded(getRequestPath()).get(key);
+        RouteMatch match = getRouteMatch();
+        return match == null ? null : match.getPathParameterEncoded(key);
     }
 
     @Override
@@ -244,6 +283,33 @@ abstract public class AbstractContext implements Impl {
     @Override
     public <T> T parseBody(Class<T> classOfT) {
 
+        BodyParserEngine bodyParserEngine = getBodyParserEngine();
+
+        if (bodyParserEngine == null) {
+            return null;
+        }
+
+        return bodyParserEngine.invoke(this, classOfT);
+
+    }
+
+    @Override
+    public <T> Iterator<T> parseBodyItems(Class<T> classOfT) {
+
+        BodyParserEngine bodyParserEngine = getBodyParserEngine();
+
+        if (!(bodyParserEngine instanceof StreamingBodyParserEngine)) {
+            logger.debug("No streaming BodyParserEngine found for Content-Type {} at route {}",
+                    getRequestContentType(), getRequestPath());
+            return null;
+        }
+
+        return ((StreamingBodyParserEngine) bodyParserEngine).iterate(this, classOfT);
+
+    }
+
+    private BodyParserEngine getBodyParserEngine() {
+
         String rawContentType = getRequestContentType();
 
         // If the Content-type: xxx header is not set we return null.
@@ -262,10 +328,9 @@ abstract public class AbstractContext implements Impl {
 
         if (bodyParserEngine == null) {
             logger.debug("No BodyParserEngine found for Content-Type {} at route {}", CONTENT_TYPE, getRequestPath());
-            return null;
         }
 
-        return bodyParserEngine.invoke(this, classOfT);
+        return bodyParserEngine;
 
     }
 
@@ -313,36 +378,83 @@ abstract public class AbstractContext implements Impl {
 
     @Override
     public String getAcceptContentType() {
-        String contentType = getHeader(HttpHeaders.ACCEPT);
+        String accept = getHeader(HttpHeaders.ACCEPT);
 
-        if (Strings.isNullOrEmpty(contentType)) {
+        if (Strings.isNullOrEmpty(accept)) {
             return Result.APPLICATION_JSON;
         }
 
-        if (contentType.contains("application/json")
-                || contentType.contains("text/javascript")) {
-            return Result.APPLICATION_JSON;
-        }
+        // the highest q-value wins, ties go to the type ranked first in ACCEPT_PREFERENCE
+        String best = null;
+        double bestQuality = 0;
+        double anyQuality = 0;
 
-        if (contentType.contains("application/xhtml")
-                || contentType.contains("text/html")) {
-            return Result.TEXT_HTML;
-        }
+        for (String mediaRange : accept.split(",")) {
+            String[] parts = mediaRange.split(";");
+            String type = parts[0].trim().toLowerCase(Locale.ENGLISH);
 
-        if (contentType.contains("application/xml")
-                || contentType.contains("text/xml")) {
-            return Result.APPLICATION_XML;
-        }
+            if ("*/*".equals(type)) {
+                anyQuality = Math.max(anyQuality, quality(parts));
+                continue;
+            }
+
+            String contentType = toResultContentType(type);
 
-        if (contentType.contains("application/octet-stream")) {
-            return Result.APPLICATION_OCTET_STREAM;
+            if (contentType == null) {
+                continue;
+            }
+
+            double quality = quality(parts);
+
+            if (quality > bestQuality || (quality == bestQuality && quality > 0
+                    && ACCEPT_PREFERENCE.indexOf(contentType) < ACCEPT_PREFERENCE.indexOf(best))) {
+                best = contentType;
+                bestQuality = quality;
+            }
         }
 
-        if (contentType.contains("text/plain")) {
-            return Result.TEXT_PLAIN;
+        // */* only answers with json if no listed type is accepted as much
+        return best == null || anyQuality > bestQuality ? Result.APPLICATION_JSON : best;
+    }
+
+    /**
+     * @return the content type of a result answering the media range, null if there is none
+     */
+    private static String toResultContentType(String mediaRange) {
+        switch (mediaRange) {
+            case "application/json":
+            case "text/javascript":
+                return Result.APPLICATION_JSON;
+            case "text/html":
+                return Result.TEXT_HTML;
+            case "application/xml":
+            case "text/xml":
+                return Result.APPLICATION_XML;
+            case Result.APPLICATION_OCTET_STREAM:
+            case Result.TEXT_PLAIN:
+            case Result.APPLICATION_NDJSON:
+            case Result.APPLICATION_SMILE:
+            case Result.APPLICATION_CBOR:
+                return mediaRange;
+            default:
+                // application/xhtml and application/xhtml+xml
+                return mediaRange.startsWith("application/xhtml") ? Result.TEXT_HTML : null;
         }
+    }
 
-        return Result.APPLICATION_JSON;
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 1;
+                }
+            }
+        }
+        return 1;
     }
 
     @Override
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.support;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.internal.Route;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Byte range requests (RFC 7233): parses Range / If-Range and writes 206 Partial Content
+ * responses, a single part or multipart/byteranges.
+ * <p>
+ * Headers that can't be parsed, other units than bytes and requests for too many ranges are
+ * ignored, the whole entity is sent then.
+ *
+ * @author michael
+ */
+public final class ByteRanges {
+
+    public static final String BYTES = "bytes";
+
+    /**
+     * more ranges than this are answered with the whole entity
+     */
+    static final int MAX_RANGES = 16;
+
+    private static final String MULTIPART_BYTERANGES = "multipart/byteranges; boundary=";
+    private static final String CRLF = "\r\n";
+
+    private ByteRanges() {
+    }
+
+    /**
+     * Writes a part of an entity.
+     */
+    public interface Source {
+
+        /**
+         * @param outputStream the stream to write to, must not be closed
+         * @param start        first byte to write
+         * @param length       number of bytes to write
+         * @throws IOException
+         */
+        void writeTo(OutputStream outputStream, long start, long length) throws IOException;
+    }
+
+    /**
+     * @param content the whole entity
+     * @return a source of parts of content
+     */
+    public static Source of(byte[] content) {
+        return (outputStream, start, length) -> outputStream.write(content, (int) start, (int) length);
+    }
+
+    /**
+     * @param file the whole entity
+     * @return a source reading the parts from the file channel
+     */
+    public static Source of(Path file) {
+        return (outputStream, start, length) -> {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long position = start;
+                long end = start + length;
+
+                while (position < end) {
+                    long transferred = channel.transferTo(position, end - position, target);
+
+                    if (transferred <= 0) {
+                        throw new EOFException("File " + file + " is shorter than " + end + " bytes");
+                    }
+                    position += transferred;
+                }
+            }
+        };
+    }
+
+    /**
+     * @param url the whole entity
+     * @return a source skipping to every part, for entities inside of jars
+     */
+    public static Source of(URL url) {
+        return (outputStream, start, length) -> {
+            try (InputStream inputStream = url.openStream()) {
+                ByteStreams.skipFully(inputStream, start);
+
+                if (ByteStreams.copy(ByteStreams.limit(inputStream, length), outputStream) != length) {
+                    throw new EOFException(url + " is shorter than " + (start + length) + " bytes");
+                }
+            }
+        };
+    }
+
+    /**
+     * A satisfiable range, both ends inclusive.
+     */
+    public static final class Range {
+
+        public final long start;
+        public final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long length() {
+            return end - start + 1;
+        }
+
+        String contentRange(long length) {
+            return BYTES + " " + start + "-" + end + "/" + length;
+        }
+
+        @Override
+        public String toString() {
+            return start + "-" + end;
+        }
+    }
+
+    /**
+     * The ranges requested for a GET of the entity. Call after etag and last modified headers are
+     * set on the result, If-Range is checked against them.
+     *
+     * @param context      the context
+     * @param result       the result with the validators of the entity
+     * @param length       the length of the entity
+     * @param lastModified last modified of the entity or null
+     * @return null to send the whole entity, an empty list if none of the ranges is satisfiable
+     */
+    public static List<Range> requested(Context context, Result result, long length, Long lastModified) {
+        if (!Route.HTTP_METHOD_GET.equalsIgnoreCase(context.getMethod())) {
+            return null;
+        }
+
+        String range = context.getHeader(HttpHeaders.RANGE);
+
+        if (range == null || !ifRangeMatches(context.getHeader(HttpHeaders.IF_RANGE), result, lastModified)) {
+            return null;
+        }
+
+        return parse(range, length);
+    }
+
+    /**
+     * @param range  the value of a Range header
+     * @param length the length of the entity
+     * @return null if the header is to be ignored, an empty list if none of the ranges is
+     * satisfiable
+     */
+    static List<Range> parse(String range, long length) {
+        int equals = range.indexOf('=');
+
+        if (equals == -1 || !BYTES.equalsIgnoreCase(range.substring(0, equals).trim())) {
+            return null;
+        }
+
+        List<Range> ranges = new ArrayList<>(1);
+
+        for (String spec : range.substring(equals + 1).split(",")) {
+            spec = spec.trim();
+
+            if (spec.isEmpty()) {
+                continue;
+            }
+
+            int dash = spec.indexOf('-');
+
+            if (dash == -1) {
+                return null;
+            }
+
+            long start;
+            long end;
+
+            try {
+                if (dash == 0) {
+                    // the last n bytes
+                    long suffix = Long.parseLong(spec.substring(1));
+
+                    if (suffix < 0) {
+                        return null;
+                    }
+                    if (suffix == 0 || length == 0) {
+                        continue;
+                    }
+
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    end = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+
+                    if (start < 0 || end < start) {
+                        return null;
+                    }
+                    if (start >= length) {
+                        continue;
+                    }
+
+                    end = Math.min(end, length - 1);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+
+            if (ranges.size() == MAX_RANGES) {
+                return null;
+            }
+
+            ranges.add(new Range(start, end));
+        }
+
+        if (ranges.size() == 1 && ranges.get(0).length() == length) {
+            // all of it
+            return null;
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Finalizes the headers and writes a 206 (or 416 if ranges is empty) response.
+     *
+     * @param result          the result, its content type is the one of the entity
+     * @param length          the length of the entity
+     * @param ranges          ranges from {@link #requested}
+     * @param source          writes parts of the entity
+     * @param finalizeHeaders {@link Context#finalizeHeaders} or
+     *                        {@link Context#finalizeHeadersWithoutFlashAndSessionCookie}
+     * @throws IOException
+     */
+    public static void send(Result result,
+                            long length,
+                            List<Range> ranges,
+                            Source source,
+                            Function<Result, ResponseStreams> finalizeHeaders) throws IOException {
+        result.addHeader(HttpHeaders.ACCEPT_RANGES, BYTES);
+
+        if (ranges.isEmpty()) {
+            result.status(Result.SC_416_RANGE_NOT_SATISFIABLE);
+            result.addHeader(HttpHeaders.CONTENT_RANGE, BYTES + " */" + length);
+            result.addHeader(HttpHeaders.CONTENT_LENGTH, "0");
+            finalizeHeaders.apply(result);
+            return;
+        }
+
+        result.status(Result.SC_206_PARTIAL_CONTENT);
+
+        if (ranges.size() == 1) {
+            Range range = ranges.get(0);
+
+            result.addHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(length));
+            result.addHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(range.length()));
+
+            ResponseStreams responseStreams = finalizeHeaders.apply(result);
+
+            try (OutputStream outputStream = responseStreams.getOutputStream()) {
+                source.writeTo(outputStream, range.start, range.length());
+            }
+            return;
+        }
+
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        String contentType = result.getContentType();
+
+        // a charset only means something for text, mime types of assets may carry one already
+        if (contentType != null && contentType.startsWith("text/") && !contentType.contains("charset=")
+                && result.getCharset() != null) {
+            contentType = contentType + "; charset=" + result.getCharset();
+        }
+
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+
+        for (Range range : ranges) {
+            StringBuilder header = new StringBuilder(96)
+                    .append(CRLF).append("--").append(boundary).append(CRLF);
+
+            if (contentType != null) {
+                header.append(HttpHeaders.CONTENT_TYPE).append(": ").append(contentType).append(CRLF);
+            }
+
+            header.append(HttpHeaders.CONTENT_RANGE).append(": ").append(range.contentRange(length))
+                    .append(CRLF).append(CRLF);
+
+            byte[] bytes = header.toString().getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(bytes);
+            contentLength += bytes.length + range.length();
+        }
+
+        byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+
+        // as content type of the result it would get a charset appended after the boundary
+        result.contentType(null);
+        result.addHeader(HttpHeaders.CONTENT_TYPE, MULTIPART_BYTERANGES + boundary);
+        result.addHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength));
+
+        ResponseStreams responseStreams = finalizeHeaders.apply(result);
+
+        try (OutputStream outputStream = responseStreams.getOutputStream()) {
+            for (int i = 0; i < ranges.size(); i++) {
+                Range range = ranges.get(i);
+                outputStream.write(partHeaders.get(i));
+                source.writeTo(outputStream, range.start, range.length());
+            }
+            outputStream.write(end);
+        }
+    }
+
+    /**
+     * @return true if there is no If-Range or it matches the current etag / last modified
+     */
+    private static boolean ifRangeMatches(String ifRange, Result result, Long lastModified) {
+        if (ifRange == null) {
+            return true;
+        }
+
+        ifRange = ifRange.trim();
+
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // weak etags never match
+            return ifRange.equals(result.getHeaders().get(HttpHeaders.ETAG));
+        }
+
+        if (lastModified == null) {
+            return false;
+        }
+
+        try {
+            // http dates have a precision of seconds
+            return DateUtil.parseHttpDateFormat(ifRange).getTime() / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
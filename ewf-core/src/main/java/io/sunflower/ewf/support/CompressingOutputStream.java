@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.support;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip or deflate encoding on top of a pooled {@link Deflater}. java.util.zip.GZIPOutputStream
+ * always creates its own deflater, so the gzip member header and trailer are written here.
+ * <p>
+ * flush() does a sync flush so streamed responses reach the client while they are produced.
+ *
+ * @author michael
+ */
+class CompressingOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    private final OutputStream out;
+    private final DeflaterPool pool;
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final byte[] buffer = new byte[8192];
+
+    private boolean closed;
+
+    /**
+     * @param out  the raw response stream
+     * @param pool the pool to borrow the deflater from
+     * @param gzip true for gzip, false for deflate (zlib format)
+     */
+    CompressingOutputStream(OutputStream out, DeflaterPool pool, boolean gzip) throws IOException {
+        this.out = out;
+        this.pool = pool;
+        this.deflater = pool.borrow();
+        this.crc = gzip ? new CRC32() : null;
+
+        if (gzip) {
+            out.write(GZIP_HEADER);
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+
+        deflater.setInput(b, off, len);
+
+        while (!deflater.needsInput()) {
+            deflate(Deflater.NO_FLUSH);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        int written;
+
+        do {
+            written = deflate(Deflater.SYNC_FLUSH);
+        } while (written == buffer.length);
+
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            deflater.finish();
+
+            while (!deflater.finished()) {
+                deflate(Deflater.NO_FLUSH);
+            }
+
+            if (crc != null) {
+                writeInt((int) crc.getValue());
+                writeInt((int) deflater.getBytesRead());
+            }
+        } finally {
+            pool.release(deflater);
+            out.close();
+        }
+    }
+
+    private int deflate(int flush) throws IOException {
+        int written = deflater.deflate(buffer, 0, buffer.length, flush);
+
+        if (written > 0) {
+            out.write(buffer, 0, written);
+        }
+
+        return written;
+    }
+
+    /**
+     * little endian, as gzip wants it
+     */
+    private void writeInt(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
@@ -80,13 +80,31 @@ public interface Constants {
     String SESSION_TRANSFERRED_OVER_HTTPS_ONLY = "ewf.sessionTransferredOverHttpsOnly";
     String SESSION_HTTP_ONLY = "ewf.sessionHttpOnly";
     String COOKIE_ENCRYPTED = "ewf.cookieEncrypted";
+    String COOKIE_BINARY_ENCODING = "ewf.cookieBinaryEncoding";
+    String SESSION_AES_GCM = "ewf.sessionAesGcm";
+    String SESSION_STORE = "ewf.sessionStore";
+    String SESSION_STORE_MAX_ENTRIES = "ewf.sessionStoreMaxEntries";
+    String SESSION_STORE_DIR = "ewf.sessionStoreDir";
     String COOKIE_PREFIX = "ewf.cookiePrefix";
     String COOKIE_DOMAIN = "ewf.cookieDomain";
     String SUPPORTED_LANGS = "ewf.supported_langs";
     String SECRET = "ewf.secret";
+    String PREVIOUS_SECRETS = "ewf.previousSecrets";
     String CACHE_MAX_AGE = "ewf.cacheMaxAge";
     String TOKEN_EXPIRE_TIME = "ewf.tokenExpireTime";
     String SESSION_EXPIRE_TIME = "ewf.sessionExpireTime";
+    String JSON_AFTERBURNER_ENABLED = "ewf.jsonAfterburnerEnabled";
+    String STREAMING_FLUSH_BATCH = "ewf.streamingFlushBatch";
+    String CONTEXT_RECYCLING = "ewf.contextRecycling";
+    String ASYNC_TIMEOUT = "ewf.asyncTimeout";
+    String COMPRESSION_ENABLED = "ewf.compressionEnabled";
+    String COMPRESSION_MIN_SIZE = "ewf.compressionMinSize";
+    String COMPRESSION_MIME_TYPES = "ewf.compressionMimeTypes";
+    String COMPRESSION_LEVEL = "ewf.compressionLevel";
+    String ASSETS_CACHE_SIZE = "ewf.assetsCacheSize";
+    String ASSETS_CACHE_MAX_ENTRY_SIZE = "ewf.assetsCacheMaxEntrySize";
+    String ASSETS_FINGERPRINT = "ewf.assetsFingerprint";
+    String WEBJARS_VERSION_AGNOSTIC = "ewf.webJarsVersionAgnostic";
 
     /**
      * yea. utf-8
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.support;
+
+import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Renderable;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.Results;
+import io.sunflower.ewf.errors.InternalServerErrorException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Sends a file, or the byte ranges of it a client asks for.
+ * <p>
+ * The content type is probed from the file unless the result has one. A missing file is
+ * answered with 404.
+ *
+ * @author michael
+ */
+public class FileRenderable implements Renderable {
+
+    private final Path file;
+
+    public FileRenderable(Path file) {
+        this.file = file;
+    }
+
+    public FileRenderable(File file) {
+        this(file.toPath());
+    }
+
+    @Override
+    public void render(Context context, Result result) {
+        if (!Files.isRegularFile(file)) {
+            context.finalizeHeaders(Results.notFound());
+            return;
+        }
+
+        try {
+            long length = Files.size(file);
+            long lastModified = Files.getLastModifiedTime(file).toMillis();
+
+            if (result.getContentType() == null) {
+                String contentType = Files.probeContentType(file);
+                result.contentType(contentType == null ? Result.APPLICATION_OCTET_STREAM : contentType);
+            }
+
+            result.addHeader(HttpHeaders.LAST_MODIFIED, DateUtil.formatForHttpHeader(lastModified));
+
+            List<ByteRanges.Range> ranges = ByteRanges.requested(context, result, length, lastModified);
+
+            if (ranges != null) {
+                ByteRanges.send(result, length, ranges, ByteRanges.of(file), context::finalizeHeaders);
+                return;
+            }
+
+            result.addHeader(HttpHeaders.ACCEPT_RANGES, ByteRanges.BYTES);
+            result.addHeader(HttpHeaders.CONTENT_LENGTH, String.valueOf(length));
+
+            context.finalizeHeaders(result).transferFrom(file);
+        } catch (IOException ioException) {
+            throw new InternalServerErrorException(ioException);
+        }
+    }
+}
@@ -15,6 +15,7 @@
 
 package io.sunflower.ewf.support;
 
+import com.google.common.net.HttpHeaders;
 import com.google.inject.ImplementedBy;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Result;
@@ -46,4 +47,34 @@ public interface HttpCacheToolkit {
      */
     void addEtag(Context context, Result result, Long lastModified);
 
+    /**
+     * Adds etag to result for one representation of a resource, e.g. its gzip encoded variant.
+     * Each variant needs its own etag, otherwise a cache revalidating the gzip variant could be
+     * told that the identity one is still fresh.
+     *
+     * @param context      The context
+     * @param result       The result to populate with etag
+     * @param lastModified Last modified => In that case used to generate etag.
+     * @param variant      Distinguishes the representation, e.g. the content coding. null for
+     *                     the plain resource.
+     */
+    default void addEtag(Context context, Result result, Long lastModified, String variant) {
+        // toolkits written before variants existed can't tell them apart
+        addEtag(context, result, lastModified);
+    }
+
+    /**
+     * Like {@link #addEtag(Context, Result, Long, String)}, for a resource whose url changes with
+     * its content (a fingerprinted asset). Browsers may keep it for a year without asking again.
+     *
+     * @param context      The context
+     * @param result       The result to populate with etag
+     * @param lastModified Last modified => In that case used to generate etag.
+     * @param variant      Distinguishes the representation, null for the plain resource.
+     */
+    default void addImmutable(Context context, Result result, Long lastModified, String variant) {
+        addEtag(context, result, lastModified, variant);
+        result.addHeader(HttpHeaders.CACHE_CONTROL, Result.CACHE_CONTROL_IMMUTABLE_VALUE);
+    }
+
 }
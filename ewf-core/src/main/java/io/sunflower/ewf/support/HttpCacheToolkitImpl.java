@@ -75,6 +75,11 @@ public class HttpCacheToolkitImpl implements HttpCacheToolkit {
 
     @Override
     public void addEtag(Context context, Result result, Long lastModified) {
+        addEtag(context, result, lastModified, null);
+    }
+
+    @Override
+    public void addEtag(Context context, Result result, Long lastModified, String variant) {
 
         if (!settings.isProd()) {
             result.addHeader(CACHE_CONTROL, "no-cache");
@@ -88,6 +93,17 @@ public class HttpCacheToolkitImpl implements HttpCacheToolkit {
             }
         }
 
+        addValidators(context, result, lastModified, variant);
+    }
+
+    @Override
+    public void addImmutable(Context context, Result result, Long lastModified, String variant) {
+        result.addHeader(CACHE_CONTROL, Result.CACHE_CONTROL_IMMUTABLE_VALUE);
+
+        addValidators(context, result, lastModified, variant);
+    }
+
+    private void addValidators(Context context, Result result, Long lastModified, String variant) {
         // Use etag on demand:
         String etag = null;
 
@@ -95,7 +111,9 @@ public class HttpCacheToolkitImpl implements HttpCacheToolkit {
             // ETag right now is only lastModified long.
             // maybe we change that in the future.
             etag = "\""
-                    + lastModified.toString() + "\"";
+                    + lastModified.toString()
+                    + (variant == null ? "" : "-" + variant)
+                    + "\"";
             result.addHeader(ETAG, etag);
 
         }
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.support;
+
+import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.internal.Route;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * gzip / deflate compression of responses, negotiated with the Accept-Encoding header of the
+ * request.
+ * <p>
+ * Only responses with a content type from {@link Settings#getCompressionMimeTypes()} are
+ * compressed, and only if the route does not opt out. Bodies below
+ * {@link Settings#getCompressionMinSize()} are sent as they are: if the length is not declared
+ * up front the first bytes are held back until it is clear on which side of the threshold the
+ * body ends up.
+ * <p>
+ * The context implementations call {@link #isCompressible(Context, Result)} and
+ * {@link #selectEncoding(Context, Result)} while writing the headers, and {@link #wrap} on the
+ * output stream they hand out.
+ *
+ * @author michael
+ */
+@Singleton
+public class ResponseCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    /**
+     * Undertow defaults to 8 worker threads per core, keep as many deflaters idle
+     */
+    private static final int POOL_CAPACITY = Runtime.getRuntime().availableProcessors() * 8;
+
+    private final boolean enabled;
+    private final int minSize;
+    private final Set<String> mimeTypes;
+
+    private final DeflaterPool gzipDeflaters;
+    private final DeflaterPool deflateDeflaters;
+
+    @Inject
+    public ResponseCompression(Settings settings) {
+        this.enabled = settings.isCompressionEnabled();
+        this.minSize = settings.getCompressionMinSize();
+        this.mimeTypes = new HashSet<>();
+
+        for (String mimeType : settings.getCompressionMimeTypes()) {
+            mimeTypes.add(mimeType.toLowerCase(Locale.ENGLISH));
+        }
+
+        this.gzipDeflaters = new DeflaterPool(settings.getCompressionLevel(), true, POOL_CAPACITY);
+        this.deflateDeflaters = new DeflaterPool(settings.getCompressionLevel(), false, POOL_CAPACITY);
+    }
+
+    /**
+     * A compressible response depends on the Accept-Encoding of the request, whether it ends up
+     * compressed or not, and has to be sent with "Vary: Accept-Encoding".
+     *
+     * @return true if the response may be compressed
+     */
+    public boolean isCompressible(Context context, Result result) {
+        if (!enabled) {
+            return false;
+        }
+
+        int status = result.getStatusCode();
+
+        // ranges are of the identity representation
+        if (status < 200 || status == Result.SC_204_NO_CONTENT || status == Result.SC_206_PARTIAL_CONTENT
+                || status == Result.SC_304_NOT_MODIFIED) {
+            return false;
+        }
+
+        if (Route.HTTP_METHOD_HEAD.equalsIgnoreCase(context.getMethod())) {
+            return false;
+        }
+
+        Route route = context.getRoute();
+
+        if (route != null && !route.isCompressible()) {
+            return false;
+        }
+
+        // already encoded, e.g. precompressed assets
+        if (result.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return false;
+        }
+
+        return isCompressibleMimeType(result.getContentType());
+    }
+
+    /**
+     * @return the content coding for a compressible response, null to send it as it is
+     */
+    public String selectEncoding(Context context, Result result) {
+        String contentLength = result.getHeaders().get(HttpHeaders.CONTENT_LENGTH);
+
+        if (contentLength != null) {
+            try {
+                if (Long.parseLong(contentLength.trim()) < minSize) {
+                    return null;
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return negotiate(context.getAcceptEncoding());
+    }
+
+    /**
+     * @param out             the raw response stream
+     * @param contentEncoding the content coding from {@link #selectEncoding(Context, Result)}
+     * @param lengthKnown     true if the body length was declared and already checked against the
+     *                        minimum size
+     * @param onCompress      sets the Content-Encoding header, called before the first compressed
+     *                        byte is written
+     * @return the stream to write the body to
+     */
+    public OutputStream wrap(OutputStream out,
+                             String contentEncoding,
+                             boolean lengthKnown,
+                             Runnable onCompress) throws IOException {
+        if (lengthKnown) {
+            onCompress.run();
+            return compress(out, contentEncoding);
+        }
+
+        return new ThresholdOutputStream(out, contentEncoding, onCompress);
+    }
+
+    /**
+     * Picks gzip or deflate by the quality values of the Accept-Encoding header, gzip wins a tie.
+     *
+     * @param acceptEncoding the Accept-Encoding header, may be null
+     * @return {@link #GZIP}, {@link #DEFLATE} or null if the client accepts neither
+     */
+    public static String negotiate(String acceptEncoding) {
+        double gzip = acceptQuality(acceptEncoding, GZIP);
+        double deflate = acceptQuality(acceptEncoding, DEFLATE);
+
+        if (gzip > 0 && gzip >= deflate) {
+            return GZIP;
+        }
+
+        if (deflate > 0) {
+            return DEFLATE;
+        }
+
+        return null;
+    }
+
+    /**
+     * @param acceptEncoding the Accept-Encoding header, may be null
+     * @param coding         a content coding like "gzip" or "br"
+     * @return the quality the client gives the coding, "*" applies if it is not listed. 0 if
+     * explicitly refused, -1 if not acceptable at all
+     */
+    public static double acceptQuality(String acceptEncoding, String coding) {
+        if (acceptEncoding == null || acceptEncoding.isEmpty()) {
+            return -1;
+        }
+
+        double listed = -1;
+        double any = -1;
+
+        for (String part : acceptEncoding.split(",")) {
+            int semicolon = part.indexOf(';');
+            String name = (semicolon == -1 ? part : part.substring(0, semicolon)).trim();
+
+            if (name.equalsIgnoreCase(coding) || (GZIP.equals(coding) && name.equalsIgnoreCase("x-gzip"))) {
+                listed = semicolon == -1 ? 1 : quality(part.substring(semicolon + 1));
+            } else if ("*".equals(name)) {
+                any = semicolon == -1 ? 1 : quality(part.substring(semicolon + 1));
+            }
+        }
+
+        return listed >= 0 ? listed : any;
+    }
+
+    /**
+     * @return true if the result already declares that it varies on Accept-Encoding
+     */
+    public static boolean variesOnAcceptEncoding(Result result) {
+        String vary = result.getHeaders().get(HttpHeaders.VARY);
+        return vary != null && vary.toLowerCase(Locale.ENGLISH).contains("accept-encoding");
+    }
+
+    private static double quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            String trimmed = parameter.trim();
+
+            if (trimmed.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    private boolean isCompressibleMimeType(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+
+        int semicolon = contentType.indexOf(';');
+        String mimeType = (semicolon == -1 ? contentType : contentType.substring(0, semicolon))
+                .trim()
+                .toLowerCase(Locale.ENGLISH);
+
+        if (mimeTypes.contains(mimeType)) {
+            return true;
+        }
+
+        int slash = mimeType.indexOf('/');
+
+        return slash != -1 && mimeTypes.contains(mimeType.substring(0, slash) + "/*");
+    }
+
+    private OutputStream compress(OutputStream out, String contentEncoding) throws IOException {
+        if (GZIP.equals(contentEncoding)) {
+            return new CompressingOutputStream(out, gzipDeflaters, true);
+        }
+
+        return new CompressingOutputStream(out, deflateDeflaters, false);
+    }
+
+    /**
+     * Holds back the first minSize bytes. Once more arrive the response is compressed, if the body
+     * ends (or is flushed) before it goes out as it is.
+     */
+    private class ThresholdOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final String contentEncoding;
+        private final Runnable onCompress;
+
+        private OutputStream target;
+        private byte[] buffer;
+        private int count;
+
+        ThresholdOutputStream(OutputStream out, String contentEncoding, Runnable onCompress) {
+            this.out = out;
+            this.contentEncoding = contentEncoding;
+            this.onCompress = onCompress;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target != null) {
+                target.write(b, off, len);
+                return;
+            }
+
+            if (count + len < minSize) {
+                if (buffer == null) {
+                    buffer = new byte[minSize];
+                }
+
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                return;
+            }
+
+            onCompress.run();
+            target = compress(out, contentEncoding);
+            writeBuffered();
+            target.write(b, off, len);
+        }
+
+        /**
+         * A flush below the threshold sends the body uncompressed - after the whole of a small
+         * document (jackson flushes after writing a value) as well as for streams that flush less
+         * than minSize at a time.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (target == null) {
+                target = out;
+                writeBuffered();
+            }
+
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (target == null) {
+                target = out;
+                writeBuffered();
+            }
+
+            target.close();
+        }
+
+        private void writeBuffered() throws IOException {
+            if (count > 0) {
+                target.write(buffer, 0, count);
+            }
+
+            buffer = null;
+            count = 0;
+        }
+    }
+}
@@ -18,6 +18,8 @@ package io.sunflower.ewf.support;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Make sure to only write to either the OutputStream OR the Writer...
@@ -46,4 +48,29 @@ public interface ResponseStreams {
      */
     Writer getWriter() throws IOException;
 
+    /**
+     * Sends the whole file as the body and closes the response.
+     * <p>
+     * Containers override this to hand the file channel to the connection (sendfile) instead of
+     * copying it through the output stream. Must not be combined with getOutputStream or
+     * getWriter.
+     *
+     * @param file the file to send
+     * @throws IOException
+     */
+    default void transferFrom(Path file) throws IOException {
+        try (OutputStream outputStream = getOutputStream()) {
+            Files.copy(file, outputStream);
+        }
+    }
+
+    /**
+     * Ends a response that failed after its headers went out, instead of closing the streams. A
+     * cleanly terminated body would look like a complete response to the client.
+     * <p>
+     * Containers override this to drop the connection, by default the response is ended as usual.
+     */
+    default void abort() {
+    }
+
 }
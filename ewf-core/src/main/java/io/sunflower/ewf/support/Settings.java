@@ -22,6 +22,7 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.inject.Singleton;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,16 +39,23 @@ public class Settings {
 
     private String applicationSecret = SecretGenerator.generateSecret();
 
+    private List<String> previousApplicationSecrets = Collections.emptyList();
+
     private List<String> applicationLangs = Arrays.asList("zh", "en");
 
     private String cookieDomain = "sunflower.io";
     private String cookiePrefix = "ewf_";
     private boolean cookieEncrypted = false;
+    private boolean cookieBinaryEncoding = false;
+    private boolean sessionAesGcm = false;
 
     private Duration sessionExpireTime = Duration.hours(1);
     private boolean sessionSendOnlyIfChanged = true;
     private boolean sessionTransferredOverHttpsOnly = false;
     private boolean sessionHttpOnly = true;
+    private String sessionStore = "cookie";
+    private int sessionStoreMaxEntries = 100000;
+    private String sessionStoreDir;
 
     private Duration tokenExpireTime = Duration.days(7);
 
@@ -61,6 +69,21 @@ public class Settings {
     private String jsonpCallbackParam = "jsonpCallback";
     private boolean diagnosticsEnabled = false;
     private boolean usageOfXForwardedHeaderEnabled = true;
+    private boolean jsonAfterburnerEnabled = false;
+    private int streamingFlushBatch = 100;
+    private boolean contextRecycling = false;
+    private Duration asyncTimeout = Duration.seconds(30);
+    private boolean compressionEnabled = false;
+    private int compressionMinSize = 1024;
+    private List<String> compressionMimeTypes = Arrays.asList(
+            "text/html", "text/plain", "text/css", "text/xml", "text/javascript",
+            "application/json", "application/javascript", "application/xml",
+            "application/x-ndjson", "image/svg+xml");
+    private int compressionLevel = 6;
+    private long assetsCacheSize = 32L * 1024 * 1024;
+    private long assetsCacheMaxEntrySize = 256L * 1024;
+    private boolean assetsFingerprint = false;
+    private boolean webJarsVersionAgnostic = false;
 
     private Mode mode = Mode.dev;
 
@@ -139,6 +162,26 @@ public class Settings {
             this.cookieEncrypted = Boolean.parseBoolean(rawSettings.get(Constants.SESSION_HTTP_ONLY));
         }
 
+        if (rawSettings.containsKey(Constants.COOKIE_BINARY_ENCODING)) {
+            this.cookieBinaryEncoding = Boolean.parseBoolean(rawSettings.get(Constants.COOKIE_BINARY_ENCODING));
+        }
+
+        if (rawSettings.containsKey(Constants.SESSION_AES_GCM)) {
+            this.sessionAesGcm = Boolean.parseBoolean(rawSettings.get(Constants.SESSION_AES_GCM));
+        }
+
+        if (rawSettings.containsKey(Constants.SESSION_STORE)) {
+            this.sessionStore = rawSettings.get(Constants.SESSION_STORE);
+        }
+
+        if (rawSettings.containsKey(Constants.SESSION_STORE_MAX_ENTRIES)) {
+            this.sessionStoreMaxEntries = Integer.parseInt(rawSettings.get(Constants.SESSION_STORE_MAX_ENTRIES));
+        }
+
+        if (rawSettings.containsKey(Constants.SESSION_STORE_DIR)) {
+            this.sessionStoreDir = rawSettings.get(Constants.SESSION_STORE_DIR);
+        }
+
         if (rawSettings.containsKey(Constants.COOKIE_PREFIX)) {
             this.cookiePrefix = rawSettings.get(Constants.COOKIE_PREFIX);
         }
@@ -158,6 +201,13 @@ public class Settings {
             this.applicationSecret = rawSettings.get(Constants.SECRET);
         }
 
+        if (rawSettings.containsKey(Constants.PREVIOUS_SECRETS)) {
+            this.previousApplicationSecrets = Splitter.on(",")
+                    .omitEmptyStrings()
+                    .trimResults()
+                    .splitToList(rawSettings.get(Constants.PREVIOUS_SECRETS));
+        }
+
         if (rawSettings.containsKey(Constants.CACHE_MAX_AGE)) {
             this.httpCacheMaxAge = rawSettings.get(Constants.CACHE_MAX_AGE);
         }
@@ -170,6 +220,57 @@ public class Settings {
             this.sessionExpireTime = Duration.parse(rawSettings.get(Constants.SESSION_EXPIRE_TIME));
         }
 
+        if (rawSettings.containsKey(Constants.JSON_AFTERBURNER_ENABLED)) {
+            this.jsonAfterburnerEnabled = Boolean.parseBoolean(rawSettings.get(Constants.JSON_AFTERBURNER_ENABLED));
+        }
+
+        if (rawSettings.containsKey(Constants.STREAMING_FLUSH_BATCH)) {
+            this.streamingFlushBatch = Integer.parseInt(rawSettings.get(Constants.STREAMING_FLUSH_BATCH));
+        }
+
+        if (rawSettings.containsKey(Constants.CONTEXT_RECYCLING)) {
+            this.contextRecycling = Boolean.parseBoolean(rawSettings.get(Constants.CONTEXT_RECYCLING));
+        }
+
+        if (rawSettings.containsKey(Constants.ASYNC_TIMEOUT)) {
+            this.asyncTimeout = Duration.parse(rawSettings.get(Constants.ASYNC_TIMEOUT));
+        }
+
+        if (rawSettings.containsKey(Constants.COMPRESSION_ENABLED)) {
+            this.compressionEnabled = Boolean.parseBoolean(rawSettings.get(Constants.COMPRESSION_ENABLED));
+        }
+
+        if (rawSettings.containsKey(Constants.COMPRESSION_MIN_SIZE)) {
+            this.compressionMinSize = Integer.parseInt(rawSettings.get(Constants.COMPRESSION_MIN_SIZE));
+        }
+
+        if (rawSettings.containsKey(Constants.COMPRESSION_MIME_TYPES)) {
+            this.compressionMimeTypes = Splitter.on(",")
+                    .omitEmptyStrings()
+                    .trimResults()
+                    .splitToList(rawSettings.get(Constants.COMPRESSION_MIME_TYPES));
+        }
+
+        if (rawSettings.containsKey(Constants.COMPRESSION_LEVEL)) {
+            this.compressionLevel = Integer.parseInt(rawSettings.get(Constants.COMPRESSION_LEVEL));
+        }
+
+        if (rawSettings.containsKey(Constants.ASSETS_CACHE_SIZE)) {
+            this.assetsCacheSize = Long.parseLong(rawSettings.get(Constants.ASSETS_CACHE_SIZE));
+        }
+
+        if (rawSettings.containsKey(Constants.ASSETS_CACHE_MAX_ENTRY_SIZE)) {
+            this.assetsCacheMaxEntrySize = Long.parseLong(rawSettings.get(Constants.ASSETS_CACHE_MAX_ENTRY_SIZE));
+        }
+
+        if (rawSettings.containsKey(Constants.ASSETS_FINGERPRINT)) {
+            this.assetsFingerprint = Boolean.parseBoolean(rawSettings.get(Constants.ASSETS_FINGERPRINT));
+        }
+
+        if (rawSettings.containsKey(Constants.WEBJARS_VERSION_AGNOSTIC)) {
+            this.webJarsVersionAgnostic = Boolean.parseBoolean(rawSettings.get(Constants.WEBJARS_VERSION_AGNOSTIC));
+        }
+
         for (Map.Entry<String, String> e : rawSettings.entrySet()) {
             String key = e.getKey();
             String v = e.getValue();
@@ -201,6 +302,23 @@ public class Settings {
         return cookieEncrypted;
     }
 
+    /**
+     * @return true if session and flash data are written in the compact binary format, false (the
+     * default) for the url encoded one. Both are read, turn this on once every node can read the
+     * binary format.
+     */
+    public boolean isCookieBinaryEncoding() {
+        return cookieBinaryEncoding;
+    }
+
+    /**
+     * @return true if the session cookie is written encrypted and authenticated with AES-GCM
+     * instead of AES plus HMAC. Cookies in either format are read.
+     */
+    public boolean isSessionAesGcm() {
+        return sessionAesGcm;
+    }
+
     public String getHttpCacheMaxAge() {
         return httpCacheMaxAge;
     }
@@ -209,6 +327,14 @@ public class Settings {
         return applicationSecret;
     }
 
+    /**
+     * @return secrets that were replaced by {@link #getApplicationSecret()}, newest first. Cookies
+     * signed with them are still accepted, new ones are signed with the current secret.
+     */
+    public List<String> getPreviousApplicationSecrets() {
+        return previousApplicationSecrets;
+    }
+
     public Duration getSessionExpireTime() {
         return sessionExpireTime;
     }
@@ -225,6 +351,37 @@ public class Settings {
         return sessionHttpOnly;
     }
 
+    /**
+     * @return where session data is kept: "cookie" (the default) keeps all of it in the cookie,
+     * "memory" and "file" keep it on the server and the cookie only carries a signed id. Any other
+     * value uses the {@link io.sunflower.ewf.session.SessionStore} bound by the application.
+     */
+    public String getSessionStore() {
+        return sessionStore;
+    }
+
+    /**
+     * @return true if session data is kept in a {@link io.sunflower.ewf.session.SessionStore}
+     */
+    public boolean isSessionStoreEnabled() {
+        return !"cookie".equals(sessionStore);
+    }
+
+    /**
+     * @return the maximum number of sessions the in-memory store keeps, the least recently used
+     * ones are dropped beyond that
+     */
+    public int getSessionStoreMaxEntries() {
+        return sessionStoreMaxEntries;
+    }
+
+    /**
+     * @return the directory of the file store, null for "ewf-sessions" in the temp directory
+     */
+    public String getSessionStoreDir() {
+        return sessionStoreDir;
+    }
+
     public boolean isEtagEnable() {
         return etagEnable;
     }
@@ -257,6 +414,90 @@ public class Settings {
         return usageOfXForwardedHeaderEnabled;
     }
 
+    public boolean isJsonAfterburnerEnabled() {
+        return jsonAfterburnerEnabled;
+    }
+
+    /**
+     * @return number of items written between two flushes when streaming a result
+     */
+    public int getStreamingFlushBatch() {
+        return streamingFlushBatch;
+    }
+
+    /**
+     * @return true if the request context, validation, flash scope and session of a request are
+     * reset and reused by the next request of the same worker thread. Only safe if the
+     * application does not keep references to them beyond the request.
+     */
+    public boolean isContextRecycling() {
+        return contextRecycling;
+    }
+
+    /**
+     * @return how long an asynchronous result may take before the request fails with a
+     * {@link java.util.concurrent.TimeoutException}, zero to wait forever
+     */
+    public Duration getAsyncTimeout() {
+        return asyncTimeout;
+    }
+
+    /**
+     * @return true if responses are gzip / deflate compressed for clients accepting it
+     */
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    /**
+     * @return responses smaller than this many bytes are not compressed
+     */
+    public int getCompressionMinSize() {
+        return compressionMinSize;
+    }
+
+    /**
+     * @return content types eligible for compression, "type/*" matches all subtypes
+     */
+    public List<String> getCompressionMimeTypes() {
+        return compressionMimeTypes;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * @return bytes of asset content kept in memory, all assets together
+     */
+    public long getAssetsCacheSize() {
+        return assetsCacheSize;
+    }
+
+    /**
+     * @return assets larger than this are never held in memory but streamed (or sent from the
+     * file system directly)
+     */
+    public long getAssetsCacheMaxEntrySize() {
+        return assetsCacheMaxEntrySize;
+    }
+
+    /**
+     * @return true if assetsAt links to content hashed file names (app.3f9a1c0d2e4b.js) that are
+     * cached by browsers for a year without revalidation
+     */
+    public boolean isAssetsFingerprintEnabled() {
+        return assetsFingerprint;
+    }
+
+    /**
+     * @return true if webjar resources can be addressed without their version
+     * (/assets/webjars/jquery/jquery.min.js) when only one version is on the classpath
+     */
+    public boolean isWebJarsVersionAgnostic() {
+        return webJarsVersionAgnostic;
+    }
+
     public boolean isProd() {
         return Mode.prod == this.mode;
     }
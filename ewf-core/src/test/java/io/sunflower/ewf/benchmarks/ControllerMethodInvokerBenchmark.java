@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.benchmarks;
+
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.Results;
+import io.sunflower.ewf.params.ArgumentExtractor;
+import io.sunflower.ewf.params.internal.ArgumentExtractors;
+import io.sunflower.ewf.params.internal.ControllerMethodInvoker;
+import io.sunflower.ewf.spi.support.WrappedContext;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated direct controller call with plain Method.invoke.
+ * <p>
+ * Run with main() from the test classpath.
+ *
+ * @author michael
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ControllerMethodInvokerBenchmark {
+
+    private Controller controller;
+    private Context context;
+
+    private Method method;
+    private ArgumentExtractor<?> extractor;
+
+    private ControllerMethodInvoker invoker;
+
+    @Setup
+    public void setup() throws Exception {
+        controller = new Controller();
+        context = new WrappedContext(null);
+
+        method = Controller.class.getMethod("index", Context.class);
+        extractor = new ArgumentExtractors.ContextExtractor();
+
+        invoker = ControllerMethodInvoker.build(method, method, null);
+    }
+
+    /**
+     * what ControllerMethodInvoker did before direct calls
+     */
+    @Benchmark
+    public Object reflection() throws Exception {
+        Object[] arguments = new Object[]{extractor.extract(context)};
+        return method.invoke(controller, arguments);
+    }
+
+    @Benchmark
+    public Object directCall() {
+        return invoker.invoke(controller, context);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ControllerMethodInvokerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    public static class Controller {
+
+        private final Result result = Results.ok();
+
+        public Result index(Context context) {
+            return result;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sunflower.ewf.spi.support.JacksonCodecs;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the json engines did per request before (mapper lookups) compared to the cached
+ * readers / writers of {@link JacksonCodecs}.
+ * <p>
+ * Run with main() from the test classpath.
+ *
+ * @author michael
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JacksonCodecsBenchmark {
+
+    private ObjectMapper objectMapper;
+    private JacksonCodecs jacksonCodecs;
+
+    private Payload payload;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper();
+        jacksonCodecs = new JacksonCodecs(objectMapper);
+
+        payload = new Payload();
+        payload.id = 42;
+        payload.name = "sunflower";
+        payload.secret = "not in the public view";
+
+        json = objectMapper.writeValueAsString(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object readMapper() throws IOException {
+        return objectMapper.readValue(json, Payload.class);
+    }
+
+    @Benchmark
+    public Object readCached() throws IOException {
+        return jacksonCodecs.readerFor(Payload.class).readValue(json);
+    }
+
+    @Benchmark
+    public Object writeViewMapper() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(128);
+        objectMapper.writerWithView(Public.class).writeValue(outputStream, payload);
+        return outputStream;
+    }
+
+    @Benchmark
+    public Object writeViewCached() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(128);
+        jacksonCodecs.writerFor(Payload.class, Public.class).writeValue(outputStream, payload);
+        return outputStream;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JacksonCodecsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    public static class Public {
+    }
+
+    public static class Payload {
+
+        @JsonView(Public.class)
+        public long id;
+
+        @JsonView(Public.class)
+        public String name;
+
+        public String secret;
+    }
+}
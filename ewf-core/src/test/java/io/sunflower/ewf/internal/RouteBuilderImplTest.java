@@ -16,8 +16,10 @@
 package io.sunflower.ewf.internal;
 
 import com.google.common.collect.Lists;
+import com.google.inject.Guice;
 import com.google.inject.Injector;
 import com.google.inject.Provider;
+import com.google.inject.Singleton;
 import io.sunflower.ewf.*;
 import io.sunflower.ewf.internal.Route;
 import io.sunflower.ewf.internal.RouteBuilderImpl;
@@ -32,6 +34,8 @@ import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.startsWith;
@@ -353,6 +357,79 @@ public class RouteBuilderImplTest {
         }
     }
 
+    @Test
+    public void singletonControllersAreResolvedOnceWhenBuildingTheRoute() {
+        Injector guice = Guice.createInjector();
+
+        routeBuilder.GET().route("/singleton").with(SingletonController.class, "self");
+        Route singletonRoute = routeBuilder.buildRoute(guice);
+
+        RouteBuilderImpl unscopedBuilder = new RouteBuilderImpl();
+        unscopedBuilder.GET().route("/unscoped").with(UnscopedController.class, "self");
+        Route unscopedRoute = unscopedBuilder.buildRoute(guice);
+
+        assertSame(singletonRoute.getFilterChain().next(null).getRenderable(),
+                singletonRoute.getFilterChain().next(null).getRenderable());
+        assertNotSame(unscopedRoute.getFilterChain().next(null).getRenderable(),
+                unscopedRoute.getFilterChain().next(null).getRenderable());
+    }
+
+    @Test
+    public void controllersMayReturnCompletionStages() {
+        routeBuilder.GET().route("/async").with(AsyncController.class, "later");
+        Result result = routeBuilder.buildRoute(Guice.createInjector()).getFilterChain().next(null);
+
+        assertTrue(result instanceof AsyncResult);
+        assertThat(((AsyncResult) result).getCompletion().toCompletableFuture().getNow(null).getStatusCode(),
+                is(Result.SC_200_OK));
+    }
+
+    @Test
+    public void routesAreNonBlockingByOptionOrAnnotation() {
+        Injector guice = Guice.createInjector();
+
+        routeBuilder.GET().route("/blocking").with(UnscopedController.class, "self");
+        assertFalse(routeBuilder.buildRoute(guice).isNonBlocking());
+
+        RouteBuilderImpl optionBuilder = new RouteBuilderImpl();
+        optionBuilder.GET().route("/option").nonBlocking().with(UnscopedController.class, "self");
+        assertTrue(optionBuilder.buildRoute(guice).isNonBlocking());
+
+        RouteBuilderImpl annotationBuilder = new RouteBuilderImpl();
+        annotationBuilder.GET().route("/health").with(HealthController.class, "health");
+        assertTrue(annotationBuilder.buildRoute(guice).isNonBlocking());
+    }
+
+    public static class HealthController {
+
+        @NonBlocking
+        public Result health() {
+            return Results.ok();
+        }
+    }
+
+    public static class AsyncController {
+
+        public CompletionStage<Result> later() {
+            return CompletableFuture.completedFuture(Results.ok());
+        }
+    }
+
+    @Singleton
+    public static class SingletonController {
+
+        public Result self() {
+            return Results.ok().render(this);
+        }
+    }
+
+    public static class UnscopedController {
+
+        public Result self() {
+            return Results.ok().render(this);
+        }
+    }
+
     private Route buildRoute(RouteBuilderImpl builder) {
         builder.with(MockController.class, "execute");
         return builder.buildRoute(injector);
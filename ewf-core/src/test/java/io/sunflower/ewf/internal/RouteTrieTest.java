@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RouteTrieTest {
+
+    @Test
+    public void staticAndParameterSegments() {
+        RouteTrie trie = trie(
+                route("GET", "/"),
+                route("GET", "/users"),
+                route("GET", "/users/{id}"),
+                route("GET", "/users/{id}/posts/{postId}"),
+                route("POST", "/users"));
+
+        assertThat(lookup(trie, "GET", "/").getUri(), is("/"));
+        assertThat(lookup(trie, "GET", "/users").getUri(), is("/users"));
+        assertThat(lookup(trie, "get", "/users").getUri(), is("/users"));
+        assertThat(lookup(trie, "GET", "/users/42").getUri(), is("/users/{id}"));
+        assertThat(lookup(trie, "GET", "/users/42/posts/7").getUri(), is("/users/{id}/posts/{postId}"));
+        assertThat(lookup(trie, "POST", "/users").getHttpMethod(), is("POST"));
+
+        assertThat(lookup(trie, "GET", "/users/42/posts"), nullValue());
+        assertThat(lookup(trie, "GET", "/users/").getUri(), is("/users/{id}"));
+        assertThat(lookup(trie, "DELETE", "/users"), nullValue());
+        assertThat(lookup(trie, "GET", "/unknown"), nullValue());
+    }
+
+    @Test
+    public void firstRegisteredRouteWins() {
+        RouteTrie trie = trie(
+                route("GET", "/users/{id}"),
+                route("GET", "/users/me"),
+                route("GET", "/files/.*"),
+                route("GET", "/files/readme"),
+                route("GET", "/assets/readme"),
+                route("GET", "/assets/{file: .*}"));
+
+        assertThat(lookup(trie, "GET", "/users/me").getUri(), is("/users/{id}"));
+        assertThat(lookup(trie, "GET", "/files/readme").getUri(), is("/files/.*"));
+        assertThat(lookup(trie, "GET", "/assets/readme").getUri(), is("/assets/readme"));
+        assertThat(lookup(trie, "GET", "/assets/css/app.css").getUri(), is("/assets/{file: .*}"));
+    }
+
+    @Test
+    public void regexSegmentsFallBackToRouteRegex() {
+        RouteTrie trie = trie(
+                route("GET", "/me/{id: \\d+}"),
+                route("GET", "/u{userId: .*}/entries/{entryId: .*}"),
+                route("GET", "(/users)?/{user}"),
+                route("GET", "/app.css"),
+                route("GET", "/.*"));
+
+        assertThat(lookup(trie, "GET", "/me/12").getUri(), is("/me/{id: \\d+}"));
+        assertThat(lookup(trie, "GET", "/me/abc").getUri(), is("/.*"));
+        assertThat(lookup(trie, "GET", "/u1/entries/2").getUri(), is("/u{userId: .*}/entries/{entryId: .*}"));
+        assertThat(lookup(trie, "GET", "/users/mike").getUri(), is("(/users)?/{user}"));
+        assertThat(lookup(trie, "GET", "/mike").getUri(), is("(/users)?/{user}"));
+        assertThat(lookup(trie, "GET", "/app.css").getUri(), is("(/users)?/{user}"));
+        assertThat(lookup(trie, "GET", "/a/b/c").getUri(), is("/.*"));
+    }
+
+    @Test
+    public void pathParametersAreExtractedWhileMatching() {
+        RouteTrie trie = trie(
+                route("GET", "/users/{id}/posts/{postId}"),
+                route("GET", "/files/{owner}/{path: .*}"));
+
+        RouteMatch match = trie.match("GET", "/users/john%40doe/posts/7");
+        assertThat(match.getPathParameterEncoded("id"), is("john%40doe"));
+        assertThat(match.getPathParameter("id"), is("john@doe"));
+        assertThat(match.getPathParameter("postId"), is("7"));
+        assertThat(match.getPathParameter("unknown"), nullValue());
+
+        match = trie.match("GET", "/files/john/a%2Fb/c.txt");
+        assertThat(match.getPathParameter("owner"), is("john"));
+        assertThat(match.getPathParameterEncoded("path"), is("a%2Fb/c.txt"));
+        assertThat(match.getPathParameter("path"), is("a/b/c.txt"));
+    }
+
+    private Route lookup(RouteTrie trie, String httpMethod, String uri) {
+        RouteMatch match = trie.match(httpMethod, uri);
+        return match == null ? null : match.getRoute();
+    }
+
+    private RouteTrie trie(Route... routes) {
+        List<Route> list = Lists.newArrayList(routes);
+        return new RouteTrie(list);
+    }
+
+    private Route route(String httpMethod, String uri) {
+        return new Route(httpMethod, uri, false, null, null);
+    }
+}
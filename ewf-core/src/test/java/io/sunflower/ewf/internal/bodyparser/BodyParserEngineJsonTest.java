@@ -33,9 +33,11 @@ import java.io.InputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Iterator;
 import java.util.TimeZone;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -235,6 +237,38 @@ public class BodyParserEngineJsonTest {
         assertTrue(testForm.lastSeen == null);
     }
 
+    @Test
+    public void testJsonArrayIsParsedItemByItem() throws IOException {
+        final String jsonDocument = "[{\"firstName\":\"John\"}, {\"firstName\":\"Jane\"}]";
+        final InputStream is = new ByteArrayInputStream(jsonDocument.getBytes());
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineJson(new ObjectMapper());
+
+        Mockito.when(context.getInputStream()).thenReturn(is);
+
+        Iterator<SimpleTestForm> items = bodyParserEngineJson.iterate(context, SimpleTestForm.class);
+
+        assertTrue(items.hasNext());
+        assertThat(items.next().firstName, equalTo("John"));
+        assertTrue(items.hasNext());
+        assertThat(items.next().firstName, equalTo("Jane"));
+        assertFalse(items.hasNext());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testBrokenJsonArrayItemIsBadRequest() throws IOException {
+        final String jsonDocument = "[{\"firstName\":\"John\"}, {\"firstName\":";
+        final InputStream is = new ByteArrayInputStream(jsonDocument.getBytes());
+        final BodyParserEngineJson bodyParserEngineJson = new BodyParserEngineJson(new ObjectMapper());
+
+        Mockito.when(context.getInputStream()).thenReturn(is);
+
+        Iterator<SimpleTestForm> items = bodyParserEngineJson.iterate(context, SimpleTestForm.class);
+
+        while (items.hasNext()) {
+            items.next();
+        }
+    }
+
     /**
      * Simple form used during unit tests.
      *
@@ -26,6 +26,7 @@ import io.sunflower.ewf.i18n.internal.LangImpl;
 import io.sunflower.ewf.internal.RouterImpl;
 import io.sunflower.ewf.params.ParamParser;
 import io.sunflower.ewf.spi.support.BodyParserEngineJson;
+import io.sunflower.ewf.spi.support.BodyParserEngineNdjson;
 import io.sunflower.ewf.spi.support.BodyParserEnginePost;
 import io.sunflower.ewf.support.Settings;
 import io.sunflower.guice.LoggerProvider;
@@ -45,7 +46,7 @@ public class BodyParserEngineManagerImplTest {
         List<String> types = Lists.newArrayList(createBodyParserEngineManager().getContentTypes());
         Collections.sort(types);
         assertThat(types.toString(),
-                equalTo("[application/json, application/x-www-form-urlencoded]"));
+                equalTo("[application/json, application/x-ndjson, application/x-www-form-urlencoded]"));
     }
 
     private BodyParserEngineManager createBodyParserEngineManager(final Class<?>... toBind) {
@@ -65,6 +66,7 @@ public class BodyParserEngineManagerImplTest {
 
                 bind(BodyParserEnginePost.class);
                 bind(BodyParserEngineJson.class);
+                bind(BodyParserEngineNdjson.class);
 
                 bind(Settings.class).toInstance(new Settings());
 
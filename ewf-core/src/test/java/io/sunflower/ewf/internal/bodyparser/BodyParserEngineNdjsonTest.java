@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.bodyparser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.spi.support.BodyParserEngineNdjson;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for the newline delimited json body parser.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class BodyParserEngineNdjsonTest {
+
+    private static final String BODY = "{\"name\":\"first\"}\n{\"name\":\"second\"}\n";
+
+    @Mock
+    private Context context;
+
+    private BodyParserEngineNdjson bodyParserEngineNdjson;
+
+    @Before
+    public void setUp() throws IOException {
+        Mockito.when(context.getInputStream()).thenReturn(new ByteArrayInputStream(BODY.getBytes("UTF-8")));
+        bodyParserEngineNdjson = new BodyParserEngineNdjson(new ObjectMapper());
+    }
+
+    @Test
+    public void testRecordsAreDeliveredOneAtATime() {
+        Iterator<Record> records = bodyParserEngineNdjson.iterate(context, Record.class);
+
+        assertThat(records.next().name, equalTo("first"));
+        assertThat(records.next().name, equalTo("second"));
+        assertFalse(records.hasNext());
+    }
+
+    @Test
+    public void testArrayGetsAllRecords() {
+        Record[] records = bodyParserEngineNdjson.invoke(context, Record[].class);
+
+        assertThat(records.length, equalTo(2));
+        assertThat(records[1].name, equalTo("second"));
+    }
+
+    public static class Record {
+
+        public String name;
+
+    }
+}
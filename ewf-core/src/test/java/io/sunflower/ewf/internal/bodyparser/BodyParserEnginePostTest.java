@@ -353,6 +353,31 @@ public class BodyParserEnginePostTest {
         assertFalse(validation.hasViolations());
     }
 
+    @Test
+    public void testBodyParserWithNestedRecursiveObjects() {
+        Map<String, String[]> map = new HashMap<>();
+        map.put("name", new String[]{"root"});
+        map.put("child.name", new String[]{"child"});
+        map.put("child.child.name", new String[]{"grandchild"});
+        map.put("child.child.child.name", new String[]{""});
+
+        Mockito.when(context.getParameters()).thenReturn(map);
+
+        // do, twice to go through the cached plan as well
+        for (int i = 0; i < 2; i++) {
+            TestObjectWithChild testObject = bodyParserEnginePost
+                    .invoke(context, TestObjectWithChild.class);
+
+            // and test:
+            assertThat(testObject.getName(), equalTo("root"));
+            assertThat(testObject.getChild().getName(), equalTo("child"));
+            assertThat(testObject.getChild().getChild().getName(), equalTo("grandchild"));
+            assertNull(testObject.getChild().getChild().getChild());
+        }
+
+        assertFalse(validation.hasViolations());
+    }
+
     private <T> void assertViolation(String fieldName, String violationMessage) {
         assertTrue(validation.hasViolation(fieldName));
         assertFalse(validation.getViolations().isEmpty());
@@ -424,4 +449,19 @@ public class BodyParserEnginePostTest {
 
     }
 
+    public static class TestObjectWithChild {
+
+        private String name;
+        private TestObjectWithChild child;
+
+        public String getName() {
+            return name;
+        }
+
+        public TestObjectWithChild getChild() {
+            return child;
+        }
+
+    }
+
 }
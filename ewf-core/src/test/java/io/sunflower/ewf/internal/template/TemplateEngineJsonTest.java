@@ -17,7 +17,9 @@ package io.sunflower.ewf.internal.template;
 
 import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.sunflower.ewf.Context;
+import io.sunflower.ewf.JsonItemProducer;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.spi.support.TemplateEngineJson;
 import io.sunflower.ewf.support.ResponseStreams;
@@ -27,8 +29,12 @@ import org.mockito.Mockito;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -75,6 +81,93 @@ public class TemplateEngineJsonTest {
         verify(context).finalizeHeaders(result);
     }
 
+    @Test
+    public void testWritersAreCachedPerView() throws IOException {
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+
+        Mockito.<Class<?>>when(result.getJsonView()).thenReturn(View.Public.class);
+        jsonEngine.invoke(context, result);
+
+        String json = new String(outputStream.toByteArray(), "UTF-8");
+        assertTrue(json.contains("field_one"));
+        assertFalse(json.contains("field_two"));
+
+        outputStream.reset();
+        Mockito.<Class<?>>when(result.getJsonView()).thenReturn(View.Private.class);
+        jsonEngine.invoke(context, result);
+
+        json = new String(outputStream.toByteArray(), "UTF-8");
+        assertFalse(json.contains("field_one"));
+        assertTrue(json.contains("field_two"));
+
+        outputStream.reset();
+        Mockito.<Class<?>>when(result.getJsonView()).thenReturn(null);
+        jsonEngine.invoke(context, result);
+
+        json = new String(outputStream.toByteArray(), "UTF-8");
+        assertTrue(json.contains("field_one"));
+        assertTrue(json.contains("field_two"));
+    }
+
+    @Test
+    public void testStreamIsRenderedAsArrayAndClosed() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> stream = Stream.of(1, 2, 3).onClose(() -> closed.set(true));
+        when(result.getRenderable()).thenReturn(stream);
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+        jsonEngine.invoke(context, result);
+
+        assertThat(new String(outputStream.toByteArray(), "UTF-8"), equalTo("[1,2,3]"));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testIterableValuesAreRenderedAsUsual() throws IOException {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", 1);
+        node.put("name", "one");
+        when(result.getRenderable()).thenReturn(node);
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+        jsonEngine.invoke(context, result);
+
+        assertThat(new String(outputStream.toByteArray(), "UTF-8"), equalTo("{\"id\":1,\"name\":\"one\"}"));
+    }
+
+    @Test
+    public void testFailingProducerLeavesArrayUnterminated() throws IOException {
+        JsonItemProducer<String> producer = items -> {
+            items.accept("one");
+            throw new IllegalStateException("database gone");
+        };
+        when(result.getRenderable()).thenReturn(producer);
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+        jsonEngine.invoke(context, result);
+
+        assertFalse(new String(outputStream.toByteArray(), "UTF-8").endsWith("]"));
+    }
+
+    @Test
+    public void testFailingStreamAbortsTheResponse() throws IOException {
+        Stream<Integer> stream = Stream.of(1, 2, 3).map(i -> {
+            if (i == 2) {
+                throw new IllegalStateException("database gone");
+            }
+            return i;
+        });
+        when(result.getRenderable()).thenReturn(stream);
+        outputStream = spy(new ByteArrayOutputStream());
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+
+        TemplateEngineJson jsonEngine = new TemplateEngineJson(objectMapper);
+        jsonEngine.invoke(context, result);
+
+        // not ended like a complete response
+        verify(outputStream, never()).close();
+        verify(responseStreams).abort();
+    }
 
     private static class TestObject {
 
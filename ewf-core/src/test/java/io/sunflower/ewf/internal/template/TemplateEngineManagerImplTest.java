@@ -28,6 +28,7 @@ import io.sunflower.ewf.internal.RouterImpl;
 import io.sunflower.ewf.spi.TemplateEngine;
 import io.sunflower.ewf.spi.support.TemplateEngineJson;
 import io.sunflower.ewf.spi.support.TemplateEngineJsonP;
+import io.sunflower.ewf.spi.support.TemplateEngineNdjson;
 import io.sunflower.ewf.spi.support.TemplateEngineText;
 import io.sunflower.ewf.support.Settings;
 import io.sunflower.guice.LoggerProvider;
@@ -94,7 +95,7 @@ public class TemplateEngineManagerImplTest {
         List<String> types = Lists.newArrayList(createTemplateEngineManager().getContentTypes());
         Collections.sort(types);
         assertThat(types.toString(),
-                equalTo("[application/javascript, application/json, text/plain]"));
+                equalTo("[application/javascript, application/json, application/x-ndjson, text/plain]"));
     }
 
     @Test
@@ -174,6 +175,7 @@ public class TemplateEngineManagerImplTest {
                 bind(TemplateEngineText.class);
                 bind(TemplateEngineJson.class);
                 bind(TemplateEngineJsonP.class);
+                bind(TemplateEngineNdjson.class);
 
                 bind(Settings.class).toInstance(new Settings());
 
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.internal.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.Results;
+import io.sunflower.ewf.spi.support.TemplateEngineNdjson;
+import io.sunflower.ewf.support.ResponseStreams;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests for application/x-ndjson render.
+ */
+public class TemplateEngineNdjsonTest {
+
+    Context context;
+    ResponseStreams responseStreams;
+    ByteArrayOutputStream outputStream;
+    TemplateEngineNdjson ndjsonEngine;
+
+    @Before
+    public void setUp() throws IOException {
+        context = mock(Context.class);
+        responseStreams = mock(ResponseStreams.class);
+        outputStream = new ByteArrayOutputStream();
+
+        when(context.finalizeHeaders(any(Result.class))).thenReturn(responseStreams);
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+
+        ndjsonEngine = new TemplateEngineNdjson(new ObjectMapper());
+    }
+
+    @Test
+    public void testCollectionIsRenderedOneDocumentPerLine() throws IOException {
+        ndjsonEngine.invoke(context, Results.ndjson().render(Arrays.asList(
+                Collections.singletonMap("id", 1),
+                Collections.singletonMap("id", 2))));
+
+        assertThat(new String(outputStream.toByteArray(), "UTF-8"), equalTo("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    public void testStreamIsRenderedOneDocumentPerLine() throws IOException {
+        ndjsonEngine.invoke(context, Results.ndjson().render(Stream.of("a", "b", "c")));
+
+        assertThat(new String(outputStream.toByteArray(), "UTF-8"), equalTo("\"a\"\n\"b\"\n\"c\"\n"));
+    }
+
+    @Test
+    public void testSingleObjectIsRenderedAsOneLine() throws IOException {
+        ndjsonEngine.invoke(context, Results.ndjson().render(Collections.singletonMap("id", 1)));
+
+        assertThat(new String(outputStream.toByteArray(), "UTF-8"), equalTo("{\"id\":1}\n"));
+    }
+
+    @Test
+    public void testIterableValueIsRenderedAsOneLine() throws IOException {
+        ObjectNode node = new ObjectMapper().createObjectNode();
+        node.put("id", 1);
+        node.put("name", "one");
+
+        ndjsonEngine.invoke(context, Results.ndjson().render(node));
+
+        assertThat(new String(outputStream.toByteArray(), "UTF-8"), equalTo("{\"id\":1,\"name\":\"one\"}\n"));
+    }
+
+}
@@ -20,6 +20,7 @@ import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.multibindings.Multibinder;
 import io.sunflower.ewf.Context;
+import io.sunflower.ewf.JsonItemConsumer;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.errors.BadRequestException;
 import io.sunflower.ewf.errors.RoutingException;
@@ -63,7 +64,11 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.verify;
@@ -110,6 +115,19 @@ public class ControllerMethodInvokerTest {
         verify(mockController).noParameter();
     }
 
+    @Test
+    public void runtimeExceptionOfControllerIsRethrownAsIs() throws Exception {
+        IllegalStateException exception = new IllegalStateException("boom");
+        when(mockController.noParameter()).thenThrow(exception);
+
+        try {
+            create("noParameter").invoke(mockController, context);
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+    }
+
     @Test
     public void contextShouldBePassed() throws Exception {
         create("context").invoke(mockController, context);
@@ -1016,6 +1034,41 @@ public class ControllerMethodInvokerTest {
         verify(mockController).body(body);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void bodyItemsShouldBeStreamedIntoStreamParameter() {
+        when(context.parseBodyItems(String.class)).thenReturn(Arrays.asList("a", "b").iterator());
+        create("bodyStream").invoke(mockController, context);
+
+        ArgumentCaptor<Stream> captor = ArgumentCaptor.forClass(Stream.class);
+        verify(mockController).bodyStream(captor.capture());
+        assertEquals(Arrays.asList("a", "b"), captor.getValue().collect(Collectors.toList()));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void bodyItemsShouldBeHandedToIteratorAndConsumerParameters() {
+        Iterator<String> items = Arrays.asList("a", "b").iterator();
+        when(context.parseBodyItems(String.class)).thenReturn(items);
+        create("bodyIterator").invoke(mockController, context);
+        verify(mockController).bodyIterator(items);
+
+        when(context.parseBodyItems(String.class)).thenReturn(Arrays.asList("c", "d").iterator());
+        create("bodyItems").invoke(mockController, context);
+
+        ArgumentCaptor<JsonItemConsumer> captor = ArgumentCaptor.forClass(JsonItemConsumer.class);
+        verify(mockController).bodyItems(captor.capture());
+        List<String> consumed = new ArrayList<>();
+        captor.getValue().consume(item -> consumed.add((String) item));
+        assertEquals(Arrays.asList("c", "d"), consumed);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void bodyItemsWithoutStreamingParserShouldBeBadRequest() {
+        when(context.parseBodyItems(String.class)).thenReturn(null);
+        create("bodyStream").invoke(mockController, context);
+    }
+
     @Test
     public void bodyWithOptionalShouldBeParsedIntoLeftOverParameter() {
         Object body = new Object();
@@ -1392,6 +1445,12 @@ public class ControllerMethodInvokerTest {
 
         Result bodyWithOptional(Optional<Object> body);
 
+        Result bodyStream(Stream<String> items);
+
+        Result bodyIterator(Iterator<String> items);
+
+        Result bodyItems(JsonItemConsumer<String> items);
+
         Result tooManyBodies(Object body1, Object body2);
 
         Result JSR303Validation(@ValidBean Dto dto, Validation validation);
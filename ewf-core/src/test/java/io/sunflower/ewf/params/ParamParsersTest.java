@@ -22,6 +22,8 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.util.Collections;
+
 import static org.junit.Assert.assertThat;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -339,4 +341,41 @@ public class ParamParsersTest {
         assertThat(doubleParamParser.parseParameter("param1", "-123.1", validation),
                 Matchers.is(new Double(-123.1)));
     }
+
+    @Test
+    public void testGenericEnumParamParser() {
+        ParamParsers.GenericEnumParamParser<Color> enumParamParser =
+                new ParamParsers.GenericEnumParamParser<>(Color.class);
+
+        assertThat(enumParamParser.getParsedType(), Matchers.is(Color.class));
+
+        assertThat(enumParamParser.parseParameter("param1", null, validation), Matchers.nullValue());
+        assertThat(enumParamParser.parseParameter("param1", "purple", validation), Matchers.nullValue());
+
+        assertThat(enumParamParser.parseParameter("param1", "RED", validation), Matchers.is(Color.RED));
+        assertThat(enumParamParser.parseParameter("param1", "green", validation), Matchers.is(Color.GREEN));
+        assertThat(enumParamParser.parseParameter("param1", "Dark_Blue", validation),
+                Matchers.is(Color.DARK_BLUE));
+    }
+
+    @Test
+    public void parsersAreResolvedOncePerType() {
+        ParamParsers paramParsers = new ParamParsers(Collections.emptySet());
+
+        assertThat(paramParsers.getParamParser(Color.class),
+                Matchers.sameInstance(paramParsers.getParamParser(Color.class)));
+        assertThat(paramParsers.getParamParser(Integer[].class),
+                Matchers.sameInstance(paramParsers.getParamParser(Integer[].class)));
+        assertThat(paramParsers.getArrayParser(Color[].class),
+                Matchers.sameInstance(paramParsers.getArrayParser(Color[].class)));
+        assertThat(paramParsers.getListParser(Long.class),
+                Matchers.sameInstance(paramParsers.getListParser(Long.class)));
+
+        assertThat(paramParsers.getParamParser(Object.class), Matchers.nullValue());
+        assertThat(paramParsers.getArrayParser(Long.class), Matchers.nullValue());
+    }
+
+    public enum Color {
+        RED, GREEN, DARK_BLUE
+    }
 }
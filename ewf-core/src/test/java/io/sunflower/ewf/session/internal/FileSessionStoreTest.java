@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class FileSessionStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicLong now = new AtomicLong(1000L);
+
+    @Test
+    public void savesLoadsAndRemoves() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        Map<String, String> data = ImmutableMap.of("user", "john", "cart", "a&b=c");
+
+        new FileSessionStore(dir, now::get).save("a1", data, 1000L);
+
+        // a new store on the same directory, think of a restart
+        FileSessionStore store = new FileSessionStore(dir, now::get);
+
+        assertThat(store.load("a1"), is(data));
+        assertThat(store.load("b1"), nullValue());
+
+        store.remove("a1");
+
+        assertThat(store.load("a1"), nullValue());
+        assertThat(Files.exists(dir.resolve("a1.session")), is(false));
+    }
+
+    @Test
+    public void dropsExpiredSessions() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        FileSessionStore store = new FileSessionStore(dir, now::get);
+
+        store.save("a1", ImmutableMap.of("user", "john"), 1000L);
+        store.save("b1", ImmutableMap.of("user", "jane"), 5000L);
+
+        now.addAndGet(1000L);
+        assertThat(store.load("a1"), nullValue());
+        assertThat(Files.exists(dir.resolve("a1.session")), is(false));
+
+        now.addAndGet(5000L);
+        store.sweep();
+        assertThat(Files.exists(dir.resolve("b1.session")), is(false));
+    }
+
+    @Test
+    public void ignoresIdsThatAreNoFileNames() {
+        FileSessionStore store = new FileSessionStore(folder.getRoot().toPath(), now::get);
+
+        assertThat(store.load("../a1"), nullValue());
+        assertThat(store.load(""), nullValue());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class MemorySessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1000L);
+
+    @Test
+    public void savesLoadsAndRemoves() {
+        MemorySessionStore store = new MemorySessionStore(100, now::get);
+        Map<String, String> data = ImmutableMap.of("user", "john");
+
+        store.save("a", data, 1000L);
+
+        assertThat(store.load("a"), is(data));
+        assertThat(store.load("b"), nullValue());
+
+        store.remove("a");
+
+        assertThat(store.load("a"), nullValue());
+    }
+
+    @Test
+    public void dropsExpiredSessions() {
+        MemorySessionStore store = new MemorySessionStore(100, now::get);
+
+        store.save("a", ImmutableMap.of("user", "john"), 1000L);
+        store.save("b", ImmutableMap.of("user", "jane"), null);
+
+        now.addAndGet(999L);
+        assertThat(store.load("a").get("user"), is("john"));
+
+        now.addAndGet(1L);
+        assertThat(store.load("a"), nullValue());
+        assertThat(store.load("b").get("user"), is("jane"));
+    }
+
+    @Test
+    public void dropsLeastRecentlyUsedSessionsBeyondMaxEntries() {
+        // one entry per stripe
+        MemorySessionStore store = new MemorySessionStore(1, now::get);
+
+        for (int i = 0; i < 1000; i++) {
+            store.save("session" + i, ImmutableMap.of("i", "" + i), null);
+        }
+
+        assertThat(store.size() <= 16, is(true));
+        assertThat(store.load("session999").get("i"), is("999"));
+    }
+}
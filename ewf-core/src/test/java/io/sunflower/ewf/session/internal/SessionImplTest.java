@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal;
+
+import com.google.common.collect.ImmutableMap;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Cookie;
+import io.sunflower.ewf.session.SessionStore;
+import io.sunflower.ewf.session.internal.support.AesGcmCookieCodec;
+import io.sunflower.ewf.session.internal.support.Clock;
+import io.sunflower.ewf.session.internal.support.CookieEncryption;
+import io.sunflower.ewf.session.internal.support.Crypto;
+import io.sunflower.ewf.support.Constants;
+import io.sunflower.ewf.support.Settings;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SessionImplTest {
+
+    private static final String SESSION_COOKIE = "ewf__SESSION";
+
+    private final Settings settings = new Settings();
+
+    @Mock
+    Context context;
+
+    @Mock
+    Clock clock;
+
+    @Test
+    public void untouchedSessionIsNeitherDecodedNorSent() {
+        SessionImpl session = newSession();
+        session.init(context);
+        session.save(context);
+
+        verify(context, never()).getCookie(anyString());
+        verify(context, never()).addCookie(any(Cookie.class));
+    }
+
+    @Test
+    public void cookieIsDecodedOnFirstAccess() {
+        when(clock.currentTimeMillis()).thenReturn(1000L);
+        when(context.getContextPath()).thenReturn("");
+
+        SessionImpl session = newSession();
+        session.init(context);
+        session.put("user", "john");
+        session.save(context);
+
+        ArgumentCaptor<Cookie> cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(context).addCookie(cookie.capture());
+
+        Context next = mock(Context.class);
+        when(next.getCookie(SESSION_COOKIE)).thenReturn(cookie.getValue());
+
+        session = newSession();
+        session.init(next);
+        verify(next, never()).getCookie(anyString());
+
+        assertThat(session.get("user"), is("john"));
+        assertThat(session.get("other"), is((String) null));
+        verify(next, times(1)).getCookie(SESSION_COOKIE);
+    }
+
+    @Test
+    public void storedSessionOnlySendsSignedId() {
+        when(clock.currentTimeMillis()).thenReturn(1000L);
+        when(context.getContextPath()).thenReturn("");
+
+        SessionStore store = new MemorySessionStore(100, clock);
+
+        SessionImpl session = newSession(store);
+        session.init(context);
+        session.put("user", "john");
+        session.save(context);
+
+        ArgumentCaptor<Cookie> cookie = ArgumentCaptor.forClass(Cookie.class);
+        verify(context).addCookie(cookie.capture());
+
+        String value = cookie.getValue().getValue();
+        assertThat(value.startsWith("sid."), is(true));
+        assertThat(value.contains("john"), is(false));
+
+        Context next = mock(Context.class);
+        when(next.getCookie(SESSION_COOKIE)).thenReturn(cookie.getValue());
+
+        session = newSession(store);
+        session.init(next);
+        assertThat(session.get("user"), is("john"));
+
+        // a forged id is not looked up
+        Context forged = mock(Context.class);
+        when(forged.getCookie(SESSION_COOKIE)).thenReturn(
+                Cookie.builder(SESSION_COOKIE, value.substring(0, value.length() - 1) + (value.endsWith("0") ? "1" : "0")).build());
+
+        session = newSession(store);
+        session.init(forged);
+        assertThat(session.get("user"), is((String) null));
+    }
+
+    @Test
+    public void injectedSessionUsesTheConfiguredStore() {
+        when(context.getContextPath()).thenReturn("");
+
+        SessionStore store = mock(SessionStore.class);
+        Settings storeSettings = new Settings(ImmutableMap.of(Constants.SESSION_STORE, "memory"));
+
+        SessionImpl session = new SessionImpl(new Crypto(storeSettings), new CookieEncryption(storeSettings),
+                new AesGcmCookieCodec(storeSettings), storeSettings, clock, () -> store);
+        session.init(context);
+        session.put("user", "john");
+        session.save(context);
+
+        verify(store).save(anyString(), argThat(data -> "john".equals(data.get("user"))), any());
+    }
+
+    @Test
+    public void injectedSessionKeepsCookieSessionsWithoutAStore() {
+        when(context.getContextPath()).thenReturn("");
+
+        SessionImpl session = new SessionImpl(new Crypto(settings), new CookieEncryption(settings),
+                new AesGcmCookieCodec(settings), settings, clock, () -> {
+                    throw new AssertionError("store must not be created");
+                });
+        session.init(context);
+        session.put("user", "john");
+        session.save(context);
+
+        verify(context).addCookie(any(Cookie.class));
+    }
+
+    @Test
+    public void resetSessionKeepsNothingOfThePreviousRequest() {
+        SessionImpl session = newSession();
+        session.init(context);
+        session.put("user", "john");
+        session.setExpiryTime(5000L);
+
+        session.reset();
+
+        Context next = mock(Context.class);
+        session.init(next);
+
+        assertThat(session.isEmpty(), is(true));
+        assertThat(session.get("user"), is((String) null));
+
+        session.save(next);
+        verify(next, never()).addCookie(any(Cookie.class));
+    }
+
+    private SessionImpl newSession() {
+        return newSession(null);
+    }
+
+    private SessionImpl newSession(SessionStore store) {
+        return new SessionImpl(new Crypto(settings), new CookieEncryption(settings),
+                new AesGcmCookieCodec(settings), settings, clock, store);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal.support;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class AesGcmCookieCodecTest {
+
+    private static final String SECRET = "Fxu6U5BTGIJZ06c8bD1xkhHc3Ct5JZXlst8tJ1K5uJJPaLdceDo6CUz0iWpjjQUY";
+
+    private final AesGcmCookieCodec codec = new AesGcmCookieCodec(SECRET, Collections.<String>emptyList(), true);
+
+    @Test
+    public void roundTrip() {
+        String sealed = codec.seal("EWF_SESSION", "___ID=1&user=john");
+
+        assertThat(AesGcmCookieCodec.isSealed(sealed), is(true));
+        assertThat(codec.open("EWF_SESSION", sealed), is("___ID=1&user=john"));
+
+        // a fresh iv for every value
+        assertThat(codec.seal("EWF_SESSION", "___ID=1&user=john"), not(sealed));
+    }
+
+    @Test
+    public void rejectsValuesOfOtherCookies() {
+        String sealed = codec.seal("EWF_SESSION", "user=john");
+
+        assertThat(codec.open("EWF_FLASH", sealed), nullValue());
+    }
+
+    @Test
+    public void rejectsTamperedValues() {
+        String sealed = codec.seal("EWF_SESSION", "user=john");
+        // the last character may only carry padding bits, change one in the middle
+        int i = sealed.length() / 2;
+        String tampered = sealed.substring(0, i) + (sealed.charAt(i) == 'A' ? 'B' : 'A') + sealed.substring(i + 1);
+
+        assertThat(codec.open("EWF_SESSION", tampered), nullValue());
+        assertThat(codec.open("EWF_SESSION", AesGcmCookieCodec.PREFIX + "AAAA"), nullValue());
+        assertThat(codec.open("EWF_SESSION", AesGcmCookieCodec.PREFIX + "not base64!"), nullValue());
+    }
+
+    @Test
+    public void rejectsValuesOfOtherSecrets() {
+        String sealed = new AesGcmCookieCodec("another secret", Collections.<String>emptyList(), true).seal("EWF_SESSION", "user=john");
+
+        assertThat(codec.open("EWF_SESSION", sealed), nullValue());
+    }
+
+    @Test
+    public void oldFormatIsNotSealed() {
+        assertThat(AesGcmCookieCodec.isSealed("3a5d6b0a0d1e4c2b9c2d2e3f4a5b6c7d8e9f0a1b-user=john"), is(false));
+    }
+
+    @Test
+    public void disabledWithoutSecret() {
+        assertThat(new AesGcmCookieCodec(null, Collections.<String>emptyList(), true).isEnabled(), is(false));
+        assertThat(new AesGcmCookieCodec("", Collections.<String>emptyList(), true).isEnabled(), is(false));
+        assertThat(new AesGcmCookieCodec(SECRET, Collections.<String>emptyList(), false).isEnabled(), is(false));
+        assertThat(codec.isEnabled(), is(true));
+    }
+
+    @Test
+    public void opensValuesOfPreviousSecrets() {
+        String sealed = new AesGcmCookieCodec("old secret", Collections.<String>emptyList(), true)
+                .seal("EWF_SESSION", "user=john");
+
+        AesGcmCookieCodec rotated = new AesGcmCookieCodec(SECRET, Collections.singletonList("old secret"), true);
+
+        assertThat(rotated.open("EWF_SESSION", sealed), is("user=john"));
+        assertThat(codec.open("EWF_SESSION", rotated.seal("EWF_SESSION", "user=john")), is("user=john"));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal.support;
+
+import com.google.common.collect.ImmutableMap;
+import io.sunflower.ewf.session.Session;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CookieDataCodecTest {
+
+    private final Map<String, String> session = ImmutableMap.<String, String>builder()
+            .put(Session.TIMESTAMP_KEY, "1508236800000")
+            .put(Session.EXPIRY_TIME_KEY, "3600000")
+            .put(Session.ID_KEY, "3f2b6f0e-8c1a-4c5e-9d0b-2a7f1c9e4b6d")
+            .put(Session.AUTHENTICITY_KEY, "not a uuid")
+            .put("user", "j\u00f6hn & co=1")
+            .build();
+
+    @Test
+    public void binaryRoundTrip() throws Exception {
+        String encoded = CookieDataCodec.encode(session, true);
+
+        assertThat(encoded.startsWith("~"), is(true));
+        assertThat(encoded.length() < CookieDataCodec.encode(session).length(), is(true));
+        assertThat(decode(encoded), is(session));
+    }
+
+    @Test
+    public void decodesUrlEncodedFormat() throws Exception {
+        assertThat(decode(CookieDataCodec.encode(session)), is(session));
+        assertThat(decode(CookieDataCodec.encode(session, false)), is(session));
+    }
+
+    @Test
+    public void keepsNonCanonicalWellKnownValuesAsText() throws Exception {
+        Map<String, String> data = ImmutableMap.of(
+                Session.TIMESTAMP_KEY, "0123",
+                Session.ID_KEY, "3F2B6F0E-8C1A-4C5E-9D0B-2A7F1C9E4B6D");
+
+        assertThat(decode(CookieDataCodec.encode(data, true)), is(data));
+    }
+
+    @Test
+    public void ignoresMalformedBinaryData() throws Exception {
+        String encoded = CookieDataCodec.encode(session, true);
+
+        assertThat(decode(encoded.substring(0, encoded.length() - 4)).isEmpty(), is(true));
+        assertThat(decode("~not base64!").isEmpty(), is(true));
+        assertThat(decode("~").isEmpty(), is(true));
+        assertThat(CookieDataCodec.decode(new HashMap<>(), new byte[]{2, 0}, 0, 2), is(false));
+    }
+
+    private Map<String, String> decode(String data) throws Exception {
+        Map<String, String> map = new HashMap<>();
+        CookieDataCodec.decode(map, data);
+        return map;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.session.internal.support;
+
+import com.google.common.io.BaseEncoding;
+import org.junit.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class CryptoTest {
+
+    private final Crypto crypto = new Crypto(Collections.singletonList("secret"));
+
+    @Test
+    public void signsWithHmacSha256() throws Exception {
+        assertThat(crypto.sign("message"), is(hmac(Crypto.HMAC_SHA256, "secret", "message")));
+        assertThat(crypto.verify("message", crypto.sign("message")), is(true));
+    }
+
+    @Test
+    public void rejectsInvalidSignatures() {
+        String signature = crypto.sign("message");
+
+        assertThat(crypto.verify("other message", signature), is(false));
+        assertThat(crypto.verify("message", signature.substring(2)), is(false));
+        assertThat(crypto.verify("message", "not hex"), is(false));
+        assertThat(crypto.verify("message", ""), is(false));
+    }
+
+    @Test
+    public void verifiesHmacSha1SignaturesWrittenBefore() throws Exception {
+        assertThat(crypto.verify("message", hmac(Crypto.HMAC_SHA1, "secret", "message")), is(true));
+        assertThat(crypto.verify("message", hmac(Crypto.HMAC_SHA1, "other", "message")), is(false));
+    }
+
+    @Test
+    public void verifiesWithPreviousSecrets() {
+        String signature = new Crypto(Collections.singletonList("old secret")).sign("message");
+
+        Crypto rotated = new Crypto(Arrays.asList("secret", "old secret"));
+
+        assertThat(rotated.verify("message", signature), is(true));
+        assertThat(rotated.sign("message"), is(crypto.sign("message")));
+        assertThat(crypto.verify("message", signature), is(false));
+    }
+
+    private static String hmac(String algorithm, String key, String message) throws Exception {
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), algorithm));
+        return BaseEncoding.base16().lowerCase().encode(mac.doFinal(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
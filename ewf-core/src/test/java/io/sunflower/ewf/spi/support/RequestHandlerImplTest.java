@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.spi.support;
+
+import io.sunflower.ewf.AsyncResult;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.FilterChain;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.Results;
+import io.sunflower.ewf.internal.InternalRouter;
+import io.sunflower.ewf.internal.Route;
+import io.sunflower.ewf.internal.RouteMatch;
+import io.sunflower.ewf.spi.ExceptionHandler;
+import io.sunflower.ewf.spi.ResultHandler;
+import io.sunflower.ewf.support.Settings;
+import io.sunflower.util.Duration;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RequestHandlerImplTest {
+
+    @Mock
+    InternalRouter router;
+
+    @Mock
+    ResultHandler resultHandler;
+
+    @Mock
+    ExceptionHandler exceptionHandler;
+
+    @Mock
+    Settings settings;
+
+    @Mock
+    RouteMatch routeMatch;
+
+    @Mock
+    Context.Impl context;
+
+    private final CompletableFuture<Result> completion = new CompletableFuture<>();
+
+    private RequestHandlerImpl requestHandler;
+
+    @Before
+    public void before() {
+        requestHandler = new RequestHandlerImpl();
+        requestHandler.router = router;
+        requestHandler.resultHandler = resultHandler;
+        requestHandler.exceptionHandler = exceptionHandler;
+        requestHandler.settings = settings;
+
+        FilterChain filterChain = context -> new AsyncResult(completion);
+
+        when(context.getMethod()).thenReturn("GET");
+        when(context.getRequestPath()).thenReturn("/async");
+        when(router.getRouteMatchFor("GET", "/async")).thenReturn(routeMatch);
+        when(routeMatch.getRoute()).thenReturn(new Route("GET", "/async", false, null, filterChain));
+    }
+
+    @Test
+    public void asyncResultIsRenderedOnCompletion() {
+        when(settings.getAsyncTimeout()).thenReturn(Duration.seconds(30));
+
+        requestHandler.handleRequest(context);
+
+        verify(context).handleAsync();
+        verify(context, never()).returnResultAsync(any());
+        verify(context, never()).cleanup();
+
+        Result result = Results.ok();
+        completion.complete(result);
+
+        verify(context).returnResultAsync(result);
+        verify(context).cleanup();
+        verify(resultHandler, never()).handleResult(any(), any());
+    }
+
+    @Test
+    public void failedAsyncResultIsMappedByTheExceptionHandler() {
+        IllegalStateException failure = new IllegalStateException();
+        Result error = Results.internalServerError();
+
+        when(settings.getAsyncTimeout()).thenReturn(Duration.seconds(30));
+        when(exceptionHandler.onException(context, failure)).thenReturn(error);
+
+        requestHandler.handleRequest(context);
+        completion.completeExceptionally(failure);
+
+        verify(context).returnResultAsync(error);
+        verify(context).cleanup();
+    }
+
+    @Test
+    public void asyncResultTimesOut() {
+        Result error = Results.internalServerError();
+
+        when(settings.getAsyncTimeout()).thenReturn(Duration.milliseconds(10));
+        when(exceptionHandler.onException(eq(context), any(TimeoutException.class))).thenReturn(error);
+
+        requestHandler.handleRequest(context);
+
+        verify(context, timeout(5000)).returnResultAsync(error);
+        verify(context, timeout(5000)).cleanup();
+
+        // completing late changes nothing
+        completion.complete(Results.ok());
+        verify(context, times(1)).returnResultAsync(any());
+    }
+}
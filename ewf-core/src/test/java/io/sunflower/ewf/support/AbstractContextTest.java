@@ -15,7 +15,6 @@
 
 package io.sunflower.ewf.support;
 
-import com.google.common.collect.Maps;
 import com.google.common.net.HttpHeaders;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Cookie;
@@ -32,13 +31,11 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.HashSet;
-import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -57,9 +54,6 @@ public class AbstractContextTest {
     @Mock
     private BodyParserEngineManager bodyParserEngineManager;
 
-    @Mock
-    private Route route;
-
     @Mock
     private Validation validation;
 
@@ -186,14 +180,8 @@ public class AbstractContextTest {
     public void getPathParameter() {
         AbstractContextImpl context = spy(abstractContext);
 
-        //mock a parametermap:
-        Map<String, String> parameterMap = Maps.newHashMap();
-        parameterMap.put("parameter", "parameter");
-
-        //and return the parameter map when any parameter is called...
-        when(route.getPathParametersEncoded(Matchers.anyString())).thenReturn(parameterMap);
-
-        context.setRoute(route);
+        context.init("", "/parameter");
+        context.setRoute(new Route("GET", "/{parameter}", false, null, null));
 
         // this parameter is not there and must return null
         assertEquals(null, context.getPathParameter("parameter_not_set"));
@@ -205,37 +193,29 @@ public class AbstractContextTest {
     public void getPathParameterDecodingWorks() {
         AbstractContextImpl context = spy(abstractContext);
 
-        //mock a parametermap:
-        Map<String, String> parameterMap = Maps.newHashMap();
-        parameterMap.put("parameter", "blue%2Fred%3Fand+green%E2%82%AC%2f");
-
-        //and return the parameter map when any parameter is called...
-        when(route.getPathParametersEncoded(Matchers.anyString())).thenReturn(parameterMap);
-
-        context.setRoute(route);
+        context.init("", "/blue%2Fred%3Fand+green%E2%82%AC%2f");
+        context.setRoute(new Route("GET", "/{parameter}", false, null, null));
 
         //that is how the above parameter looks decoded correctly:
         assertEquals("blue/red?and+green€/", context.getPathParameter("parameter"));
+        assertEquals("blue%2Fred%3Fand+green%E2%82%AC%2f", context.getPathParameterEncoded("parameter"));
     }
 
     @Test
     public void getPathParameterAsInteger() {
         AbstractContextImpl context = spy(abstractContext);
 
-        //mock a parametermap:
-        Map<String, String> parameterMap = Maps.newHashMap();
-        parameterMap.put("parameter", "parameter");
-
-        //and return the parameter map when any parameter is called...
-        when(route.getPathParametersEncoded(Matchers.anyString())).thenReturn(parameterMap);
+        Route route = new Route("GET", "/{parameter}", false, null, null);
 
+        context.init("", "/parameter");
         context.setRoute(route);
 
         //this will not work and return null
         assertEquals(null, context.getPathParameterAsInteger("parameter"));
 
-        //now set an integer into the parametermap:
-        parameterMap.put("parameter", "1");
+        //now route a request with an integer:
+        context.init("", "/1");
+        context.setRoute(route);
 
         //this will work and return 1
         assertEquals(new Integer(1), context.getPathParameterAsInteger("parameter"));
@@ -327,6 +307,44 @@ public class AbstractContextTest {
 
         doReturn("text/plain, application/json").when(context).getHeader(HttpHeaders.ACCEPT);
         assertEquals(Result.APPLICATION_JSON, context.getAcceptContentType());
+
+        doReturn("application/x-ndjson").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_NDJSON, context.getAcceptContentType());
+
+        doReturn("application/x-jackson-smile").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_SMILE, context.getAcceptContentType());
+
+        doReturn("application/cbor, application/json;q=0.5").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_CBOR, context.getAcceptContentType());
+
+        // q-values first, json wins a tie
+        doReturn("application/json, application/cbor").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_JSON, context.getAcceptContentType());
+
+        doReturn("application/cbor;q=0.1, application/json").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_JSON, context.getAcceptContentType());
+
+        doReturn("text/html;q=0.9, application/x-jackson-smile;q=0.95").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_SMILE, context.getAcceptContentType());
+
+        doReturn("text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.TEXT_HTML, context.getAcceptContentType());
+
+        doReturn("application/cbor;q=0, text/plain").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.TEXT_PLAIN, context.getAcceptContentType());
+
+        // */* never beats a listed type
+        doReturn("text/html, */*").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.TEXT_HTML, context.getAcceptContentType());
+
+        doReturn("application/xml, */*").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_XML, context.getAcceptContentType());
+
+        doReturn("*/*").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_JSON, context.getAcceptContentType());
+
+        doReturn("text/html;q=0.5, */*").when(context).getHeader(HttpHeaders.ACCEPT);
+        assertEquals(Result.APPLICATION_JSON, context.getAcceptContentType());
     }
 
     @Test
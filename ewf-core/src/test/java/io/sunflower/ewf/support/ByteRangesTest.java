@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.sunflower.ewf.support;
+
+import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.Results;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ByteRangesTest {
+
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    Context context;
+
+    @Mock
+    ResponseStreams responseStreams;
+
+    @Test
+    public void parse() {
+        assertThat(ByteRanges.parse("bytes=0-4", 10).toString(), is("[0-4]"));
+        assertThat(ByteRanges.parse("bytes=5-", 10).toString(), is("[5-9]"));
+        assertThat(ByteRanges.parse("bytes=-3", 10).toString(), is("[7-9]"));
+        assertThat(ByteRanges.parse("bytes=8-100", 10).toString(), is("[8-9]"));
+        assertThat(ByteRanges.parse("Bytes=0-1, 4-5", 10).toString(), is("[0-1, 4-5]"));
+
+        // unsatisfiable ranges are dropped
+        assertThat(ByteRanges.parse("bytes=0-1,20-30", 10).toString(), is("[0-1]"));
+        assertThat(ByteRanges.parse("bytes=10-", 10).isEmpty(), is(true));
+        assertThat(ByteRanges.parse("bytes=-0", 10).isEmpty(), is(true));
+    }
+
+    @Test
+    public void parseIgnoresInvalidOrUselessHeaders() {
+        assertThat(ByteRanges.parse("items=0-4", 10), nullValue());
+        assertThat(ByteRanges.parse("bytes=4-2", 10), nullValue());
+        assertThat(ByteRanges.parse("bytes=a-b", 10), nullValue());
+        assertThat(ByteRanges.parse("bytes=5", 10), nullValue());
+        assertThat(ByteRanges.parse("bytes=0-", 10), nullValue());
+        assertThat(ByteRanges.parse("bytes=-100", 10), nullValue());
+
+        StringBuilder tooMany = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= ByteRanges.MAX_RANGES; i++) {
+            tooMany.append(',').append(i).append('-').append(i);
+        }
+        assertThat(ByteRanges.parse(tooMany.toString(), 100), nullValue());
+    }
+
+    @Test
+    public void requestedHonoursIfRange() {
+        Result result = Results.ok();
+        result.addHeader(HttpHeaders.ETAG, "\"1234\"");
+
+        when(context.getMethod()).thenReturn("GET");
+        when(context.getHeader(HttpHeaders.RANGE)).thenReturn("bytes=0-4");
+        when(context.getHeader(HttpHeaders.IF_RANGE)).thenReturn(null);
+
+        assertThat(ByteRanges.requested(context, result, 10, 1234L).size(), is(1));
+
+        when(context.getHeader(HttpHeaders.IF_RANGE)).thenReturn("\"1234\"");
+        assertThat(ByteRanges.requested(context, result, 10, 1234L).size(), is(1));
+
+        when(context.getHeader(HttpHeaders.IF_RANGE)).thenReturn("\"999\"");
+        assertThat(ByteRanges.requested(context, result, 10, 1234L), nullValue());
+
+        when(context.getHeader(HttpHeaders.IF_RANGE)).thenReturn(DateUtil.formatForHttpHeader(1234L));
+        assertThat(ByteRanges.requested(context, result, 10, 1234L).size(), is(1));
+        assertThat(ByteRanges.requested(context, result, 10, 999000L), nullValue());
+    }
+
+    @Test
+    public void sendSingleRange() throws Exception {
+        Result result = Results.ok().text();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+
+        List<ByteRanges.Range> ranges = ByteRanges.parse("bytes=2-5", CONTENT.length);
+        ByteRanges.send(result, CONTENT.length, ranges, ByteRanges.of(CONTENT), r -> responseStreams);
+
+        assertThat(result.getStatusCode(), is(Result.SC_206_PARTIAL_CONTENT));
+        assertThat(result.getHeaders().get(HttpHeaders.CONTENT_RANGE), is("bytes 2-5/10"));
+        assertThat(result.getHeaders().get(HttpHeaders.CONTENT_LENGTH), is("4"));
+        assertThat(outputStream.toString("US-ASCII"), is("2345"));
+    }
+
+    @Test
+    public void sendMultipleRanges() throws Exception {
+        Result result = Results.ok().text();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+
+        List<ByteRanges.Range> ranges = ByteRanges.parse("bytes=0-1,-2", CONTENT.length);
+        ByteRanges.send(result, CONTENT.length, ranges, ByteRanges.of(CONTENT), r -> responseStreams);
+
+        assertThat(result.getStatusCode(), is(Result.SC_206_PARTIAL_CONTENT));
+
+        String contentType = result.getHeaders().get(HttpHeaders.CONTENT_TYPE);
+        assertThat(contentType, startsWith("multipart/byteranges; boundary="));
+
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String body = outputStream.toString("US-ASCII");
+
+        assertThat(body, is("\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n"
+                + "Content-Range: bytes 0-1/10\r\n\r\n"
+                + "01"
+                + "\r\n--" + boundary + "\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n"
+                + "Content-Range: bytes 8-9/10\r\n\r\n"
+                + "89"
+                + "\r\n--" + boundary + "--\r\n"));
+        assertThat(result.getHeaders().get(HttpHeaders.CONTENT_LENGTH), is(String.valueOf(body.length())));
+    }
+
+    @Test
+    public void sendMultipleRangesOfBinaryContent() throws Exception {
+        Result result = Results.ok().contentType("image/png");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        when(responseStreams.getOutputStream()).thenReturn(outputStream);
+
+        List<ByteRanges.Range> ranges = ByteRanges.parse("bytes=0-1,-2", CONTENT.length);
+        ByteRanges.send(result, CONTENT.length, ranges, ByteRanges.of(CONTENT), r -> responseStreams);
+
+        // sent as it is, the container appends a charset to the content type of the result only
+        String contentType = result.getHeaders().get(HttpHeaders.CONTENT_TYPE);
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        assertThat(boundary.matches("[0-9a-f]+"), is(true));
+        assertThat(contentType, is("multipart/byteranges; boundary=" + boundary));
+        assertThat(result.getContentType(), nullValue());
+
+        String body = outputStream.toString("US-ASCII");
+        assertThat(body, containsString("Content-Type: image/png\r\n"));
+    }
+
+    @Test
+    public void sendUnsatisfiable() throws Exception {
+        Result result = Results.ok();
+
+        ByteRanges.send(result, CONTENT.length, ByteRanges.parse("bytes=20-", CONTENT.length),
+                ByteRanges.of(CONTENT), r -> responseStreams);
+
+        assertThat(result.getStatusCode(), is(Result.SC_416_RANGE_NOT_SATISFIABLE));
+        assertThat(result.getHeaders().get(HttpHeaders.CONTENT_RANGE), containsString("*/10"));
+    }
+}
@@ -180,4 +180,43 @@ public class HttpCacheToolkitImplTest {
 
     }
 
+    @Test
+    public void testAddEtagForVariant() {
+
+        HttpCacheToolkit httpCacheToolkit = new HttpCacheToolkitImpl(settings);
+
+        when(settings.isEtagEnable()).thenReturn(true);
+        when(context.getMethod()).thenReturn("GET");
+
+        httpCacheToolkit.addEtag(context, result, 1234L, "gzip");
+        verify(result).addHeader(ETAG, "\"1234-gzip\"");
+
+        // the etag of the identity variant does not validate the gzip one
+        when(context.getHeader(IF_NONE_MATCH)).thenReturn("\"1234\"");
+
+        reset(result);
+        httpCacheToolkit.addEtag(context, result, 1234L, "gzip");
+        verify(result, never()).status(Result.SC_304_NOT_MODIFIED);
+
+        when(context.getHeader(IF_NONE_MATCH)).thenReturn("\"1234-gzip\"");
+
+        reset(result);
+        httpCacheToolkit.addEtag(context, result, 1234L, "gzip");
+        verify(result).status(Result.SC_304_NOT_MODIFIED);
+    }
+
+    @Test
+    public void testAddImmutable() {
+
+        HttpCacheToolkit httpCacheToolkit = new HttpCacheToolkitImpl(settings);
+
+        when(settings.isEtagEnable()).thenReturn(true);
+        when(context.getMethod()).thenReturn("GET");
+
+        httpCacheToolkit.addImmutable(context, result, 1234L, null);
+        verify(result).addHeader(CACHE_CONTROL, "public, max-age=31536000, immutable");
+        verify(result).addHeader(ETAG, "\"1234\"");
+        verify(result, never()).addHeader(CACHE_CONTROL, "no-cache");
+    }
+
 }
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.support;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.Context;
+import io.sunflower.ewf.Result;
+import io.sunflower.ewf.Results;
+import io.sunflower.ewf.internal.Route;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResponseCompressionTest {
+
+    @Mock
+    Context context;
+
+    @Mock
+    Route route;
+
+    ResponseCompression compression;
+
+    @Before
+    public void setUp() {
+        compression = new ResponseCompression(new Settings(ImmutableMap.of(
+                Constants.COMPRESSION_ENABLED, "true",
+                Constants.COMPRESSION_MIN_SIZE, "100",
+                Constants.COMPRESSION_MIME_TYPES, "application/json, text/*")));
+    }
+
+    @Test
+    public void acceptEncodingIsNegotiated() {
+        assertThat(ResponseCompression.negotiate(null), nullValue());
+        assertThat(ResponseCompression.negotiate(""), nullValue());
+        assertThat(ResponseCompression.negotiate("identity"), nullValue());
+        assertThat(ResponseCompression.negotiate("gzip, deflate, br"), equalTo("gzip"));
+        assertThat(ResponseCompression.negotiate("deflate"), equalTo("deflate"));
+        assertThat(ResponseCompression.negotiate("gzip;q=0.5, deflate"), equalTo("deflate"));
+        assertThat(ResponseCompression.negotiate("gzip;q=0, *"), equalTo("deflate"));
+        assertThat(ResponseCompression.negotiate("*;q=0.1"), equalTo("gzip"));
+        assertThat(ResponseCompression.negotiate("GZIP"), equalTo("gzip"));
+        assertThat(ResponseCompression.negotiate("*;q=0"), nullValue());
+    }
+
+    @Test
+    public void onlyAllowedContentTypesAreCompressible() {
+        when(context.getMethod()).thenReturn("GET");
+
+        assertTrue(compression.isCompressible(context, Results.json()));
+        assertTrue(compression.isCompressible(context, Results.html()));
+        assertFalse(compression.isCompressible(context, Results.ok().contentType("image/png")));
+        assertFalse(compression.isCompressible(context, Results.ok()));
+    }
+
+    @Test
+    public void responsesWithoutBodyOrEncodedAreNotCompressible() {
+        when(context.getMethod()).thenReturn("GET");
+
+        assertFalse(compression.isCompressible(context, Results.noContent().json()));
+        assertFalse(compression.isCompressible(context, Results.json().status(Result.SC_304_NOT_MODIFIED)));
+        assertFalse(compression.isCompressible(context, Results.json().addHeader(HttpHeaders.CONTENT_ENCODING, "br")));
+
+        when(context.getMethod()).thenReturn("HEAD");
+        assertFalse(compression.isCompressible(context, Results.json()));
+    }
+
+    @Test
+    public void routesCanOptOut() {
+        when(context.getMethod()).thenReturn("GET");
+        when(context.getRoute()).thenReturn(route);
+        when(route.isCompressible()).thenReturn(false);
+
+        assertFalse(compression.isCompressible(context, Results.json()));
+    }
+
+    @Test
+    public void compressionIsOffByDefault() {
+        compression = new ResponseCompression(new Settings());
+
+        assertFalse(compression.isCompressible(context, Results.json()));
+    }
+
+    @Test
+    public void declaredSmallBodiesAreNotCompressed() {
+        when(context.getAcceptEncoding()).thenReturn("gzip");
+
+        assertThat(compression.selectEncoding(context, Results.json()), equalTo("gzip"));
+        assertThat(compression.selectEncoding(context, Results.json().addHeader(HttpHeaders.CONTENT_LENGTH, "99")), nullValue());
+        assertThat(compression.selectEncoding(context, Results.json().addHeader(HttpHeaders.CONTENT_LENGTH, "100")), equalTo("gzip"));
+    }
+
+    @Test
+    public void smallBodyIsSentAsItIs() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicBoolean compressed = new AtomicBoolean();
+
+        OutputStream stream = compression.wrap(out, "gzip", false, () -> compressed.set(true));
+        stream.write("{\"small\":true}".getBytes("UTF-8"));
+        // jackson flushes after writing a value
+        stream.flush();
+        stream.close();
+
+        assertFalse(compressed.get());
+        assertThat(new String(out.toByteArray(), "UTF-8"), equalTo("{\"small\":true}"));
+    }
+
+    @Test
+    public void largeBodyIsGzipped() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicBoolean compressed = new AtomicBoolean();
+        byte[] body = body();
+
+        OutputStream stream = compression.wrap(out, "gzip", false, () -> compressed.set(true));
+        stream.write(body, 0, 50);
+        stream.write(body, 50, body.length - 50);
+        stream.close();
+
+        assertTrue(compressed.get());
+        assertTrue(out.size() < body.length);
+        assertArrayEquals(body, ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    @Test
+    public void knownLengthIsDeflatedRightAway() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicBoolean compressed = new AtomicBoolean();
+        byte[] body = body();
+
+        OutputStream stream = compression.wrap(out, "deflate", true, () -> compressed.set(true));
+        assertTrue(compressed.get());
+
+        stream.write(body);
+        stream.close();
+
+        assertArrayEquals(body, ByteStreams.toByteArray(new InflaterInputStream(new ByteArrayInputStream(out.toByteArray()))));
+    }
+
+    private static byte[] body() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+
+        for (int i = 0; i < 1000; i++) {
+            json.append("{\"id\":").append(i).append("},");
+        }
+
+        return json.append("{}]").toString().getBytes("UTF-8");
+    }
+}
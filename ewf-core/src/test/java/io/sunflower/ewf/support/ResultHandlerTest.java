@@ -15,6 +15,7 @@
 
 package io.sunflower.ewf.support;
 
+import com.google.common.collect.ImmutableSet;
 import io.sunflower.ewf.Context;
 import io.sunflower.ewf.Result;
 import io.sunflower.ewf.Results;
@@ -39,6 +40,7 @@ import static com.google.common.net.HttpHeaders.EXPIRES;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -157,6 +159,53 @@ public class ResultHandlerTest {
         verify(templateEngineHtml).invoke(context, result);
     }
 
+    @Test
+    public void binaryContentTypesNeedToBeNegotiated() {
+        when(context.getAcceptContentType()).thenReturn(Result.APPLICATION_CBOR);
+        Result result = Results.ok();
+        resultHandler.handleResult(result, context);
+        assertEquals(Result.APPLICATION_JSON, result.getContentType());
+        verify(templateEngine).invoke(context, result);
+    }
+
+    @Test
+    public void modulesAddNegotiatedContentTypes() {
+        TemplateEngine templateEngineCbor = mock(TemplateEngine.class);
+        when(templateEngineManager.getTemplateEngineForContentType(Result.APPLICATION_CBOR))
+                .thenReturn(templateEngineCbor);
+        when(context.getAcceptContentType()).thenReturn(Result.APPLICATION_CBOR);
+        ((ResultHandlerImpl) resultHandler).setNegotiatedContentTypes(ImmutableSet.of(Result.APPLICATION_CBOR));
+
+        Result result = Results.ok();
+        resultHandler.handleResult(result, context);
+        assertEquals(Result.APPLICATION_CBOR, result.getContentType());
+        verify(templateEngineCbor).invoke(context, result);
+
+        // a result declaring its content types is left alone
+        Result htmlOnly = Results.ok().supportedContentType(Result.TEXT_HTML).fallbackContentType(Result.TEXT_HTML);
+        resultHandler.handleResult(htmlOnly, context);
+        assertEquals(Result.TEXT_HTML, htmlOnly.getContentType());
+    }
+
+    @Test
+    public void ndjsonIsOnlyNegotiatedWhenTheResultSupportsIt() {
+        TemplateEngine templateEngineNdjson = mock(TemplateEngine.class);
+        when(templateEngineManager.getTemplateEngineForContentType(Result.APPLICATION_NDJSON))
+                .thenReturn(templateEngineNdjson);
+        when(context.getAcceptContentType()).thenReturn(Result.APPLICATION_NDJSON);
+
+        // a plain result keeps the default content types
+        Result result = Results.ok();
+        resultHandler.handleResult(result, context);
+        assertEquals(Result.APPLICATION_JSON, result.getContentType());
+        verify(templateEngine).invoke(context, result);
+
+        Result streaming = Results.ok().supportedContentType(Result.APPLICATION_NDJSON);
+        resultHandler.handleResult(streaming, context);
+        assertEquals(Result.APPLICATION_NDJSON, streaming.getContentType());
+        verify(templateEngineNdjson).invoke(context, streaming);
+    }
+
     @Test
     public void testRenderPlainStringLeavesExplicitlySetContentTypeUntouched() {
         final String toRender = "this is just a plain string";
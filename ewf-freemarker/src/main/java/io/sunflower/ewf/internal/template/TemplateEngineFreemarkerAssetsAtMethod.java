@@ -17,9 +17,11 @@ package io.sunflower.ewf.internal.template;
 
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
+import freemarker.template.SimpleScalar;
 import freemarker.template.TemplateMethodModelEx;
 import freemarker.template.TemplateModel;
 import freemarker.template.TemplateModelException;
+import freemarker.template.TemplateScalarModel;
 import io.sunflower.ewf.assets.AssetsController;
 
 import java.util.ArrayList;
@@ -34,10 +36,14 @@ public class TemplateEngineFreemarkerAssetsAtMethod implements
 
     private final TemplateEngineFreemarkerReverseRouteHelper templateEngineFreemarkerReverseRouteHelper;
 
+    private final AssetsController assetsController;
+
     @Inject
     public TemplateEngineFreemarkerAssetsAtMethod(
-            TemplateEngineFreemarkerReverseRouteHelper templateEngineFreemarkerReverseRouteHelper) {
+            TemplateEngineFreemarkerReverseRouteHelper templateEngineFreemarkerReverseRouteHelper,
+            AssetsController assetsController) {
         this.templateEngineFreemarkerReverseRouteHelper = templateEngineFreemarkerReverseRouteHelper;
+        this.assetsController = assetsController;
 
     }
 
@@ -48,7 +54,15 @@ public class TemplateEngineFreemarkerAssetsAtMethod implements
         argsWithResourceAndMethod.add(AssetsController.class.getName());
         argsWithResourceAndMethod.add("serveStatic");
         argsWithResourceAndMethod.add("fileName");
-        argsWithResourceAndMethod.addAll(args);
+
+        if (!args.isEmpty() && args.get(0) instanceof TemplateScalarModel) {
+            // links to the fingerprinted name if enabled
+            String fileName = ((TemplateScalarModel) args.get(0)).getAsString();
+            argsWithResourceAndMethod.add(new SimpleScalar(assetsController.fingerprint(fileName)));
+            argsWithResourceAndMethod.addAll(args.subList(1, args.size()));
+        } else {
+            argsWithResourceAndMethod.addAll(args);
+        }
 
         return templateEngineFreemarkerReverseRouteHelper
                 .computeReverseRoute(argsWithResourceAndMethod);
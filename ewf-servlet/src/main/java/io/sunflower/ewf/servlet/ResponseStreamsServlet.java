@@ -15,10 +15,13 @@
 
 package io.sunflower.ewf.servlet;
 
+import com.google.common.net.HttpHeaders;
+import io.sunflower.ewf.support.ResponseCompression;
 import io.sunflower.ewf.support.ResponseStreams;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 
 import javax.servlet.http.HttpServletResponse;
@@ -33,11 +36,29 @@ public class ResponseStreamsServlet implements ResponseStreams {
 
     private HttpServletResponse httpServletResponse;
 
+    private ResponseCompression responseCompression;
+    private String contentEncoding;
+    private boolean lengthKnown;
+    private OutputStream compressedOutputStream;
+
     public void init(HttpServletResponse httpServletResponse) {
         this.httpServletResponse = httpServletResponse;
 
     }
 
+    /**
+     * Compress the body written to the streams.
+     *
+     * @param responseCompression the compression
+     * @param contentEncoding     the negotiated content coding
+     * @param lengthKnown         true if the length of the body was declared up front
+     */
+    public void compress(ResponseCompression responseCompression, String contentEncoding, boolean lengthKnown) {
+        this.responseCompression = responseCompression;
+        this.contentEncoding = contentEncoding;
+        this.lengthKnown = lengthKnown;
+    }
+
     /**
      * Get the output stream to write the response.
      *
@@ -47,7 +68,17 @@ public class ResponseStreamsServlet implements ResponseStreams {
      */
     @Override
     public OutputStream getOutputStream() throws IOException {
-        return httpServletResponse.getOutputStream();
+        if (contentEncoding == null) {
+            return httpServletResponse.getOutputStream();
+        }
+
+        if (compressedOutputStream == null) {
+            compressedOutputStream = responseCompression.wrap(
+                    httpServletResponse.getOutputStream(), contentEncoding, lengthKnown,
+                    () -> httpServletResponse.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding));
+        }
+
+        return compressedOutputStream;
     }
 
     /**
@@ -59,7 +90,11 @@ public class ResponseStreamsServlet implements ResponseStreams {
      */
     @Override
     public Writer getWriter() throws IOException {
-        return httpServletResponse.getWriter();
+        if (contentEncoding == null) {
+            return httpServletResponse.getWriter();
+        }
+
+        return new OutputStreamWriter(getOutputStream(), httpServletResponse.getCharacterEncoding());
     }
 
 }
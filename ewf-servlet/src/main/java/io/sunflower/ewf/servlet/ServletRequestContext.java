@@ -30,6 +30,7 @@ import io.sunflower.ewf.session.Session;
 import io.sunflower.ewf.spi.ResultHandler;
 import io.sunflower.ewf.support.AbstractContext;
 import io.sunflower.ewf.support.Constants;
+import io.sunflower.ewf.support.ResponseCompression;
 import io.sunflower.ewf.support.ResponseStreams;
 import io.sunflower.ewf.support.Settings;
 import io.sunflower.ewf.FileItem;
@@ -78,6 +79,7 @@ public class ServletRequestContext extends AbstractContext {
     private Map<String, List<FileItem>> fileFieldsMap;
 
     private final Injector injector;
+    private final ResponseCompression responseCompression;
 
     @Inject
     public ServletRequestContext(
@@ -88,7 +90,8 @@ public class ServletRequestContext extends AbstractContext {
             Session session,
             Validation validation,
             ParamParsers paramParsers,
-            Injector injector) {
+            Injector injector,
+            ResponseCompression responseCompression) {
 
         super(bodyParserEngineManager,
                 settings,
@@ -99,6 +102,7 @@ public class ServletRequestContext extends AbstractContext {
 
         this.injector = injector;
         this.resultHandler = resultHandler;
+        this.responseCompression = responseCompression;
     }
 
     public void init(ServletContext servletContext,
@@ -348,11 +352,22 @@ public class ServletRequestContext extends AbstractContext {
 
         httpServletResponse.setStatus(result.getStatusCode());
 
+        boolean compressible = responseCompression.isCompressible(this, result);
+        String contentEncoding = compressible ? responseCompression.selectEncoding(this, result) : null;
+
         // copy headers
         for (Entry<String, String> header : result.getHeaders().entrySet()) {
+            // the declared length is the one of the uncompressed body
+            if (contentEncoding != null && HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
             httpServletResponse.addHeader(header.getKey(), header.getValue());
         }
 
+        if (compressible && !ResponseCompression.variesOnAcceptEncoding(result)) {
+            httpServletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
         // set content type
         if (result.getContentType() != null) {
 
@@ -361,17 +376,25 @@ public class ServletRequestContext extends AbstractContext {
 
         // Set charset => use utf-8 if not set
         // Sets correct encoding for Content-Type. But also for the output
-        // writers.
-        if (result.getCharset() != null) {
-            httpServletResponse.setCharacterEncoding(result.getCharset());
-        } else {
-            httpServletResponse.setCharacterEncoding(Constants.UTF_8);
+        // writers. A Content-Type header set by the result (multipart/byteranges)
+        // is sent as it is, the charset would end up behind its parameters.
+        boolean contentTypeHeader = result.getContentType() == null
+                && result.getHeaders().containsKey(HttpHeaders.CONTENT_TYPE);
+
+        if (!contentTypeHeader) {
+            httpServletResponse.setCharacterEncoding(
+                    result.getCharset() != null ? result.getCharset() : Constants.UTF_8);
         }
 
         // possibly
         ResponseStreamsServlet responseStreamsServlet = new ResponseStreamsServlet();
         responseStreamsServlet.init(httpServletResponse);
 
+        if (contentEncoding != null) {
+            responseStreamsServlet.compress(responseCompression, contentEncoding,
+                    result.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        }
+
         return responseStreamsServlet;
     }
 
@@ -18,12 +18,16 @@ import com.google.inject.Injector;
 import io.sunflower.ewf.internal.ValidationImpl;
 import io.sunflower.ewf.internal.bodyparser.BodyParserEngineManager;
 import io.sunflower.ewf.params.internal.ParamParsers;
+import io.sunflower.ewf.session.SessionStore;
 import io.sunflower.ewf.session.internal.FlashScopeImpl;
 import io.sunflower.ewf.session.internal.SessionImpl;
 import io.sunflower.ewf.session.internal.support.Clock;
+import io.sunflower.ewf.session.internal.support.AesGcmCookieCodec;
 import io.sunflower.ewf.session.internal.support.CookieEncryption;
 import io.sunflower.ewf.session.internal.support.Crypto;
 import io.sunflower.ewf.spi.RequestHandler;
+import io.sunflower.ewf.spi.ResultHandler;
+import io.sunflower.ewf.support.ResponseCompression;
 import io.sunflower.ewf.support.Settings;
 import io.undertow.server.HttpHandler;
 import io.undertow.server.HttpServerExchange;
@@ -32,6 +36,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Handles a request from Undertow and then delegates to ewf.
+ * <p>
+ * With {@link Settings#isContextRecycling()} every thread keeps the context of its last request,
+ * together with its validation, flash scope and session, and resets it for the next one. That is
+ * the worker threads and, for non-blocking routes, the IO threads.
+ * A context is not recycled if the request went on beyond {@link #handleRequest} - dispatched to
+ * another thread, async or upgraded to a websocket.
  *
  * @author michael
  */
@@ -46,7 +56,18 @@ public class EwfHttpHandler implements HttpHandler {
 
     private final Crypto crypto;
     private final CookieEncryption cookieEncryption;
+    private final AesGcmCookieCodec aesGcmCookieCodec;
     private final Clock clock;
+    private final SessionStore sessionStore;
+    private final ResponseCompression responseCompression;
+    private final ResultHandler resultHandler;
+    private final SessionImpl.Config sessionConfig;
+    private final String contextPath;
+
+    /**
+     * null unless contexts are recycled
+     */
+    private final ThreadLocal<RecycledContext> recycledContexts;
 
     public EwfHttpHandler(Injector injector) {
         this.settings = injector.getInstance(Settings.class);
@@ -57,25 +78,104 @@ public class EwfHttpHandler implements HttpHandler {
         this.crypto = injector.getInstance(Crypto.class);
         this.clock = injector.getInstance(Clock.class);
         this.cookieEncryption = injector.getInstance(CookieEncryption.class);
+        this.aesGcmCookieCodec = injector.getInstance(AesGcmCookieCodec.class);
+        this.sessionStore = settings.isSessionStoreEnabled() ? injector.getInstance(SessionStore.class) : null;
+        this.responseCompression = injector.getInstance(ResponseCompression.class);
+        this.resultHandler = injector.getInstance(ResultHandler.class);
+
+        this.sessionConfig = new SessionImpl.Config(settings);
+        this.contextPath = settings.getContextPath();
+        this.recycledContexts = settings.isContextRecycling() ? ThreadLocal.withInitial(this::newContext) : null;
     }
 
     @Override
     public void handleRequest(HttpServerExchange exchange) throws Exception {
-        // create compatible context element
-        UndertowContext undertowContext =
-                new UndertowContext(
-                        bodyParserEngineManager,
-                        settings,
-                        new ValidationImpl(),
-                        paramParsers,
-                        new FlashScopeImpl(settings),
-                        new SessionImpl(crypto, cookieEncryption, settings, clock));
-
-        // initialize it
-        undertowContext.init(exchange, settings.getContextPath());
-
-        // invoke requestHandler on it
-        requestHandler.handleRequest(undertowContext);
+        if (recycledContexts == null) {
+            // create compatible context element
+            UndertowContext undertowContext =
+                    new UndertowContext(
+                            bodyParserEngineManager,
+                            settings,
+                            new ValidationImpl(),
+                            paramParsers,
+                            new FlashScopeImpl(settings),
+                            new SessionImpl(crypto, cookieEncryption, aesGcmCookieCodec, sessionConfig, clock, sessionStore),
+                            responseCompression,
+                            resultHandler);
+
+            // initialize it
+            undertowContext.init(exchange, contextPath);
+
+            // invoke requestHandler on it
+            requestHandler.handleRequest(undertowContext);
+            return;
+        }
+
+        RecycledContext recycled = recycledContexts.get();
+
+        if (recycled.inUse) {
+            // a request handled within a request, it gets a context of its own
+            recycled = newContext();
+        }
+
+        recycled.inUse = true;
+
+        try {
+            recycled.context.init(exchange, contextPath);
+            requestHandler.handleRequest(recycled.context);
+        } finally {
+            if (exchange.isDispatched() || exchange.isUpgrade() || recycled.context.isAsync()) {
+                // still in use by another thread or the websocket, it must not serve another request
+                if (recycledContexts.get() == recycled) {
+                    recycledContexts.remove();
+                }
+            } else {
+                recycled.reset();
+            }
+        }
+    }
+
+    private RecycledContext newContext() {
+        return new RecycledContext(
+                new ValidationImpl(),
+                new FlashScopeImpl(settings),
+                new SessionImpl(crypto, cookieEncryption, aesGcmCookieCodec, sessionConfig, clock, sessionStore));
+    }
+
+    /**
+     * A context and the objects it was created with, which are only known by their interfaces to it.
+     */
+    private class RecycledContext {
+
+        final UndertowContext context;
+        final ValidationImpl validation;
+        final FlashScopeImpl flashScope;
+        final SessionImpl session;
+
+        boolean inUse;
+
+        RecycledContext(ValidationImpl validation, FlashScopeImpl flashScope, SessionImpl session) {
+            this.validation = validation;
+            this.flashScope = flashScope;
+            this.session = session;
+            this.context = new UndertowContext(
+                    bodyParserEngineManager,
+                    settings,
+                    validation,
+                    paramParsers,
+                    flashScope,
+                    session,
+                    responseCompression,
+                    resultHandler);
+        }
+
+        void reset() {
+            context.recycle();
+            validation.reset();
+            flashScope.reset();
+            session.reset();
+            inUse = false;
+        }
     }
 
 }
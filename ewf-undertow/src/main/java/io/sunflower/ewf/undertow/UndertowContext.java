@@ -18,30 +18,44 @@ package io.sunflower.ewf.undertow;
 import com.google.inject.Inject;
 import io.sunflower.ewf.Cookie;
 import io.sunflower.ewf.Result;
+import io.sunflower.ewf.errors.BadRequestException;
 import io.sunflower.ewf.internal.ParameterFileItem;
+import io.sunflower.ewf.internal.RouteMatch;
 import io.sunflower.ewf.internal.bodyparser.BodyParserEngineManager;
 import io.sunflower.ewf.params.internal.ParamParsers;
 import io.sunflower.ewf.session.FlashScope;
 import io.sunflower.ewf.session.Session;
+import io.sunflower.ewf.spi.ResultHandler;
 import io.sunflower.ewf.support.AbstractContext;
 import io.sunflower.ewf.support.Constants;
+import io.sunflower.ewf.support.ResponseCompression;
 import io.sunflower.ewf.support.ResponseStreams;
 import io.sunflower.ewf.support.Settings;
 import io.sunflower.ewf.undertow.support.UndertowCookieHelper;
 import io.sunflower.ewf.undertow.support.UndertowHelper;
 import io.sunflower.ewf.FileItem;
 import io.sunflower.ewf.validation.Validation;
+import io.undertow.io.UndertowOutputStream;
 import io.undertow.server.HttpServerExchange;
+import io.undertow.util.SameThreadExecutor;
 import io.undertow.server.handlers.form.FormData;
 import io.undertow.server.handlers.form.FormDataParser;
+import io.undertow.server.handlers.form.FormParserFactory;
+import io.undertow.util.AttachmentKey;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
+import org.xnio.IoUtils;
 
 import java.io.*;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 
 import static io.sunflower.ewf.internal.Route.HTTP_METHOD_POST;
 
@@ -51,11 +65,41 @@ import static io.sunflower.ewf.internal.Route.HTTP_METHOD_POST;
  */
 public class UndertowContext extends AbstractContext {
 
+    /**
+     * the route of the exchange if it was resolved before the context is initialized
+     */
+    public static final AttachmentKey<RouteMatch> ROUTE_MATCH = AttachmentKey.create(RouteMatch.class);
+
+    private static final FormParserFactory FORM_PARSERS = createFormParsers();
+
     private final String[] STRING_ARRAY = new String[0];
 
     private final Map<String, Object> attributes;
+    private final ResponseCompression responseCompression;
+    private final ResultHandler resultHandler;
     private HttpServerExchange exchange;
+
+    /**
+     * parsed on first access, only requests that read their parameters pay for it
+     */
     private FormData formData;
+    private boolean formDataParsed;
+
+    /**
+     * true once the body went to the non-blocking sender, which ends the exchange
+     */
+    private boolean responseSent;
+
+    /**
+     * An async request is dispatched: undertow neither ends the exchange when the handler returns
+     * nor before the result is written. A result returned before the handler returned waits for
+     * the dispatch.
+     */
+    private final Object asyncLock = new Object();
+    private boolean async;
+    private boolean dispatched;
+    private boolean resultPending;
+    private Result pendingResult;
 
     @Inject
     public UndertowContext(
@@ -64,7 +108,9 @@ public class UndertowContext extends AbstractContext {
             Validation validation,
             ParamParsers paramParsers,
             FlashScope flashScope,
-            Session session) {
+            Session session,
+            ResponseCompression responseCompression,
+            ResultHandler resultHandler) {
 
         super(
                 bodyParserEngineManager,
@@ -75,6 +121,8 @@ public class UndertowContext extends AbstractContext {
                 session);
 
         this.attributes = new HashMap<>();
+        this.responseCompression = responseCompression;
+        this.resultHandler = resultHandler;
     }
 
     public void init(HttpServerExchange exchange, String contextPath) {
@@ -83,10 +131,17 @@ public class UndertowContext extends AbstractContext {
         //enforceCorrectEncodingOfRequest();
 //        requestPath = performGetRequestPath();
 
-        // any form data should have been eagerly parsed
-        this.formData = exchange.getAttachment(FormDataParser.FORM_DATA);
+        this.formData = null;
+        this.formDataParsed = false;
+        this.responseSent = false;
 
         super.init(contextPath, exchange.getRelativePath());
+
+        RouteMatch routeMatch = exchange.getAttachment(ROUTE_MATCH);
+
+        if (routeMatch != null) {
+            setRoute(routeMatch);
+        }
     }
 
     @Override
@@ -148,8 +203,9 @@ public class UndertowContext extends AbstractContext {
             return queryParameterValues.getFirst();
         } else {
             // fallback to form data
-            if (this.formData != null) {
-                FormData.FormValue value = this.formData.getFirst(name);
+            FormData formData = getFormData();
+            if (formData != null) {
+                FormData.FormValue value = formData.getFirst(name);
                 if (value != null) {
                     return value.getValue();
                 }
@@ -171,8 +227,9 @@ public class UndertowContext extends AbstractContext {
         }
 
         // merge values from form data
-        if (this.formData != null) {
-            Deque<FormData.FormValue> formValues = this.formData.get(name);
+        FormData formData = getFormData();
+        if (formData != null) {
+            Deque<FormData.FormValue> formValues = formData.get(name);
             if (formValues != null) {
                 for (FormData.FormValue formValue : formValues) {
                     values.add(formValue.getValue());
@@ -198,11 +255,12 @@ public class UndertowContext extends AbstractContext {
         }
 
         // merge values from form data
-        if (this.formData != null) {
-            Iterator<String> it = this.formData.iterator();
+        FormData formData = getFormData();
+        if (formData != null) {
+            Iterator<String> it = formData.iterator();
             while (it.hasNext()) {
                 String formName = it.next();
-                Deque<FormData.FormValue> formValues = this.formData.get(formName);
+                Deque<FormData.FormValue> formValues = formData.get(formName);
                 UndertowHelper.createOrMerge(parameters, formName, formValues);
             }
         }
@@ -306,11 +364,23 @@ public class UndertowContext extends AbstractContext {
 
         exchange.setStatusCode(result.getStatusCode());
 
+        final boolean compressible = responseCompression.isCompressible(this, result);
+        final String contentEncoding = compressible ? responseCompression.selectEncoding(this, result) : null;
+        final boolean lengthKnown = result.getHeaders().containsKey(Headers.CONTENT_LENGTH_STRING);
+
         // copy headers
         for (Map.Entry<String, String> header : result.getHeaders().entrySet()) {
+            // the declared length is the one of the uncompressed body
+            if (contentEncoding != null && Headers.CONTENT_LENGTH_STRING.equalsIgnoreCase(header.getKey())) {
+                continue;
+            }
             exchange.getResponseHeaders().add(new HttpString(header.getKey()), header.getValue());
         }
 
+        if (compressible && !ResponseCompression.variesOnAcceptEncoding(result)) {
+            exchange.getResponseHeaders().add(Headers.VARY, Headers.ACCEPT_ENCODING_STRING);
+        }
+
         // charset in use
         final String charset = Optional.ofNullable(result.getCharset()).orElse(Constants.UTF_8);
 
@@ -324,18 +394,113 @@ public class UndertowContext extends AbstractContext {
 
         return new ResponseStreams() {
 
+            private OutputStream outputStream;
+
             @Override
             public OutputStream getOutputStream() throws IOException {
-                return exchange.getOutputStream();
+                if (outputStream == null) {
+                    OutputStream rawOutputStream = rawOutputStream();
+                    outputStream = contentEncoding == null
+                            ? rawOutputStream
+                            : responseCompression.wrap(rawOutputStream, contentEncoding, lengthKnown,
+                            () -> exchange.getResponseHeaders().put(Headers.CONTENT_ENCODING, contentEncoding));
+                }
+                return outputStream;
             }
 
             @Override
             public Writer getWriter() throws IOException {
-                return new OutputStreamWriter(exchange.getOutputStream(), charset);
+                return new OutputStreamWriter(getOutputStream(), charset);
+            }
+
+            @Override
+            public void transferFrom(Path file) throws IOException {
+                // compressed bodies have to go through the deflater, the IO thread can't wait for the file
+                OutputStream rawOutputStream = contentEncoding == null && !exchange.isInIoThread()
+                        ? rawOutputStream()
+                        : null;
+
+                if (!(rawOutputStream instanceof UndertowOutputStream)) {
+                    ResponseStreams.super.transferFrom(file);
+                    return;
+                }
+
+                // zero copy: the channel is transferred to the connection, sendfile where available
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                     UndertowOutputStream outputStream = (UndertowOutputStream) rawOutputStream) {
+                    outputStream.transferFrom(channel);
+                }
+            }
+
+            @Override
+            public void abort() {
+                // what undertow does itself if a handler fails after the response started
+                IoUtils.safeClose(exchange.getConnection());
             }
         };
     }
 
+    /**
+     * The body goes to the exchange as it is written, except on the IO thread, where it is
+     * collected and sent without blocking once complete.
+     */
+    private OutputStream rawOutputStream() {
+        if (exchange.isInIoThread()) {
+            return new IoThreadOutputStream();
+        }
+
+        startBlocking();
+        return exchange.getOutputStream();
+    }
+
+    /**
+     * Requests run in place on the IO thread are not blocking, they might be continued on another
+     * thread though, e.g. by an async result.
+     */
+    private void startBlocking() {
+        if (!exchange.isBlocking()) {
+            exchange.startBlocking();
+        }
+    }
+
+    private static FormParserFactory createFormParsers() {
+        FormParserFactory.Builder formParserFactoryBuilder = FormParserFactory.builder();
+        formParserFactoryBuilder.setDefaultCharset(Constants.UTF_8);
+        return formParserFactoryBuilder.build();
+    }
+
+    private FormData getFormData() {
+        if (!formDataParsed) {
+            formDataParsed = true;
+            formData = exchange.getAttachment(FormDataParser.FORM_DATA);
+
+            if (formData == null) {
+                formData = parseFormData();
+            }
+        }
+
+        return formData;
+    }
+
+    private FormData parseFormData() {
+        // null unless the request is form encoded or multipart
+        FormDataParser parser = FORM_PARSERS.createParser(exchange);
+
+        // requests with a body are never run on the IO thread, there is nothing to parse there
+        if (parser == null || exchange.isInIoThread()) {
+            return null;
+        }
+
+        try {
+            startBlocking();
+            FormData formData = parser.parseBlocking();
+            exchange.putAttachment(FormDataParser.FORM_DATA, formData);
+            return formData;
+        } catch (IOException e) {
+            throw new BadRequestException("Error parsing incoming form data", e);
+        }
+    }
+
     @Override
     public String getRequestContentType() {
         return exchange.getRequestHeaders().getFirst(Headers.CONTENT_TYPE);
@@ -389,15 +554,17 @@ public class UndertowContext extends AbstractContext {
      */
     @Override
     public FileItem getParameterAsFileItem(String name) {
-        if (this.formData == null) {
+        FormData formData = getFormData();
+
+        if (formData == null) {
             return null;
         }
 
-        Iterator<String> it = this.formData.iterator();
+        Iterator<String> it = formData.iterator();
         while (it.hasNext()) {
             String formName = it.next();
             if (formName.equals(name)) {
-                Deque<FormData.FormValue> formValues = this.formData.get(formName);
+                Deque<FormData.FormValue> formValues = formData.get(formName);
                 ParameterFileItem fileItem = UndertowHelper.getFileItem(formName, formValues);
                 if (fileItem != null) {
                     return fileItem;
@@ -413,16 +580,18 @@ public class UndertowContext extends AbstractContext {
      */
     @Override
     public List<FileItem> getParameterAsFileItems(String name) {
-        if (this.formData == null) {
+        FormData formData = getFormData();
+
+        if (formData == null) {
             return Collections.emptyList();
         }
 
         List<FileItem> fileItemList = new ArrayList<FileItem>();
-        Iterator<String> it = this.formData.iterator();
+        Iterator<String> it = formData.iterator();
         while (it.hasNext()) {
             String formName = it.next();
             if (formName.equals(name)) {
-                Deque<FormData.FormValue> formValues = this.formData.get(formName);
+                Deque<FormData.FormValue> formValues = formData.get(formName);
                 UndertowHelper.populateFileItemList(fileItemList, formName, formValues);
             }
         }
@@ -435,12 +604,13 @@ public class UndertowContext extends AbstractContext {
     @Override
     public Map<String, List<FileItem>> getParameterFileItems() {
         Map<String, List<FileItem>> fileItemMap = new HashMap<>();
+        FormData formData = getFormData();
 
-        if (this.formData != null) {
-            Iterator<String> it = this.formData.iterator();
+        if (formData != null) {
+            Iterator<String> it = formData.iterator();
             while (it.hasNext()) {
                 String formName = it.next();
-                Deque<FormData.FormValue> formValues = this.formData.get(formName);
+                Deque<FormData.FormValue> formValues = formData.get(formName);
                 UndertowHelper.populateFileItemMap(fileItemMap, formName, formValues);
             }
         }
@@ -448,9 +618,125 @@ public class UndertowContext extends AbstractContext {
         return fileItemMap;
     }
 
+    @Override
+    public boolean isAsync() {
+        synchronized (asyncLock) {
+            return async;
+        }
+    }
+
+    @Override
+    public void handleAsync() {
+        synchronized (asyncLock) {
+            if (!async) {
+                async = true;
+                // runs on this thread once the handler returned, the worker is free then
+                exchange.dispatch(SameThreadExecutor.INSTANCE, this::asyncDispatched);
+            }
+        }
+    }
+
+    @Override
+    public void returnResultAsync(Result result) {
+        synchronized (asyncLock) {
+            handleAsync();
+
+            if (!dispatched) {
+                resultPending = true;
+                pendingResult = result;
+                return;
+            }
+        }
+
+        completeAsyncOnWorker(result);
+    }
+
+    private void asyncDispatched() {
+        Result result;
+
+        synchronized (asyncLock) {
+            dispatched = true;
+
+            if (!resultPending) {
+                return;
+            }
+
+            result = pendingResult;
+            pendingResult = null;
+        }
+
+        if (exchange.isInIoThread()) {
+            completeAsyncOnWorker(result);
+        } else {
+            // the worker that ran the handler, it is free now
+            completeAsync(result);
+        }
+    }
+
+    /**
+     * Results complete on any thread - the IO thread, the timeout scheduler, a pool of the
+     * application. None of them should block on writing the response, that is left to a worker.
+     */
+    private void completeAsyncOnWorker(Result result) {
+        try {
+            exchange.getConnection().getWorker().execute(() -> completeAsync(result));
+        } catch (RejectedExecutionException e) {
+            // the server is shutting down
+            exchange.endExchange();
+            throw e;
+        }
+    }
+
+    private void completeAsync(Result result) {
+        try {
+            resultHandler.handleResult(result, this);
+        } finally {
+            if (!responseSent) {
+                exchange.endExchange();
+            }
+        }
+    }
+
     @Override
     public void cleanup() {
         // do nothing for right now...
     }
 
+    /**
+     * Forgets the request, so the context can serve the next one of this thread. The validation,
+     * flash scope and session are reset by {@link EwfHttpHandler}, which created them.
+     */
+    void recycle() {
+        this.exchange = null;
+        this.formData = null;
+        this.formDataParsed = false;
+        this.responseSent = false;
+        this.attributes.clear();
+
+        synchronized (asyncLock) {
+            this.async = false;
+            this.dispatched = false;
+            this.resultPending = false;
+            this.pendingResult = null;
+        }
+    }
+
+    /**
+     * Collects the body of a response written on the IO thread, which must not block, and hands it
+     * to the non-blocking sender when closed. The sender ends the exchange.
+     */
+    private class IoThreadOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                responseSent = true;
+                exchange.getResponseSender().send(ByteBuffer.wrap(buf, 0, count));
+            }
+        }
+    }
+
 }
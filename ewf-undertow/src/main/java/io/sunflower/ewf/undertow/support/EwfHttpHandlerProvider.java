@@ -16,13 +16,12 @@
 package io.sunflower.ewf.undertow.support;
 
 import com.google.inject.Injector;
-import io.sunflower.ewf.support.Constants;
+import io.sunflower.ewf.Router;
+import io.sunflower.ewf.internal.InternalRouter;
 import io.sunflower.ewf.undertow.EwfHttpHandler;
 import io.sunflower.lifecycle.setup.StandardThreadExecutor;
 import io.sunflower.undertow.handler.StandardThreadExecutorBlockingHandler;
 import io.undertow.server.HttpHandler;
-import io.undertow.server.handlers.form.EagerFormParsingHandler;
-import io.undertow.server.handlers.form.FormParserFactory;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -30,6 +29,10 @@ import javax.inject.Singleton;
 
 /**
  * EwfHttpHandlerProvider
+ * <p>
+ * The route is resolved on the IO thread, non-blocking routes run there and the rest goes to the
+ * worker pool, see {@link RouteDispatchHandler}. Form data is parsed by the context when the
+ * request reads its parameters.
  *
  * @author michael created on 17/10/18 13:03
  */
@@ -38,21 +41,19 @@ public class EwfHttpHandlerProvider implements Provider<HttpHandler> {
 
     private final Injector injector;
     private final StandardThreadExecutor executor;
+    private final InternalRouter router;
 
     @Inject
     public EwfHttpHandlerProvider(Injector injector) {
         this.injector = injector;
         this.executor = injector.getInstance(StandardThreadExecutor.class);
+        this.router = (InternalRouter) injector.getInstance(Router.class);
     }
 
     @Override
     public HttpHandler get() {
         HttpHandler h = new EwfHttpHandler(injector);
-        // then eagerly parse form data (which is then included as an attachment)
-        FormParserFactory.Builder formParserFactoryBuilder = FormParserFactory.builder();
-        formParserFactoryBuilder.setDefaultCharset(Constants.UTF_8);
-        h = new EagerFormParsingHandler(formParserFactoryBuilder.build()).setNext(h);
 
-        return new StandardThreadExecutorBlockingHandler(executor, h);
+        return new RouteDispatchHandler(router, h, new StandardThreadExecutorBlockingHandler(executor, h));
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2017. the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.sunflower.ewf.undertow.support;
+
+import io.sunflower.ewf.internal.InternalRouter;
+import io.sunflower.ewf.internal.RouteMatch;
+import io.sunflower.ewf.undertow.UndertowContext;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+import io.undertow.util.Headers;
+
+/**
+ * Resolves the route of a request on the IO thread and decides where it runs: routes marked
+ * non-blocking run in place, unless the request has a body to read, everything else is handed to
+ * the worker pool.
+ * <p>
+ * The route is attached to the exchange, so it is not looked up a second time.
+ *
+ * @author michael
+ */
+public class RouteDispatchHandler implements HttpHandler {
+
+    private final InternalRouter router;
+    private final HttpHandler next;
+    private final HttpHandler blockingNext;
+
+    /**
+     * @param router       the router with the compiled routes
+     * @param next         handles requests in place
+     * @param blockingNext hands requests to the worker pool before they are handled
+     */
+    public RouteDispatchHandler(InternalRouter router, HttpHandler next, HttpHandler blockingNext) {
+        this.router = router;
+        this.next = next;
+        this.blockingNext = blockingNext;
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        RouteMatch routeMatch = router.getRouteMatchFor(
+                exchange.getRequestMethod().toString(), exchange.getRelativePath());
+
+        if (routeMatch != null) {
+            exchange.putAttachment(UndertowContext.ROUTE_MATCH, routeMatch);
+
+            if (routeMatch.getRoute().isNonBlocking() && exchange.isInIoThread() && !hasBody(exchange)) {
+                next.handleRequest(exchange);
+                return;
+            }
+        }
+
+        blockingNext.handleRequest(exchange);
+    }
+
+    /**
+     * reading a body blocks, whatever the route does with it
+     */
+    private static boolean hasBody(HttpServerExchange exchange) {
+        return exchange.getRequestContentLength() > 0
+                || exchange.getRequestHeaders().contains(Headers.TRANSFER_ENCODING);
+    }
+}